@@ -0,0 +1,85 @@
+package com.pucminas.rental_system.benchmark;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.service.DisponibilidadeService;
+import com.pucminas.rental_system.service.EstatisticaPedidosService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Sobe a aplicação sem camada web sobre um H2 em memória exclusivo e gera pedidos sintéticos
+// distribuídos entre clientes, automóveis e status.
+final class BenchmarkDataset {
+    static final int CLIENTES = 100;
+    static final int AUTOMOVEIS = 500;
+    static final long PRIMEIRO_CLIENTE = 1000;
+    static final long PRIMEIRO_AUTOMOVEL = 1000;
+    private static final int LOTE = 5000;
+
+    private BenchmarkDataset() {}
+
+    static ConfigurableApplicationContext iniciar(int pedidos) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RentalSystemApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:benchmark" + pedidos + "_" + System.nanoTime(),
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN")
+            .run();
+        popular(context.getBean(JdbcTemplate.class), pedidos);
+        context.getBean(DisponibilidadeService.class).carregarReservas();
+        context.getBean(EstatisticaPedidosService.class).reconstruir();
+        return context;
+    }
+
+    private static void popular(JdbcTemplate jdbc, int pedidos) {
+        String senha = jdbc.queryForObject("SELECT password FROM users WHERE id = 1", String.class);
+        for (int i = 0; i < CLIENTES; i++) {
+            long id = PRIMEIRO_CLIENTE + i;
+            jdbc.update("INSERT INTO users (id, email, password, role) VALUES (?, ?, ?, 'ROLE_CLIENTE')",
+                id, "bench" + id + "@email.com", senha);
+            jdbc.update("INSERT INTO cliente (id, nome) VALUES (?, ?)", id, "Cliente " + id);
+        }
+        for (int i = 0; i < AUTOMOVEIS; i++) {
+            long id = PRIMEIRO_AUTOMOVEL + i;
+            jdbc.update("INSERT INTO automovel (id, matricula, ano, marca, modelo, placa, cor, valor_aluguel_diario, version) " +
+                "VALUES (?, ?, 2024, 'Marca', 'Modelo', ?, 'Branco', ?, 0)", id, "BM" + id, "BEN-" + id, 50.0 + i % 100);
+        }
+
+        // Cada automóvel recebe reservas sequenciais de 3 dias, sem sobreposição
+        Random random = new Random(42);
+        PedidoAluguel.PedidoStatus[] status = PedidoAluguel.PedidoStatus.values();
+        LocalDateTime inicio = LocalDateTime.of(2020, 1, 1, 10, 0);
+        List<Object[]> lote = new ArrayList<>(LOTE);
+        for (int i = 0; i < pedidos; i++) {
+            long automovel = PRIMEIRO_AUTOMOVEL + i % AUTOMOVEIS;
+            LocalDateTime retirada = inicio.plusDays(3L * (i / AUTOMOVEIS));
+            lote.add(new Object[] {
+                PRIMEIRO_CLIENTE + random.nextInt(CLIENTES), automovel,
+                Timestamp.valueOf(retirada.minusDays(1 + random.nextInt(30))),
+                Timestamp.valueOf(retirada), Timestamp.valueOf(retirada.plusDays(3)),
+                150.0 + random.nextInt(300), status[random.nextInt(status.length)].name()
+            });
+            if (lote.size() == LOTE) {
+                inserir(jdbc, lote);
+            }
+        }
+        inserir(jdbc, lote);
+    }
+
+    private static void inserir(JdbcTemplate jdbc, List<Object[]> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate("INSERT INTO pedido_aluguel (cliente_id, automovel_id, data_pedido, data_retirada, " +
+            "data_devolucao, valor_total, status, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)", lote);
+        lote.clear();
+    }
+}
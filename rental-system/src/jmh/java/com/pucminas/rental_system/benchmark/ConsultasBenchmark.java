@@ -0,0 +1,61 @@
+package com.pucminas.rental_system.benchmark;
+
+import com.pucminas.rental_system.model.Cliente;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.repository.ClienteRepository;
+import com.pucminas.rental_system.service.PedidoAluguelService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.concurrent.TimeUnit;
+
+// Consultas que alimentam os dashboards de agente e cliente e a página de detalhes do cliente
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsultasBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int pedidos;
+
+    private ConfigurableApplicationContext context;
+    private PedidoAluguelService pedidoService;
+    private Cliente cliente;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        context = BenchmarkDataset.iniciar(pedidos);
+        pedidoService = context.getBean(PedidoAluguelService.class);
+        cliente = context.getBean(ClienteRepository.class).findById(BenchmarkDataset.PRIMEIRO_CLIENTE).orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        context.close();
+    }
+
+    @Benchmark
+    public double valorTotalPedidosAtivos() {
+        return pedidoService.calcularValorTotalPedidosAtivos(cliente);
+    }
+
+    // Mesmas chamadas de AgenteController.dashboardAgente
+    @Benchmark
+    public void dashboardAgente(Blackhole blackhole) {
+        blackhole.consume(pedidoService.contarPedidosPorStatus());
+        blackhole.consume(pedidoService.findPedidosRecentes(10));
+    }
+
+    // Mesmas chamadas de ClienteController.dashboardCliente
+    @Benchmark
+    public void dashboardCliente(Blackhole blackhole) {
+        blackhole.consume(pedidoService.contarPedidosPorStatus(cliente));
+        blackhole.consume(pedidoService.calcularValorTotalPedidosAtivos(cliente));
+        for (PedidoAluguel pedido : pedidoService.findPedidosRecentesPorCliente(cliente, 5)) {
+            blackhole.consume(pedido.getAutomovel().getMarca());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.pucminas.rental_system.benchmark;
+
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.service.PedidoAluguelService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Caminho completo de criação: buscas, parse das datas, verificação de disponibilidade, preço e INSERT
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CriarPedidoBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int pedidos;
+
+    private ConfigurableApplicationContext context;
+    private PedidoAluguelService pedidoService;
+    private long sequencia;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        context = BenchmarkDataset.iniciar(pedidos);
+        pedidoService = context.getBean(PedidoAluguelService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        context.close();
+    }
+
+    @Benchmark
+    public PedidoAluguel criarPedido() {
+        // Datas no futuro distante, um dia novo por rodada da frota, para nunca haver conflito
+        long n = sequencia++;
+        long automovel = BenchmarkDataset.PRIMEIRO_AUTOMOVEL + n % BenchmarkDataset.AUTOMOVEIS;
+        LocalDateTime retirada = LocalDateTime.of(2100, 1, 1, 10, 0).plusDays(2 * (n / BenchmarkDataset.AUTOMOVEIS));
+        return pedidoService.criarPedido(BenchmarkDataset.PRIMEIRO_CLIENTE + n % BenchmarkDataset.CLIENTES, automovel,
+            retirada.format(PedidoAluguelService.FORMATO_DATA), retirada.plusDays(1).format(PedidoAluguelService.FORMATO_DATA));
+    }
+}
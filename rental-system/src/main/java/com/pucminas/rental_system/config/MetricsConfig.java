@@ -0,0 +1,96 @@
+package com.pucminas.rental_system.config;
+
+import com.pucminas.rental_system.repository.EstatisticaClienteRepository;
+import com.pucminas.rental_system.service.CacheComExpiracao;
+import com.pucminas.rental_system.service.CotacaoService;
+import com.pucminas.rental_system.service.FragmentosCache;
+import com.pucminas.rental_system.service.FrotaService;
+import com.pucminas.rental_system.service.UsuarioCache;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Repositórios, requisições HTTP, Hikari e Hibernate são instrumentados pelo Actuator;
+// aqui ficam o aspecto de @Timed e as métricas de negócio.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder metricasNegocio(EstatisticaClienteRepository estatisticaClienteRepository, UsuarioCache usuarioCache,
+                                       FrotaService frotaService, CotacaoService cotacaoService,
+                                       FragmentosCache fragmentosCache) {
+        return registry -> {
+            // Soma dos contadores materializados por cliente, sem COUNT sobre pedido_aluguel a cada coleta
+            Gauge.builder("pedidos.pendentes", estatisticaClienteRepository,
+                    repository -> repository.somarTotais().getPendentes())
+                .description("Pedidos aguardando avaliação")
+                .register(registry);
+
+            CacheComExpiracao<?, ?> cache = usuarioCache.getCache();
+            FunctionCounter.builder("usuarios.cache", cache, CacheComExpiracao::getAcertos)
+                .tag("resultado", "acerto")
+                .register(registry);
+            FunctionCounter.builder("usuarios.cache", cache, CacheComExpiracao::getFalhas)
+                .tag("resultado", "falha")
+                .register(registry);
+            Gauge.builder("usuarios.cache.tamanho", cache, CacheComExpiracao::getTamanho)
+                .register(registry);
+
+            CacheComExpiracao<?, ?> cotacoes = cotacaoService.getCache();
+            FunctionCounter.builder("cotacoes.cache", cotacoes, CacheComExpiracao::getAcertos)
+                .tag("resultado", "acerto")
+                .register(registry);
+            FunctionCounter.builder("cotacoes.cache", cotacoes, CacheComExpiracao::getFalhas)
+                .tag("resultado", "falha")
+                .register(registry);
+            Gauge.builder("cotacoes.cache.tamanho", cotacoes, CacheComExpiracao::getTamanho)
+                .register(registry);
+
+            CacheComExpiracao<?, ?> fragmentos = fragmentosCache.getCache();
+            FunctionCounter.builder("fragmentos.cache", fragmentos, CacheComExpiracao::getAcertos)
+                .tag("resultado", "acerto")
+                .register(registry);
+            FunctionCounter.builder("fragmentos.cache", fragmentos, CacheComExpiracao::getFalhas)
+                .tag("resultado", "falha")
+                .register(registry);
+            Gauge.builder("fragmentos.cache.tamanho", fragmentos, CacheComExpiracao::getTamanho)
+                .register(registry);
+
+            Gauge.builder("frota.versao", frotaService, service -> service.getSnapshot().getVersao())
+                .register(registry);
+        };
+    }
+
+    // Tamanho do banco em disco no perfil prod (arquivo .mv.db do H2)
+    @Bean
+    @Profile("prod")
+    public MeterBinder metricasBanco(@Value("${rental.db.diretorio}") String diretorio) {
+        Path arquivo = Path.of(diretorio, "rentalsystemdb.mv.db");
+        return registry -> Gauge.builder("banco.arquivo.tamanho", arquivo, MetricsConfig::tamanho)
+            .baseUnit("bytes")
+            .register(registry);
+    }
+
+    private static double tamanho(Path arquivo) {
+        try {
+            return Files.exists(arquivo) ? Files.size(arquivo) : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,54 +1,129 @@
 package com.pucminas.rental_system.config;
 
-import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
+import com.pucminas.rental_system.service.TokenService;
+import com.pucminas.rental_system.service.UsuarioAutenticado;
+import com.pucminas.rental_system.service.VerificadorSenhas;
+import jakarta.servlet.http.Cookie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // O PasswordEncoder é o VerificadorSenhas (BCrypt num pool limitado)
+
+    // Só existe com rental.auth.modo=token
+    @Autowired(required = false) private TokenService tokenService;
+
+    // "sessao": login por formulário com HttpSession (padrão).
+    // "token": o login grava um cookie assinado (TokenService) e cada requisição é autenticada por ele,
+    // sem sessão no servidor; várias instâncias com o mesmo rental.auth.segredo dispensam sticky session.
+    @Value("${rental.auth.modo:sessao}")
+    private String modoAutenticacao;
+
+    // Matcher pelo caminho em vez de PathRequest.toH2Console(): aquele matcher exige o bean do console e
+    // derruba toda requisição com 500 quando o console está desligado (perfil prod).
+    @Value("${spring.h2.console.path:/h2-console}")
+    private String caminhoH2Console;
+
+    // Actuator: health aberto; métricas (inclusive a coleta do Prometheus) só para agentes, via HTTP Basic e sem sessão
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(AntPathRequestMatcher.antMatcher("/actuator/**"))
+            .authorizeHttpRequests(authz -> authz
+                .requestMatchers(AntPathRequestMatcher.antMatcher("/actuator/health")).permitAll()
+                .anyRequest().hasRole("AGENTE")
+            )
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(sessao -> sessao.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf(csrf -> csrf.disable());
+        return http.build();
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        // Pool de verificação de senhas cheio: a tela de login avisa para tentar de novo
+        ExceptionMappingAuthenticationFailureHandler falhaLogin = new ExceptionMappingAuthenticationFailureHandler();
+        falhaLogin.setDefaultFailureUrl("/login?error");
+        falhaLogin.setExceptionMappings(Map.of(VerificadorSenhas.LoginSaturadoException.class.getName(), "/login?ocupado"));
+
         http
             .authorizeHttpRequests(authz -> authz
                 // Permite acesso ao H2 Console
-                .requestMatchers(PathRequest.toH2Console()).permitAll() 
+                .requestMatchers(AntPathRequestMatcher.antMatcher(caminhoH2Console + "/**")).permitAll()
                 // Permite acesso a recursos estáticos e páginas públicas
                 .requestMatchers(AntPathRequestMatcher.antMatcher("/css/**"), AntPathRequestMatcher.antMatcher("/js/**"), AntPathRequestMatcher.antMatcher("/register"), AntPathRequestMatcher.antMatcher("/login")).permitAll()
                 // Permissões de Agente
-                .requestMatchers(AntPathRequestMatcher.antMatcher("/pedidos/evaluate/**"), AntPathRequestMatcher.antMatcher("/pedidos/pending")).hasRole("AGENTE")
+                .requestMatchers(AntPathRequestMatcher.antMatcher("/pedidos/evaluate/**"), AntPathRequestMatcher.antMatcher("/pedidos/pending"), AntPathRequestMatcher.antMatcher("/pedidos/fila/**"), AntPathRequestMatcher.antMatcher("/agente/todos-pedidos/export"), AntPathRequestMatcher.antMatcher("/automoveis/importar"), AntPathRequestMatcher.antMatcher("/automoveis/exportar")).hasRole("AGENTE")
                 // Permissões de Cliente
-                .requestMatchers(AntPathRequestMatcher.antMatcher("/pedidos/new"), AntPathRequestMatcher.antMatcher("/pedidos/mine")).hasRole("CLIENTE")
+                .requestMatchers(AntPathRequestMatcher.antMatcher("/pedidos/new"), AntPathRequestMatcher.antMatcher("/pedidos/mine/**")).hasRole("CLIENTE")
                 // Qualquer outra requisição precisa de autenticação
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
                 .loginPage("/login")
                 .defaultSuccessUrl("/pedidos", true)
+                .failureHandler(falhaLogin)
                 .permitAll()
             )
             .logout(logout -> logout.permitAll());
             
         // Desabilita CSRF para o H2 Console funcionar
         http.csrf(csrf -> csrf
-            .ignoringRequestMatchers(PathRequest.toH2Console())
+            .ignoringRequestMatchers(AntPathRequestMatcher.antMatcher(caminhoH2Console + "/**"))
         );
         
         // Permite que o H2 Console seja exibido em um frame
         http.headers(headers -> headers.frameOptions(frameOptions -> frameOptions.sameOrigin()));
 
+        if ("token".equals(modoAutenticacao)) {
+            configurarModoToken(http, falhaLogin);
+        }
+
         return http.build();
     }
+
+    private void configurarModoToken(HttpSecurity http, ExceptionMappingAuthenticationFailureHandler falhaLogin) throws Exception {
+        falhaLogin.setAllowSessionCreation(false);
+        http
+            .sessionManagement(sessao -> sessao.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+            .addFilterBefore(new TokenAutenticacaoFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
+            .formLogin(form -> form.successHandler((request, response, authentication) -> {
+                String token = tokenService.emitir((UsuarioAutenticado) authentication.getPrincipal());
+                response.addCookie(cookieToken(token, (int) tokenService.getValidade().toSeconds(), request.isSecure()));
+                response.sendRedirect(request.getContextPath() + "/pedidos");
+            }))
+            .logout(logout -> logout.addLogoutHandler((request, response, authentication) ->
+                response.addCookie(cookieToken("", 0, request.isSecure()))))
+            // O token CSRF vai num cookie (double submit) em vez da sessão
+            .csrf(csrf -> csrf.csrfTokenRepository(new CookieCsrfTokenRepository()));
+    }
+
+    private static Cookie cookieToken(String valor, int maxAge, boolean seguro) {
+        Cookie cookie = new Cookie(TokenAutenticacaoFilter.COOKIE, valor);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setSecure(seguro);
+        cookie.setMaxAge(maxAge);
+        cookie.setAttribute("SameSite", "Lax");
+        return cookie;
+    }
 }
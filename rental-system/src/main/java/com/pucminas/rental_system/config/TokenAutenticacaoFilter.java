@@ -0,0 +1,79 @@
+package com.pucminas.rental_system.config;
+
+import com.pucminas.rental_system.service.TokenService;
+import com.pucminas.rental_system.service.UsuarioAutenticado;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+// Modo token: autentica a requisição pelo cookie (ou cabeçalho Authorization: Bearer) assinado,
+// sem sessão e sem consultar o banco. Token ausente ou inválido segue como anônimo.
+public class TokenAutenticacaoFilter extends OncePerRequestFilter {
+    public static final String COOKIE = "RENTAL_TOKEN";
+
+    private final TokenService tokenService;
+
+    public TokenAutenticacaoFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        autenticar(request);
+        // O token CSRF fica num cookie: gerá-lo agora garante que o cookie saia antes de a página
+        // começar a ser escrita (o formulário pode estar depois do primeiro flush da resposta)
+        CsrfToken csrf = (CsrfToken) request.getAttribute(CsrfToken.class.getName());
+        if (csrf != null) {
+            csrf.getToken();
+        }
+        chain.doFilter(request, response);
+    }
+
+    // Um 403 ou 404 é despachado para /error, que passa de novo pela cadeia de segurança; sem autenticar
+    // também esse despacho, o usuário chegaria lá como anônimo e seria mandado para o login
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterNestedErrorDispatch(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        autenticar(request);
+        chain.doFilter(request, response);
+    }
+
+    private void autenticar(HttpServletRequest request) {
+        UsuarioAutenticado usuario = tokenService.validar(extrairToken(request));
+        if (usuario != null) {
+            SecurityContext contexto = SecurityContextHolder.createEmptyContext();
+            contexto.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(usuario, null, usuario.getAuthorities()));
+            SecurityContextHolder.setContext(contexto);
+        }
+    }
+
+    private static String extrairToken(HttpServletRequest request) {
+        String cabecalho = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (cabecalho != null && cabecalho.startsWith("Bearer ")) {
+            return cabecalho.substring(7);
+        }
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.pucminas.rental_system.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Modo opcional (rental.threads.virtual=true, ou o perfil "virtual") que atende as requisições do Tomcat
+// e as respostas assíncronas do MVC em threads virtuais. Exige Java 21 em tempo de execução: numa JVM
+// anterior a subida para logo aqui, com a versão encontrada na mensagem. O projeto continua compilando
+// em Java 17, por isso o executor é obtido por reflexão.
+@Configuration
+@ConditionalOnProperty(name = "rental.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfig {
+    static final int VERSAO_MINIMA = 21;
+
+    public VirtualThreadsConfig() {
+        verificarJava(Runtime.version().feature());
+    }
+
+    static void verificarJava(int versao) {
+        if (versao < VERSAO_MINIMA) {
+            throw new IllegalStateException("rental.threads.virtual=true (perfil \"virtual\") exige Java " + VERSAO_MINIMA
+                    + " ou superior, mas a aplicação está rodando em Java " + versao + ". Use um JDK " + VERSAO_MINIMA
+                    + "+ ou suba sem o perfil \"virtual\".");
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> tomcatVirtualThreads() {
+        ExecutorService executor = criarExecutorVirtual();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(criarExecutorVirtual());
+    }
+
+    static ExecutorService criarExecutorVirtual() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Executors.newVirtualThreadPerTaskExecutor indisponível nesta JVM", e);
+        }
+    }
+}
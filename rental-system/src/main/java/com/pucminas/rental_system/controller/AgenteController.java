@@ -1,52 +1,62 @@
 package com.pucminas.rental_system.controller;
 
 import com.pucminas.rental_system.model.Agente;
+import com.pucminas.rental_system.model.Automovel;
 import com.pucminas.rental_system.model.Cliente;
 import com.pucminas.rental_system.model.PedidoAluguel;
-import com.pucminas.rental_system.repository.AutomovelRepository;
+import com.pucminas.rental_system.repository.AgenteRepository;
 import com.pucminas.rental_system.repository.ClienteRepository;
-import com.pucminas.rental_system.repository.UserRepository;
+import com.pucminas.rental_system.service.FragmentosCache;
+import com.pucminas.rental_system.service.FrotaService;
+import com.pucminas.rental_system.service.PaginaPedidos;
 import com.pucminas.rental_system.service.PedidoAluguelService;
+import com.pucminas.rental_system.service.PedidoCursor;
+import com.pucminas.rental_system.service.PedidoExportService;
+import com.pucminas.rental_system.service.UsuarioAutenticado;
+import com.pucminas.rental_system.service.VersoesService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/agente")
 public class AgenteController {
 
     @Autowired private PedidoAluguelService pedidoService;
-    @Autowired private AutomovelRepository automovelRepository;
-    @Autowired private UserRepository userRepository;
+    @Autowired private PedidoExportService exportService;
+    @Autowired private FrotaService frotaService;
+    @Autowired private AgenteRepository agenteRepository;
     @Autowired private ClienteRepository clienteRepository;
+    @Autowired private VersoesService versoesService;
+    @Autowired private FragmentosCache fragmentosCache;
+    @Autowired private PaginaCondicional paginaCondicional;
     
     @GetMapping("/dashboard")
-    public String dashboardAgente(Model model, @AuthenticationPrincipal UserDetails userDetails) {
-        List<PedidoAluguel> todosPedidos = pedidoService.findAllPedidos();
+    public String dashboardAgente(Model model, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        Map<PedidoAluguel.PedidoStatus, Long> porStatus = pedidoService.contarPedidosPorStatus();
         
         // Calcular estatísticas
-        long totalPedidos = todosPedidos.size();
-        long pedidosPendentes = todosPedidos.stream()
-            .filter(p -> p.getStatus() == PedidoAluguel.PedidoStatus.PENDENTE)
-            .count();
-        long pedidosAprovados = todosPedidos.stream()
-            .filter(p -> p.getStatus() == PedidoAluguel.PedidoStatus.APROVADO)
-            .count();
-        long pedidosRejeitados = todosPedidos.stream()
-            .filter(p -> p.getStatus() == PedidoAluguel.PedidoStatus.REJEITADO)
-            .count();
+        long totalPedidos = porStatus.values().stream().mapToLong(Long::longValue).sum();
+        long pedidosPendentes = porStatus.get(PedidoAluguel.PedidoStatus.PENDENTE);
+        long pedidosAprovados = porStatus.get(PedidoAluguel.PedidoStatus.APROVADO);
+        long pedidosRejeitados = porStatus.get(PedidoAluguel.PedidoStatus.REJEITADO);
         
         // Pegar os 10 pedidos mais recentes
-        List<PedidoAluguel> pedidosRecentes = todosPedidos.stream()
-            .sorted((p1, p2) -> p2.getDataPedido().compareTo(p1.getDataPedido()))
-            .limit(10)
-            .toList();
+        List<PedidoAluguel> pedidosRecentes = pedidoService.findPedidosRecentes(10);
         
         model.addAttribute("totalPedidos", totalPedidos);
         model.addAttribute("pedidosPendentes", pedidosPendentes);
@@ -58,21 +68,15 @@ public class AgenteController {
     }
     
     @GetMapping("/dados")
-    public String meusDados(Model model, @AuthenticationPrincipal UserDetails userDetails) {
-        Agente agente = (Agente) userRepository.findByEmail(userDetails.getUsername());
-        List<PedidoAluguel> todosPedidos = pedidoService.findAllPedidos();
+    public String meusDados(Model model, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        Agente agente = agenteRepository.findById(usuario.getId()).orElseThrow(() -> new RuntimeException("Agente não encontrado"));
+        Map<PedidoAluguel.PedidoStatus, Long> porStatus = pedidoService.contarPedidosPorStatus();
         
         // Calcular estatísticas para a página de dados
-        long totalPedidos = todosPedidos.size();
-        long pedidosAprovados = todosPedidos.stream()
-            .filter(p -> p.getStatus() == PedidoAluguel.PedidoStatus.APROVADO)
-            .count();
-        long pedidosRejeitados = todosPedidos.stream()
-            .filter(p -> p.getStatus() == PedidoAluguel.PedidoStatus.REJEITADO)
-            .count();
-        long pedidosPendentes = todosPedidos.stream()
-            .filter(p -> p.getStatus() == PedidoAluguel.PedidoStatus.PENDENTE)
-            .count();
+        long totalPedidos = porStatus.values().stream().mapToLong(Long::longValue).sum();
+        long pedidosAprovados = porStatus.get(PedidoAluguel.PedidoStatus.APROVADO);
+        long pedidosRejeitados = porStatus.get(PedidoAluguel.PedidoStatus.REJEITADO);
+        long pedidosPendentes = porStatus.get(PedidoAluguel.PedidoStatus.PENDENTE);
         
         model.addAttribute("agente", agente);
         model.addAttribute("totalPedidos", totalPedidos);
@@ -84,15 +88,46 @@ public class AgenteController {
     }
     
     @GetMapping("/todos-pedidos")
-    public String todosPedidos(Model model) {
-        List<PedidoAluguel> todosPedidos = pedidoService.findAllPedidos();
-        model.addAttribute("pedidos", todosPedidos);
+    public String todosPedidos(Model model,
+                               @RequestParam(required = false) String cursor,
+                               @RequestParam(required = false) PedidoAluguel.PedidoStatus status,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                               @RequestParam(defaultValue = "" + PedidoAluguelService.TAMANHO_PAGINA_PADRAO) int tamanho) {
+        PaginaPedidos pagina = pedidoService.buscarPagina(status, de, ate, PedidoCursor.parse(cursor), tamanho);
+        model.addAttribute("pedidos", pagina.getPedidos());
+        model.addAttribute("proximoCursor", pagina.getProximoCursor());
+        model.addAttribute("status", status);
+        model.addAttribute("de", de);
+        model.addAttribute("ate", ate);
+        model.addAttribute("statusOpcoes", PedidoAluguel.PedidoStatus.values());
         return "todos-pedidos";
     }
+
+    @GetMapping("/todos-pedidos/export")
+    public ResponseEntity<StreamingResponseBody> exportarPedidos(
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam(required = false) PedidoAluguel.PedidoStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        boolean json = "json".equalsIgnoreCase(formato);
+        StreamingResponseBody corpo = json
+            ? saida -> exportService.exportarJson(null, status, de, ate, saida)
+            : saida -> exportService.exportarCsv(null, status, de, ate, saida);
+        return ResponseEntity.ok()
+            .contentType(json ? MediaType.APPLICATION_JSON : new MediaType("text", "csv"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=pedidos." + (json ? "json" : "csv"))
+            .body(corpo);
+    }
     
     @GetMapping("/automoveis")
-    public String automoveisCadastrados(Model model) {
-        model.addAttribute("automoveis", automovelRepository.findAll());
+    public String automoveisCadastrados(Model model, NativeWebRequest webRequest) {
+        if (paginaCondicional.naoModificada(webRequest, versoesService.versaoFrota())) {
+            return null;
+        }
+        List<Automovel> automoveis = frotaService.listar();
+        model.addAttribute("automoveis", automoveis);
+        model.addAttribute("fichas", fragmentosCache.fichasAutomoveis(automoveis, true));
         return "automoveis-cadastrados";
     }
 
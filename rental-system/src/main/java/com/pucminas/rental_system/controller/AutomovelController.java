@@ -2,11 +2,29 @@ package com.pucminas.rental_system.controller;
 
 import com.pucminas.rental_system.model.Automovel;
 import com.pucminas.rental_system.repository.AutomovelRepository;
+import com.pucminas.rental_system.service.FiltroFrota;
+import com.pucminas.rental_system.service.FrotaArquivoService;
+import com.pucminas.rental_system.service.FrotaService;
+import com.pucminas.rental_system.service.ResultadoBuscaFrota;
+import com.pucminas.rental_system.service.ResultadoImportacao;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/automoveis")
@@ -15,6 +33,45 @@ public class AutomovelController {
     @Autowired
     private AutomovelRepository automovelRepository;
 
+    @Autowired
+    private FrotaService frotaService;
+
+    @Autowired
+    private FrotaArquivoService arquivoService;
+
+    static final int LIMITE_BUSCA = 50;
+    static final int ERROS_NA_MENSAGEM = 20;
+
+    // Busca textual e facetada sobre o índice em memória da frota
+    @GetMapping("/busca")
+    public ResponseEntity<Map<String, Object>> buscar(@ModelAttribute FiltroFrota filtro,
+                                                      @RequestParam(defaultValue = "20") int limite) {
+        ResultadoBuscaFrota resultado = frotaService.buscar(filtro, Math.max(1, Math.min(limite, LIMITE_BUSCA)));
+        List<Map<String, Object>> automoveis = new ArrayList<>(resultado.getAutomoveis().size());
+        for (Automovel automovel : resultado.getAutomoveis()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", automovel.getId());
+            item.put("marca", automovel.getMarca());
+            item.put("modelo", automovel.getModelo());
+            item.put("ano", automovel.getAno());
+            item.put("cor", automovel.getCor());
+            item.put("placa", automovel.getPlaca());
+            item.put("valorAluguelDiario", automovel.getValorAluguelDiario());
+            automoveis.add(item);
+        }
+        Map<String, Object> corpo = new LinkedHashMap<>();
+        corpo.put("total", resultado.getTotal());
+        corpo.put("automoveis", automoveis);
+        corpo.put("porAno", resultado.getPorAno());
+        corpo.put("porFaixaPreco", resultado.getPorFaixaPreco());
+        return ResponseEntity.ok(corpo);
+    }
+
+    @GetMapping("/sugestoes")
+    public ResponseEntity<List<String>> sugerir(@RequestParam String q) {
+        return ResponseEntity.ok(frotaService.sugerir(q, 10));
+    }
+
     @GetMapping("/novo")
     public String showNovoForm(Model model) {
         model.addAttribute("automovel", new Automovel());
@@ -22,12 +79,17 @@ public class AutomovelController {
     }
 
     @PostMapping("/novo")
-    public String criarAutomovel(@ModelAttribute Automovel automovel, 
+    public String criarAutomovel(@ModelAttribute Automovel automovel, Model model, HttpServletResponse response,
                                 RedirectAttributes redirectAttributes) {
         try {
-            automovelRepository.save(automovel);
+            frotaService.salvar(automovel);
             redirectAttributes.addFlashAttribute("successMessage", "Veículo cadastrado com sucesso!");
             return "redirect:/agente/automoveis";
+        } catch (FrotaService.AutomovelDuplicadoException e) {
+            // Devolve o formulário com o que foi digitado
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            model.addAttribute("errorMessage", e.getMessage());
+            return "automovel-form";
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Erro ao cadastrar veículo: " + e.getMessage());
             return "redirect:/automoveis/novo";
@@ -50,9 +112,11 @@ public class AutomovelController {
     @PostMapping("/editar/{id}")
     public String editarAutomovel(@PathVariable Long id, 
                                  @ModelAttribute Automovel automovelAtualizado,
+                                 Model model, HttpServletResponse response,
                                  RedirectAttributes redirectAttributes) {
+        Automovel automovel = null;
         try {
-            Automovel automovel = automovelRepository.findById(id)
+            automovel = automovelRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Veículo não encontrado"));
             
             automovel.setMatricula(automovelAtualizado.getMatricula());
@@ -63,13 +127,64 @@ public class AutomovelController {
             automovel.setCor(automovelAtualizado.getCor());
             automovel.setValorAluguelDiario(automovelAtualizado.getValorAluguelDiario());
             
-            automovelRepository.save(automovel);
+            frotaService.salvar(automovel);
             redirectAttributes.addFlashAttribute("successMessage", "Veículo atualizado com sucesso!");
             return "redirect:/agente/automoveis";
+        } catch (FrotaService.AutomovelDuplicadoException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            model.addAttribute("automovel", automovel);
+            model.addAttribute("errorMessage", e.getMessage());
+            return "automovel-edit-form";
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Erro ao atualizar veículo: " + e.getMessage());
             return "redirect:/automoveis/editar/" + id;
         }
     }
 
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "csv") String formato) {
+        boolean json = "json".equalsIgnoreCase(formato);
+        StreamingResponseBody corpo = json ? arquivoService::exportarJson : arquivoService::exportarCsv;
+        return ResponseEntity.ok()
+            .contentType(json ? MediaType.APPLICATION_JSON : new MediaType("text", "csv"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=frota." + (json ? "json" : "csv"))
+            .body(corpo);
+    }
+
+    // Para clientes de API (Accept: application/json): devolve o resultado completo
+    @PostMapping(value = "/importar", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importarJson(@RequestParam MultipartFile arquivo) {
+        try {
+            return ResponseEntity.ok(importar(arquivo));
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("erro", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/importar")
+    public String importarArquivo(@RequestParam MultipartFile arquivo, RedirectAttributes redirectAttributes) {
+        try {
+            ResultadoImportacao resultado = importar(arquivo);
+            redirectAttributes.addFlashAttribute("successMessage", resultado.getImportados() + " veículos importados, "
+                + resultado.getDuplicados() + " duplicados e " + resultado.getInvalidos() + " inválidos.");
+            if (!resultado.getErros().isEmpty()) {
+                redirectAttributes.addFlashAttribute("errosImportacao",
+                    resultado.getErros().subList(0, Math.min(ERROS_NA_MENSAGEM, resultado.getErros().size())));
+            }
+        } catch (IOException | RuntimeException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Erro ao importar frota: " + e.getMessage());
+        }
+        return "redirect:/agente/automoveis";
+    }
+
+    private ResultadoImportacao importar(MultipartFile arquivo) throws IOException {
+        if (arquivo.isEmpty()) {
+            throw new RuntimeException("Nenhum arquivo enviado.");
+        }
+        String nome = arquivo.getOriginalFilename() == null ? "" : arquivo.getOriginalFilename().toLowerCase();
+        boolean json = nome.endsWith(".json") || MediaType.APPLICATION_JSON_VALUE.equals(arquivo.getContentType());
+        try (InputStream entrada = arquivo.getInputStream()) {
+            return json ? arquivoService.importarJson(entrada) : arquivoService.importarCsv(entrada);
+        }
+    }
 }
@@ -1,49 +1,61 @@
 package com.pucminas.rental_system.controller;
 
 import com.pucminas.rental_system.model.*;
-import com.pucminas.rental_system.repository.*;
+import com.pucminas.rental_system.repository.ClienteRepository;
+import com.pucminas.rental_system.service.Cotacao;
+import com.pucminas.rental_system.service.DisponibilidadeService;
+import com.pucminas.rental_system.service.FiltroFrota;
+import com.pucminas.rental_system.service.FragmentosCache;
+import com.pucminas.rental_system.service.FrotaService;
+import com.pucminas.rental_system.service.FrotaSnapshot;
 import com.pucminas.rental_system.service.PedidoAluguelService;
+import com.pucminas.rental_system.service.PrecoService;
+import com.pucminas.rental_system.service.ResultadoBuscaFrota;
+import com.pucminas.rental_system.service.UsuarioAutenticado;
+import com.pucminas.rental_system.service.VersoesService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/cliente")
 public class ClienteController {
 
     @Autowired private PedidoAluguelService pedidoService;
-    @Autowired private AutomovelRepository automovelRepository;
-    @Autowired private UserRepository userRepository;
+    @Autowired private DisponibilidadeService disponibilidadeService;
+    @Autowired private FrotaService frotaService;
+    @Autowired private PrecoService precoService;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private VersoesService versoesService;
+    @Autowired private FragmentosCache fragmentosCache;
+    @Autowired private PaginaCondicional paginaCondicional;
     
     @GetMapping("/dashboard")
-    public String dashboardCliente(Model model, @AuthenticationPrincipal UserDetails userDetails) {
-        Cliente cliente = (Cliente) userRepository.findByEmail(userDetails.getUsername());
-        List<PedidoAluguel> todosPedidos = pedidoService.findPedidosPorCliente(cliente);
+    public String dashboardCliente(Model model, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        // Só o id é usado: a referência não consulta o banco
+        Cliente cliente = clienteRepository.getReferenceById(usuario.getId());
+        Map<PedidoAluguel.PedidoStatus, Long> porStatus = pedidoService.contarPedidosPorStatus(cliente);
         
         // Calcular estatísticas
-        long totalPedidos = todosPedidos.size();
-        long pedidosAtivos = todosPedidos.stream()
-            .filter(p -> p.getStatus() == PedidoAluguel.PedidoStatus.APROVADO)
-            .count();
-        long pedidosRejeitados = todosPedidos.stream()
-            .filter(p -> p.getStatus() == PedidoAluguel.PedidoStatus.REJEITADO)
-            .count();
-        long pedidosPendentes = todosPedidos.stream()
-            .filter(p -> p.getStatus() == PedidoAluguel.PedidoStatus.PENDENTE)
-            .count();
+        long totalPedidos = porStatus.values().stream().mapToLong(Long::longValue).sum();
+        long pedidosAtivos = porStatus.get(PedidoAluguel.PedidoStatus.APROVADO);
+        long pedidosRejeitados = porStatus.get(PedidoAluguel.PedidoStatus.REJEITADO);
+        long pedidosPendentes = porStatus.get(PedidoAluguel.PedidoStatus.PENDENTE);
         
         // Calcular valor total de pedidos ativos
         double totalGastoAtualmente = pedidoService.calcularValorTotalPedidosAtivos(cliente);
 
         // Pegar os 5 pedidos mais recentes
-        List<PedidoAluguel> pedidosRecentes = todosPedidos.stream()
-            .sorted((p1, p2) -> p2.getDataPedido().compareTo(p1.getDataPedido()))
-            .limit(5)
-            .toList();
+        List<PedidoAluguel> pedidosRecentes = pedidoService.findPedidosRecentesPorCliente(cliente, 5);
         
         model.addAttribute("totalPedidos", totalPedidos);
         model.addAttribute("pedidosAtivos", pedidosAtivos);
@@ -56,18 +68,14 @@ public class ClienteController {
     }
     
     @GetMapping("/dados")
-    public String meusDados(Model model, @AuthenticationPrincipal UserDetails userDetails) {
-        Cliente cliente = (Cliente) userRepository.findByEmail(userDetails.getUsername());
-        List<PedidoAluguel> todosPedidos = pedidoService.findPedidosPorCliente(cliente);
+    public String meusDados(Model model, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        Cliente cliente = clienteRepository.findById(usuario.getId()).orElseThrow(() -> new RuntimeException("Cliente não encontrado"));
+        Map<PedidoAluguel.PedidoStatus, Long> porStatus = pedidoService.contarPedidosPorStatus(cliente);
         
         // Calcular estatísticas para a página de dados
-        long totalPedidos = todosPedidos.size();
-        long pedidosAprovados = todosPedidos.stream()
-            .filter(p -> p.getStatus() == PedidoAluguel.PedidoStatus.APROVADO)
-            .count();
-        long pedidosPendentes = todosPedidos.stream()
-            .filter(p -> p.getStatus() == PedidoAluguel.PedidoStatus.PENDENTE)
-            .count();
+        long totalPedidos = porStatus.values().stream().mapToLong(Long::longValue).sum();
+        long pedidosAprovados = porStatus.get(PedidoAluguel.PedidoStatus.APROVADO);
+        long pedidosPendentes = porStatus.get(PedidoAluguel.PedidoStatus.PENDENTE);
         
         model.addAttribute("cliente", cliente);
         model.addAttribute("totalPedidos", totalPedidos);
@@ -78,8 +86,43 @@ public class ClienteController {
     }
     
     @GetMapping("/automoveis")
-    public String automoveisDisponiveis(Model model) {
-        model.addAttribute("automoveis", automovelRepository.findAll());
+    public String automoveisDisponiveis(Model model, NativeWebRequest webRequest, HttpServletResponse response,
+                                        @ModelAttribute("filtro") FiltroFrota filtro,
+                                        @RequestParam(required = false) String dataRetirada,
+                                        @RequestParam(required = false) String dataDevolucao) {
+        // Versões lidas antes dos dados: uma alteração no meio gera outro ETag na próxima visita
+        if (paginaCondicional.naoModificada(webRequest, versoesService.versaoFrota(),
+                versoesService.versaoReservas(), versoesService.versaoPrecos())) {
+            return null;
+        }
+        FrotaSnapshot frota = frotaService.getSnapshot();
+        ResultadoBuscaFrota busca = frota.buscar(filtro, Integer.MAX_VALUE);
+        List<Automovel> automoveis = busca.getAutomoveis();
+        Map<Long, Cotacao> cotacoes = new HashMap<>();
+        // Com um período informado, mostra apenas os veículos sem reserva ativa no intervalo e o preço de cada um
+        if (dataRetirada != null && !dataRetirada.isBlank() && dataDevolucao != null && !dataDevolucao.isBlank()) {
+            try {
+                LocalDateTime retirada = pedidoService.parseData(dataRetirada);
+                LocalDateTime devolucao = pedidoService.parseData(dataDevolucao);
+                pedidoService.validarPeriodo(retirada, devolucao);
+                automoveis = disponibilidadeService.filtrarDisponiveis(automoveis, retirada, devolucao);
+                for (Cotacao cotacao : precoService.cotarFrota(retirada, devolucao)) {
+                    cotacoes.put(cotacao.getAutomovelId(), cotacao);
+                }
+            } catch (PedidoAluguelService.PedidoInvalidoException e) {
+                // Período inválido: mostra a frota sem filtro de datas nem preços, com o erro no formulário
+                response.setStatus(HttpStatus.BAD_REQUEST.value());
+                model.addAttribute("errorMessage", e.getMessage());
+            }
+        }
+        model.addAttribute("automoveis", automoveis);
+        model.addAttribute("fichas", fragmentosCache.fichasAutomoveis(automoveis, false));
+        model.addAttribute("cotacoes", cotacoes);
+        model.addAttribute("dataRetirada", dataRetirada);
+        model.addAttribute("dataDevolucao", dataDevolucao);
+        model.addAttribute("marcas", frota.getMarcas());
+        model.addAttribute("porAno", busca.getPorAno());
+        model.addAttribute("porFaixaPreco", busca.getPorFaixaPreco());
         return "automoveis-disponiveis";
     }
 }
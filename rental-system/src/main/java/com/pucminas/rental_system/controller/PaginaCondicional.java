@@ -0,0 +1,60 @@
+package com.pucminas.rental_system.controller;
+
+import com.pucminas.rental_system.service.VersoesService;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import java.util.Map;
+import java.util.Objects;
+
+// GET condicional das páginas: o ETag é montado com os carimbos de versão dos dados exibidos
+// (VersoesService), sem renderizar nada. Se o navegador já tem essa versão, o controller devolve null
+// e o Spring responde 304. As páginas trazem o token CSRF e o nome do usuário, então o ETag inclui
+// uma impressão da identidade (usuário, sessão e cookie XSRF-TOKEN do modo token).
+@Component
+public class PaginaCondicional {
+
+    @Autowired private VersoesService versoesService;
+
+    public boolean naoModificada(NativeWebRequest webRequest, Object... versoes) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+        if (request == null || response == null) {
+            return false;
+        }
+        // Depois de um redirect com mensagem a página muda sem mudar nenhuma versão
+        Map<String, ?> flash = RequestContextUtils.getInputFlashMap(request);
+        if (flash != null && !flash.isEmpty()) {
+            return false;
+        }
+
+        StringBuilder etag = new StringBuilder("W/\"").append(versoesService.getInstancia())
+            .append('-').append(Integer.toHexString(identidade(request)));
+        for (Object versao : versoes) {
+            etag.append('-').append(versao);
+        }
+        etag.append('"');
+        // "no-cache" obriga o navegador a revalidar a cada visita; sem "no-store" ele guarda a página
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return webRequest.checkNotModified(etag.toString());
+    }
+
+    private int identidade(HttpServletRequest request) {
+        HttpSession sessao = request.getSession(false);
+        String xsrf = null;
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if ("XSRF-TOKEN".equals(cookie.getName())) {
+                    xsrf = cookie.getValue();
+                }
+            }
+        }
+        return Objects.hash(request.getRemoteUser(), sessao != null ? sessao.getId() : null, xsrf);
+    }
+}
@@ -1,51 +1,164 @@
 package com.pucminas.rental_system.controller;
 
 import com.pucminas.rental_system.model.*;
-import com.pucminas.rental_system.repository.*;
+import com.pucminas.rental_system.repository.ClienteRepository;
+import com.pucminas.rental_system.service.AnaliseCredito;
+import com.pucminas.rental_system.service.AnaliseCreditoService;
+import com.pucminas.rental_system.service.CotacaoService;
+import com.pucminas.rental_system.service.FilaAvaliacaoService;
+import com.pucminas.rental_system.service.FrotaService;
+import com.pucminas.rental_system.service.PaginaPedidos;
 import com.pucminas.rental_system.service.PedidoAluguelService;
+import com.pucminas.rental_system.service.PedidoCursor;
+import com.pucminas.rental_system.service.PedidoExportService;
+import com.pucminas.rental_system.service.PedidoIntakeService;
+import com.pucminas.rental_system.service.ResultadoAvaliacao;
+import com.pucminas.rental_system.service.ResultadoCotacao;
+import com.pucminas.rental_system.service.TicketPedido;
+import com.pucminas.rental_system.service.UsuarioAutenticado;
+import com.pucminas.rental_system.service.VersoesService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/pedidos")
 public class PedidoAluguelController {
 
     @Autowired private PedidoAluguelService pedidoService;
-    @Autowired private AutomovelRepository automovelRepository;
-    @Autowired private UserRepository userRepository;
+    @Autowired private PedidoExportService exportService;
+    @Autowired private PedidoIntakeService intakeService;
+    @Autowired private CotacaoService cotacaoService;
+    @Autowired private FilaAvaliacaoService filaService;
+    @Autowired private AnaliseCreditoService analiseCreditoService;
+    @Autowired private FrotaService frotaService;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private VersoesService versoesService;
+    @Autowired private PaginaCondicional paginaCondicional;
     
     @GetMapping
-    public String index(Model model, @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername());
-        if ("ROLE_AGENTE".equals(user.getRole())) {
+    public String index(Model model, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        if (usuario.isAgente()) {
             return "redirect:/agente/dashboard";
         }
         return "redirect:/cliente/dashboard";
     }
 
     @GetMapping("/mine")
-    public String getMeusPedidos(Model model, @AuthenticationPrincipal UserDetails userDetails) {
-        Cliente cliente = (Cliente) userRepository.findByEmail(userDetails.getUsername());
-        List<PedidoAluguel> pedidos = pedidoService.findPedidosPorCliente(cliente);
-        model.addAttribute("pedidos", pedidos);
+    public String getMeusPedidos(Model model, NativeWebRequest webRequest, @AuthenticationPrincipal UsuarioAutenticado usuario,
+                                 @RequestParam(required = false) String cursor,
+                                 @RequestParam(required = false) PedidoAluguel.PedidoStatus status,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                 @RequestParam(defaultValue = "" + PedidoAluguelService.TAMANHO_PAGINA_PADRAO) int tamanho) {
+        // Os pedidos mostram dados do automóvel, por isso a versão da frota também entra
+        if (paginaCondicional.naoModificada(webRequest, versoesService.versaoPedidos(usuario.getId()), versoesService.versaoFrota())) {
+            return null;
+        }
+        Cliente cliente = clienteRepository.getReferenceById(usuario.getId());
+        PaginaPedidos pagina = pedidoService.buscarPaginaPorCliente(cliente, status, de, ate, PedidoCursor.parse(cursor), tamanho);
+        model.addAttribute("pedidos", pagina.getPedidos());
+        model.addAttribute("proximoCursor", pagina.getProximoCursor());
+        model.addAttribute("status", status);
+        model.addAttribute("de", de);
+        model.addAttribute("ate", ate);
+        model.addAttribute("statusOpcoes", PedidoAluguel.PedidoStatus.values());
         return "meus-pedidos";
     }
+
+    @GetMapping("/mine/export")
+    public ResponseEntity<StreamingResponseBody> exportarMeusPedidos(
+            @AuthenticationPrincipal UsuarioAutenticado usuario,
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam(required = false) PedidoAluguel.PedidoStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        Cliente cliente = clienteRepository.getReferenceById(usuario.getId());
+        boolean json = "json".equalsIgnoreCase(formato);
+        StreamingResponseBody corpo = json
+            ? saida -> exportService.exportarJson(cliente, status, de, ate, saida)
+            : saida -> exportService.exportarCsv(cliente, status, de, ate, saida);
+        return ResponseEntity.ok()
+            .contentType(json ? MediaType.APPLICATION_JSON : new MediaType("text", "csv"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=meus-pedidos." + (json ? "json" : "csv"))
+            .body(corpo);
+    }
     
     @GetMapping("/pending")
-    public String getPedidosPendentes(Model model) {
-        List<PedidoAluguel> pedidos = pedidoService.findPedidosPendentes();
+    public String getPedidosPendentes(Model model,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) String ordem,
+                                      @RequestParam(defaultValue = "" + PedidoAluguelService.TAMANHO_PAGINA_PADRAO) int tamanho) {
+        if ("risco".equals(ordem)) {
+            // Menor risco primeiro, a partir das análises em memória; sem cursor, aprovados saem da lista
+            int limite = Math.max(1, Math.min(tamanho, PedidoAluguelService.TAMANHO_PAGINA_MAXIMO));
+            List<Long> ids = analiseCreditoService.listarPorRisco(limite).stream().map(AnaliseCredito::getPedidoId).toList();
+            adicionarPedidos(model, pedidoService.findPendentesPorIds(ids), null);
+        } else {
+            PaginaPedidos pagina = pedidoService.buscarPagina(PedidoAluguel.PedidoStatus.PENDENTE, null, null,
+                    PedidoCursor.parse(cursor), tamanho);
+            adicionarPedidos(model, pagina.getPedidos(), pagina.getProximoCursor());
+        }
+        model.addAttribute("ordem", ordem);
+        return "pedidos-pendentes";
+    }
+
+    private void adicionarPedidos(Model model, List<PedidoAluguel> pedidos, PedidoCursor proximoCursor) {
+        Map<Long, Long> clientePorPedido = new HashMap<>();
+        for (PedidoAluguel pedido : pedidos) {
+            clientePorPedido.put(pedido.getId(), pedido.getCliente().getId());
+        }
         model.addAttribute("pedidos", pedidos);
+        model.addAttribute("analises", analiseCreditoService.analisar(clientePorPedido));
+        model.addAttribute("proximoCursor", proximoCursor);
+    }
+
+    // O formulário lista só os primeiros veículos; os demais são encontrados pela busca
+    static final int OPCOES_FORMULARIO = 50;
+
+    // Modo fila: cada agente vê só os pedidos que reservou
+    @GetMapping("/fila")
+    public String getMinhaFila(Model model, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        adicionarPedidos(model, filaService.minhaFila(usuario.getId()), null);
+        model.addAttribute("modoFila", true);
         return "pedidos-pendentes";
     }
 
+    @PostMapping("/fila/reservar")
+    public String reservarLote(@AuthenticationPrincipal UsuarioAutenticado usuario, RedirectAttributes redirectAttributes) {
+        if (filaService.reservarLote(usuario.getId()).isEmpty()) {
+            redirectAttributes.addFlashAttribute("successMessage", "Não há pedidos livres na fila.");
+        }
+        return "redirect:/pedidos/fila";
+    }
+
+    @PostMapping("/fila/liberar")
+    public String liberarFila(@AuthenticationPrincipal UsuarioAutenticado usuario, RedirectAttributes redirectAttributes) {
+        int liberados = filaService.liberar(usuario.getId());
+        redirectAttributes.addFlashAttribute("successMessage", liberados + " pedido(s) devolvido(s) para a fila.");
+        return "redirect:/pedidos/pending";
+    }
+
     @GetMapping("/new")
     public String showPedidoForm(Model model) {
-        model.addAttribute("automoveis", automovelRepository.findAll());
+        model.addAttribute("automoveis", frotaService.buscar(null, OPCOES_FORMULARIO).getAutomoveis());
         return "pedido-form";
     }
 
@@ -53,16 +166,121 @@ public class PedidoAluguelController {
     public String createPedido(@RequestParam Long automovelId,
                                @RequestParam String dataRetirada,
                                @RequestParam String dataDevolucao,
-                               @AuthenticationPrincipal UserDetails userDetails) {
-        Cliente cliente = (Cliente) userRepository.findByEmail(userDetails.getUsername());
-        pedidoService.criarPedido(cliente.getId(), automovelId, dataRetirada, dataDevolucao);
+                               @AuthenticationPrincipal UsuarioAutenticado usuario,
+                               Model model, HttpServletResponse response,
+                               RedirectAttributes redirectAttributes) {
+        TicketPedido ticket;
+        try {
+            ticket = intakeService.enviar(usuario.getId(), automovelId, dataRetirada, dataDevolucao);
+        } catch (PedidoAluguelService.PedidoInvalidoException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            model.addAttribute("automoveis", frotaService.buscar(null, OPCOES_FORMULARIO).getAutomoveis());
+            model.addAttribute("errorMessage", e.getMessage());
+            return "pedido-form";
+        }
+        if (ticket == null) {
+            // Fila cheia: devolve o formulário com 429 e sugere nova tentativa
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+            model.addAttribute("automoveis", frotaService.buscar(null, OPCOES_FORMULARIO).getAutomoveis());
+            model.addAttribute("errorMessage", "Muitos pedidos sendo processados no momento. Tente novamente em alguns segundos.");
+            return "pedido-form";
+        }
+        redirectAttributes.addFlashAttribute("successMessage", "Pedido recebido! Protocolo: " + ticket.getId());
+        redirectAttributes.addFlashAttribute("ticket", ticket.getId());
         return "redirect:/pedidos/mine";
     }
+
+    // Prévia de preço e disponibilidade; não cria pedido. Sem automovelId, cota a frota inteira.
+    @GetMapping("/quote")
+    public ResponseEntity<?> cotar(@RequestParam(name = "automovelId", required = false) List<Long> automovelIds,
+                                   @RequestParam String dataRetirada,
+                                   @RequestParam String dataDevolucao) {
+        List<ResultadoCotacao> resultados;
+        try {
+            resultados = cotacaoService.cotar(automovelIds, dataRetirada, dataDevolucao);
+        } catch (PedidoAluguelService.PedidoInvalidoException e) {
+            return ResponseEntity.badRequest().body(Map.of("erro", e.getMessage()));
+        }
+        List<Map<String, Object>> corpo = new ArrayList<>(resultados.size());
+        for (ResultadoCotacao resultado : resultados) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("automovelId", resultado.getCotacao().getAutomovelId());
+            item.put("dias", resultado.getCotacao().getDias());
+            item.put("subtotal", resultado.getCotacao().getSubtotal());
+            item.put("desconto", resultado.getCotacao().getDesconto());
+            item.put("total", resultado.getCotacao().getTotal());
+            item.put("disponivel", resultado.isDisponivel());
+            corpo.add(item);
+        }
+        return ResponseEntity.ok()
+            // A disponibilidade muda a cada reserva: o navegador pode guardar, mas tem de revalidar
+            .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+            .body(corpo);
+    }
+
+    @GetMapping("/tickets/{id}")
+    public ResponseEntity<Map<String, Object>> getTicket(@PathVariable String id,
+                                                         @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        TicketPedido ticket = intakeService.buscarTicket(id);
+        if (ticket == null || !ticket.getClienteId().equals(usuario.getId())) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> corpo = new LinkedHashMap<>();
+        corpo.put("ticket", ticket.getId());
+        corpo.put("situacao", ticket.getSituacao());
+        corpo.put("pedidoId", ticket.getPedidoId());
+        corpo.put("mensagem", ticket.getMensagem());
+        return ResponseEntity.ok(corpo);
+    }
     
     @PostMapping("/evaluate")
-    public String evaluatePedido(@RequestParam Long pedidoId, @RequestParam boolean aprovar, @AuthenticationPrincipal UserDetails userDetails) {
-        Agente agente = (Agente) userRepository.findByEmail(userDetails.getUsername());
-        pedidoService.avaliarPedido(pedidoId, agente.getId(), aprovar);
-        return "redirect:/pedidos/pending";
+    public String evaluatePedido(@RequestParam Long pedidoId, @RequestParam boolean aprovar,
+                                 @RequestParam(defaultValue = "false") boolean fila,
+                                 @AuthenticationPrincipal UsuarioAutenticado usuario, RedirectAttributes redirectAttributes) {
+        try {
+            pedidoService.avaliarPedido(pedidoId, usuario.getId(), aprovar);
+        } catch (RuntimeException e) {
+            // Conflitos esperados com vários agentes: pedido já avaliado ou reservado por outro
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return fila ? "redirect:/pedidos/fila" : "redirect:/pedidos/pending";
+    }
+
+    // Aprova de uma vez os pedidos de baixo risco, respeitando o limite de comprometimento por cliente
+    @PostMapping("/evaluate/automatico")
+    public String aprovarBaixoRisco(@AuthenticationPrincipal UsuarioAutenticado usuario, RedirectAttributes redirectAttributes) {
+        List<Long> pedidoIds = analiseCreditoService.selecionarBaixoRisco(PedidoAluguelService.TAMANHO_PAGINA_MAXIMO);
+        if (pedidoIds.isEmpty()) {
+            redirectAttributes.addFlashAttribute("successMessage", "Nenhum pedido de baixo risco para aprovar.");
+            return "redirect:/pedidos/pending?ordem=risco";
+        }
+        long aprovados = pedidoService.avaliarPedidos(pedidoIds, usuario.getId(), true).stream()
+            .filter(r -> r.getSituacao() == ResultadoAvaliacao.Situacao.AVALIADO)
+            .count();
+        redirectAttributes.addFlashAttribute("successMessage", aprovados + " pedido(s) de baixo risco aprovado(s).");
+        return "redirect:/pedidos/pending?ordem=risco";
+    }
+
+    @PostMapping("/evaluate/batch")
+    public String evaluatePedidos(@RequestParam(required = false) List<Long> pedidoIds, @RequestParam boolean aprovar,
+                                  @RequestParam(defaultValue = "false") boolean fila,
+                                  @AuthenticationPrincipal UsuarioAutenticado usuario, RedirectAttributes redirectAttributes) {
+        String destino = fila ? "redirect:/pedidos/fila" : "redirect:/pedidos/pending";
+        if (pedidoIds == null || pedidoIds.isEmpty()) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Selecione ao menos um pedido.");
+            return destino;
+        }
+        List<ResultadoAvaliacao> resultados = pedidoService.avaliarPedidos(pedidoIds, usuario.getId(), aprovar);
+        long avaliados = resultados.stream()
+            .filter(r -> r.getSituacao() == ResultadoAvaliacao.Situacao.AVALIADO)
+            .count();
+        redirectAttributes.addFlashAttribute("successMessage",
+            avaliados + " pedido(s) " + (aprovar ? "aprovado(s)" : "rejeitado(s)") + ".");
+        if (avaliados < resultados.size()) {
+            redirectAttributes.addFlashAttribute("errorMessage",
+                (resultados.size() - avaliados) + " pedido(s) não foram alterados por já terem sido avaliados, estarem reservados por outro agente ou não existirem.");
+        }
+        return destino;
     }
 }
@@ -15,6 +15,9 @@ public class Automovel {
     private String cor;
     private double valorAluguelDiario;
 
+    @Version
+    private Long version;
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -32,4 +35,6 @@ public class Automovel {
     public void setCor(String cor) { this.cor = cor; }
     public double getValorAluguelDiario() { return valorAluguelDiario; }
     public void setValorAluguelDiario(double valorAluguelDiario) { this.valorAluguelDiario = valorAluguelDiario; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,53 @@
+package com.pucminas.rental_system.model;
+
+import jakarta.persistence.*;
+
+// Contadores de pedidos de um cliente, mantidos na mesma transação que cria ou avalia o pedido
+@Entity
+@Table(name = "estatistica_cliente")
+public class EstatisticaCliente {
+    @Id
+    @Column(name = "cliente_id")
+    private Long clienteId;
+    private long pendentes;
+    private long aprovados;
+    private long rejeitados;
+    private long cancelados;
+    private double valorAtivo;
+
+    public long getTotal() {
+        return pendentes + aprovados + rejeitados + cancelados;
+    }
+
+    public long getQuantidade(PedidoAluguel.PedidoStatus status) {
+        return switch (status) {
+            case PENDENTE -> pendentes;
+            case APROVADO -> aprovados;
+            case REJEITADO -> rejeitados;
+            case CANCELADO -> cancelados;
+        };
+    }
+
+    public void somar(PedidoAluguel.PedidoStatus status, long quantidade) {
+        switch (status) {
+            case PENDENTE -> pendentes += quantidade;
+            case APROVADO -> aprovados += quantidade;
+            case REJEITADO -> rejeitados += quantidade;
+            case CANCELADO -> cancelados += quantidade;
+        }
+    }
+
+    // Getters and Setters
+    public Long getClienteId() { return clienteId; }
+    public void setClienteId(Long clienteId) { this.clienteId = clienteId; }
+    public long getPendentes() { return pendentes; }
+    public void setPendentes(long pendentes) { this.pendentes = pendentes; }
+    public long getAprovados() { return aprovados; }
+    public void setAprovados(long aprovados) { this.aprovados = aprovados; }
+    public long getRejeitados() { return rejeitados; }
+    public void setRejeitados(long rejeitados) { this.rejeitados = rejeitados; }
+    public long getCancelados() { return cancelados; }
+    public void setCancelados(long cancelados) { this.cancelados = cancelados; }
+    public double getValorAtivo() { return valorAtivo; }
+    public void setValorAtivo(double valorAtivo) { this.valorAtivo = valorAtivo; }
+}
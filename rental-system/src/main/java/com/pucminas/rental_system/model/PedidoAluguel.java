@@ -4,19 +4,25 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(name = "PedidoAluguel.completo", attributeNodes = {
+    @NamedAttributeNode("cliente"),
+    @NamedAttributeNode("automovel"),
+    @NamedAttributeNode("agente")
+})
 public class PedidoAluguel {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cliente_id", nullable = false)
     private Cliente cliente;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "automovel_id", nullable = false)
     private Automovel automovel;
 
+    @Column(name = "data_pedido")
     private LocalDateTime dataPedido;
     private LocalDateTime dataRetirada;
     private LocalDateTime dataDevolucao;
@@ -25,14 +31,32 @@ public class PedidoAluguel {
     @Enumerated(EnumType.STRING)
     private PedidoStatus status;
 
-    @ManyToOne
+    @Version
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "agente_avaliador_id")
     private Agente agente;
 
+    // Reserva temporária do pedido por um agente na fila de avaliação; vencida, o pedido volta para a fila
+    @Column(name = "reservado_por")
+    private Long reservadoPor;
+    @Column(name = "reservado_ate")
+    private LocalDateTime reservadoAte;
+
+    // Montado a partir do arquivo em disco (só exibição): não existe mais na tabela
+    @Transient
+    private boolean arquivado;
+
     public enum PedidoStatus {
         PENDENTE, APROVADO, REJEITADO, CANCELADO
     }
 
+    public boolean isReservadoParaOutro(Long agenteId, LocalDateTime agora) {
+        return reservadoPor != null && !reservadoPor.equals(agenteId)
+            && reservadoAte != null && !reservadoAte.isBefore(agora);
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -52,4 +76,12 @@ public class PedidoAluguel {
     public void setStatus(PedidoStatus status) { this.status = status; }
     public Agente getAgente() { return agente; }
     public void setAgente(Agente agente) { this.agente = agente; }
+    public Long getReservadoPor() { return reservadoPor; }
+    public void setReservadoPor(Long reservadoPor) { this.reservadoPor = reservadoPor; }
+    public LocalDateTime getReservadoAte() { return reservadoAte; }
+    public void setReservadoAte(LocalDateTime reservadoAte) { this.reservadoAte = reservadoAte; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public boolean isArquivado() { return arquivado; }
+    public void setArquivado(boolean arquivado) { this.arquivado = arquivado; }
 }
@@ -0,0 +1,67 @@
+package com.pucminas.rental_system.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+// Ajuste percentual sobre o valor da diária. Sem automóvel, vale para toda a frota; com automóvel,
+// as regras daquele tipo substituem as regras gerais do mesmo tipo para o veículo.
+@Entity
+@Table(name = "regra_preco")
+public class RegraPreco {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private TipoRegra tipo;
+
+    @Column(name = "automovel_id")
+    private Long automovelId;
+
+    // SAZONAL: período de datas, inclusive nas duas pontas
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+
+    // DIA_SEMANA
+    @Enumerated(EnumType.STRING)
+    private DayOfWeek diaSemana;
+
+    // DURACAO: aplicada ao total quando o aluguel tem pelo menos esta quantidade de dias
+    private Integer diasMinimos;
+
+    // Acréscimo (positivo) ou desconto (negativo), em pontos percentuais
+    @Column(precision = 7, scale = 2)
+    private BigDecimal percentual;
+
+    public enum TipoRegra {
+        SAZONAL, DIA_SEMANA, DURACAO
+    }
+
+    public boolean aplicaEm(LocalDate data) {
+        return switch (tipo) {
+            case SAZONAL -> !data.isBefore(dataInicio) && !data.isAfter(dataFim);
+            case DIA_SEMANA -> data.getDayOfWeek() == diaSemana;
+            case DURACAO -> false;
+        };
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public TipoRegra getTipo() { return tipo; }
+    public void setTipo(TipoRegra tipo) { this.tipo = tipo; }
+    public Long getAutomovelId() { return automovelId; }
+    public void setAutomovelId(Long automovelId) { this.automovelId = automovelId; }
+    public LocalDate getDataInicio() { return dataInicio; }
+    public void setDataInicio(LocalDate dataInicio) { this.dataInicio = dataInicio; }
+    public LocalDate getDataFim() { return dataFim; }
+    public void setDataFim(LocalDate dataFim) { this.dataFim = dataFim; }
+    public DayOfWeek getDiaSemana() { return diaSemana; }
+    public void setDiaSemana(DayOfWeek diaSemana) { this.diaSemana = diaSemana; }
+    public Integer getDiasMinimos() { return diasMinimos; }
+    public void setDiasMinimos(Integer diasMinimos) { this.diasMinimos = diasMinimos; }
+    public BigDecimal getPercentual() { return percentual; }
+    public void setPercentual(BigDecimal percentual) { this.percentual = percentual; }
+}
@@ -1,10 +1,12 @@
 package com.pucminas.rental_system.model;
 
+import com.pucminas.rental_system.service.UsuarioCacheListener;
 import jakarta.persistence.*;
 
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
 @Table(name = "users")
+@EntityListeners(UsuarioCacheListener.class)
 public abstract class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,6 +1,17 @@
 package com.pucminas.rental_system.repository;
 
 import com.pucminas.rental_system.model.Automovel;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Optional;
 
-public interface AutomovelRepository extends JpaRepository<Automovel, Long> {}
+public interface AutomovelRepository extends JpaRepository<Automovel, Long> {
+    // Incrementa a versão do automóvel no commit: duas reservas simultâneas do mesmo carro,
+    // mesmo em instâncias diferentes da aplicação, não podem ser confirmadas juntas.
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT a FROM Automovel a WHERE a.id = :id")
+    Optional<Automovel> findParaReservaById(@Param("id") Long id);
+}
@@ -2,5 +2,22 @@ package com.pucminas.rental_system.repository;
 
 import com.pucminas.rental_system.model.Cliente;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 
-public interface ClienteRepository extends JpaRepository<Cliente, Long> {}
+public interface ClienteRepository extends JpaRepository<Cliente, Long> {
+    @Query("SELECT c.id FROM Cliente c")
+    List<Long> findAllIds();
+
+    // Soma dos rendimentos declarados; clientes sem rendimentos vêm com 0
+    @Query("SELECT c.id AS clienteId, COALESCE(SUM(r.valor), 0.0) AS renda FROM Cliente c LEFT JOIN c.rendimentos r " +
+           "WHERE c.id IN :ids GROUP BY c.id")
+    List<RendaCliente> somarRendimentos(@Param("ids") Collection<Long> ids);
+
+    interface RendaCliente {
+        Long getClienteId();
+        Double getRenda();
+    }
+}
@@ -0,0 +1,34 @@
+package com.pucminas.rental_system.repository;
+
+import com.pucminas.rental_system.model.EstatisticaCliente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface EstatisticaClienteRepository extends JpaRepository<EstatisticaCliente, Long> {
+    // Incremento atômico no banco; devolve 0 se o cliente ainda não tem linha de contadores
+    @Modifying
+    @Query("UPDATE EstatisticaCliente e SET e.pendentes = e.pendentes + :pendentes, e.aprovados = e.aprovados + :aprovados, " +
+           "e.rejeitados = e.rejeitados + :rejeitados, e.cancelados = e.cancelados + :cancelados, " +
+           "e.valorAtivo = e.valorAtivo + :valorAtivo WHERE e.clienteId = :clienteId")
+    int incrementar(@Param("clienteId") Long clienteId,
+                    @Param("pendentes") long pendentes,
+                    @Param("aprovados") long aprovados,
+                    @Param("rejeitados") long rejeitados,
+                    @Param("cancelados") long cancelados,
+                    @Param("valorAtivo") double valorAtivo);
+
+    // Totais globais por status somando os contadores dos clientes; os pedidos não escrevem numa linha global
+    @Query("SELECT COALESCE(SUM(e.pendentes), 0) AS pendentes, COALESCE(SUM(e.aprovados), 0) AS aprovados, " +
+           "COALESCE(SUM(e.rejeitados), 0) AS rejeitados, COALESCE(SUM(e.cancelados), 0) AS cancelados " +
+           "FROM EstatisticaCliente e")
+    TotaisStatus somarTotais();
+
+    interface TotaisStatus {
+        Long getPendentes();
+        Long getAprovados();
+        Long getRejeitados();
+        Long getCancelados();
+    }
+}
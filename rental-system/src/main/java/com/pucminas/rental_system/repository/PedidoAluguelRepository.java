@@ -1,12 +1,192 @@
 package com.pucminas.rental_system.repository;
 
+import com.pucminas.rental_system.model.Agente;
 import com.pucminas.rental_system.model.Cliente;
 import com.pucminas.rental_system.model.PedidoAluguel;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+// As listagens carregam cliente, automóvel e agente no mesmo SELECT (grafo "PedidoAluguel.completo"),
+// evitando uma consulta extra por linha quando as páginas acessam as associações.
 public interface PedidoAluguelRepository extends JpaRepository<PedidoAluguel, Long> {
+    String GRAFO_COMPLETO = "PedidoAluguel.completo";
+
+    @Override
+    @EntityGraph(GRAFO_COMPLETO)
+    List<PedidoAluguel> findAll();
+
+    @EntityGraph(GRAFO_COMPLETO)
     List<PedidoAluguel> findByCliente(Cliente cliente);
+    @EntityGraph(GRAFO_COMPLETO)
     List<PedidoAluguel> findByStatus(PedidoAluguel.PedidoStatus status);
+    @EntityGraph(GRAFO_COMPLETO)
     List<PedidoAluguel> findByClienteAndStatusIn(Cliente cliente, List<PedidoAluguel.PedidoStatus> statuses);
+
+    long countByStatus(PedidoAluguel.PedidoStatus status);
+
+    @Query("SELECT COALESCE(SUM(p.valorTotal), 0.0) FROM PedidoAluguel p WHERE p.cliente = :cliente AND p.status IN :statuses")
+    double sumValorTotalByClienteAndStatusIn(@Param("cliente") Cliente cliente,
+                                             @Param("statuses") List<PedidoAluguel.PedidoStatus> statuses);
+
+    // Estatísticas agregadas no banco (uma linha por status)
+    @Query("SELECT p.status AS status, COUNT(p) AS total FROM PedidoAluguel p GROUP BY p.status")
+    List<StatusCount> countGroupByStatus();
+
+    @Query("SELECT p.status AS status, COUNT(p) AS total FROM PedidoAluguel p WHERE p.cliente = :cliente GROUP BY p.status")
+    List<StatusCount> countGroupByStatusAndCliente(@Param("cliente") Cliente cliente);
+
+    // Base para reconstruir os contadores materializados
+    @Query("SELECT p.cliente.id AS clienteId, p.status AS status, COUNT(p) AS total, COALESCE(SUM(p.valorTotal), 0.0) AS valor " +
+           "FROM PedidoAluguel p GROUP BY p.cliente.id, p.status")
+    List<ClienteStatusCount> countGroupByClienteAndStatus();
+
+    // Pedidos mais recentes, limitados pelo Pageable (usa o índice em data_pedido)
+    @EntityGraph(GRAFO_COMPLETO)
+    List<PedidoAluguel> findAllByOrderByDataPedidoDesc(Pageable pageable);
+    @EntityGraph(GRAFO_COMPLETO)
+    List<PedidoAluguel> findByClienteOrderByDataPedidoDesc(Cliente cliente, Pageable pageable);
+
+    // Paginação por chave (dataPedido, id): nunca usa OFFSET, o custo por página é constante
+    @Query("SELECT p FROM PedidoAluguel p WHERE (:status IS NULL OR p.status = :status) " +
+           "AND (:de IS NULL OR p.dataPedido >= :de) " +
+           "AND (:ate IS NULL OR p.dataPedido < :ate) " +
+           "AND (:cursorData IS NULL OR p.dataPedido < :cursorData " +
+           "OR (p.dataPedido = :cursorData AND p.id < :cursorId)) " +
+           "ORDER BY p.dataPedido DESC, p.id DESC")
+    @EntityGraph(GRAFO_COMPLETO)
+    List<PedidoAluguel> findPagina(@Param("status") PedidoAluguel.PedidoStatus status,
+                                   @Param("de") LocalDateTime de,
+                                   @Param("ate") LocalDateTime ate,
+                                   @Param("cursorData") LocalDateTime cursorData,
+                                   @Param("cursorId") Long cursorId,
+                                   Pageable pageable);
+
+    @Query("SELECT p FROM PedidoAluguel p WHERE p.cliente = :cliente " +
+           "AND (:status IS NULL OR p.status = :status) " +
+           "AND (:de IS NULL OR p.dataPedido >= :de) " +
+           "AND (:ate IS NULL OR p.dataPedido < :ate) " +
+           "AND (:cursorData IS NULL OR p.dataPedido < :cursorData " +
+           "OR (p.dataPedido = :cursorData AND p.id < :cursorId)) " +
+           "ORDER BY p.dataPedido DESC, p.id DESC")
+    @EntityGraph(GRAFO_COMPLETO)
+    List<PedidoAluguel> findPaginaPorCliente(@Param("cliente") Cliente cliente,
+                                             @Param("status") PedidoAluguel.PedidoStatus status,
+                                             @Param("de") LocalDateTime de,
+                                             @Param("ate") LocalDateTime ate,
+                                             @Param("cursorData") LocalDateTime cursorData,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable pageable);
+
+    // Avaliação em lote: bloqueia as linhas do lote e atualiza todas com um único UPDATE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PedidoAluguel p WHERE p.id IN :ids")
+    List<PedidoAluguel> findParaAvaliacaoByIdIn(@Param("ids") List<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PedidoAluguel p SET p.status = :novoStatus, p.agente = :agente, p.version = p.version + 1, " +
+           "p.reservadoPor = NULL, p.reservadoAte = NULL " +
+           "WHERE p.id IN :ids AND p.status = :status")
+    int avaliarEmLote(@Param("ids") List<Long> ids,
+                      @Param("status") PedidoAluguel.PedidoStatus status,
+                      @Param("agente") Agente agente,
+                      @Param("novoStatus") PedidoAluguel.PedidoStatus novoStatus);
+
+    // Fila de avaliação: pedidos sem reserva ou com reserva vencida, os mais antigos primeiro
+    @Query("SELECT p.id FROM PedidoAluguel p WHERE p.status = :status " +
+           "AND (p.reservadoAte IS NULL OR p.reservadoAte < :agora) ORDER BY p.dataPedido, p.id")
+    List<Long> findIdsLivresParaReserva(@Param("status") PedidoAluguel.PedidoStatus status,
+                                        @Param("agora") LocalDateTime agora, Pageable pageable);
+
+    // A condição é reavaliada em cada linha, então um pedido tomado por outro agente no meio do caminho fica de fora.
+    // A versão sobe para que uma avaliação que leu o pedido antes da reserva mudar falhe no lock otimista.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PedidoAluguel p SET p.reservadoPor = :agenteId, p.reservadoAte = :ate, p.version = p.version + 1 " +
+           "WHERE p.id IN :ids AND p.status = :status " +
+           "AND (p.reservadoAte IS NULL OR p.reservadoAte < :agora)")
+    int reservarParaAgente(@Param("ids") List<Long> ids,
+                           @Param("status") PedidoAluguel.PedidoStatus status,
+                           @Param("agenteId") Long agenteId,
+                           @Param("ate") LocalDateTime ate,
+                           @Param("agora") LocalDateTime agora);
+
+    long countByReservadoPorAndStatusAndReservadoAteGreaterThanEqual(Long reservadoPor, PedidoAluguel.PedidoStatus status,
+                                                                      LocalDateTime agora);
+
+    @EntityGraph(GRAFO_COMPLETO)
+    @Query("SELECT p FROM PedidoAluguel p WHERE p.reservadoPor = :agenteId " +
+           "AND p.status = :status " +
+           "AND p.reservadoAte >= :agora ORDER BY p.dataPedido, p.id")
+    List<PedidoAluguel> findReservadosPor(@Param("agenteId") Long agenteId, @Param("status") PedidoAluguel.PedidoStatus status,
+                                          @Param("agora") LocalDateTime agora);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PedidoAluguel p SET p.reservadoPor = NULL, p.reservadoAte = NULL, p.version = p.version + 1 " +
+           "WHERE p.reservadoPor = :agenteId AND p.status = :status")
+    int liberarReservas(@Param("agenteId") Long agenteId, @Param("status") PedidoAluguel.PedidoStatus status);
+
+    // Somente os campos necessários para montar o índice de disponibilidade
+    @Query("SELECT p.id AS id, p.automovel.id AS automovelId, p.dataRetirada AS dataRetirada, " +
+           "p.dataDevolucao AS dataDevolucao FROM PedidoAluguel p WHERE p.status IN :statuses")
+    List<ReservaAtiva> findReservasAtivas(@Param("statuses") List<PedidoAluguel.PedidoStatus> statuses);
+
+    // Confirmação no banco de que o período está livre, vale também para pedidos gravados por outra instância
+    @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM PedidoAluguel p " +
+           "WHERE p.automovel.id = :automovelId AND p.status IN :statuses " +
+           "AND p.dataRetirada < :fim AND p.dataDevolucao > :inicio")
+    boolean existsReservaConflitante(@Param("automovelId") Long automovelId,
+                                     @Param("statuses") List<PedidoAluguel.PedidoStatus> statuses,
+                                     @Param("inicio") LocalDateTime inicio,
+                                     @Param("fim") LocalDateTime fim);
+
+    @EntityGraph(GRAFO_COMPLETO)
+    List<PedidoAluguel> findByIdIn(Collection<Long> ids);
+
+    // Pré-análise de crédito: clientes com pedidos pendentes, os pendentes e o valor aprovado de cada cliente
+    @Query("SELECT DISTINCT p.cliente.id FROM PedidoAluguel p WHERE p.status = :status")
+    List<Long> findClienteIdsComPendentes(@Param("status") PedidoAluguel.PedidoStatus status);
+
+    @Query("SELECT p.id AS id, p.cliente.id AS clienteId, p.valorTotal AS valorTotal FROM PedidoAluguel p " +
+           "WHERE p.cliente.id IN :clienteIds AND p.status = :status")
+    List<PedidoValor> findPendentesByClienteIdIn(@Param("clienteIds") Collection<Long> clienteIds,
+                                                 @Param("status") PedidoAluguel.PedidoStatus status);
+
+    @Query("SELECT p.cliente.id AS clienteId, p.status AS status, COUNT(p) AS total, COALESCE(SUM(p.valorTotal), 0.0) AS valor " +
+           "FROM PedidoAluguel p WHERE p.cliente.id IN :clienteIds " +
+           "AND p.status = :status GROUP BY p.cliente.id, p.status")
+    List<ClienteStatusCount> sumAprovadosByClienteIdIn(@Param("clienteIds") Collection<Long> clienteIds,
+                                                       @Param("status") PedidoAluguel.PedidoStatus status);
+
+    interface PedidoValor {
+        Long getId();
+        Long getClienteId();
+        Double getValorTotal();
+    }
+
+    interface ReservaAtiva {
+        Long getId();
+        Long getAutomovelId();
+        LocalDateTime getDataRetirada();
+        LocalDateTime getDataDevolucao();
+    }
+
+    interface ClienteStatusCount {
+        Long getClienteId();
+        PedidoAluguel.PedidoStatus getStatus();
+        Long getTotal();
+        Double getValor();
+    }
+
+    interface StatusCount {
+        PedidoAluguel.PedidoStatus getStatus();
+        Long getTotal();
+    }
 }
@@ -0,0 +1,9 @@
+package com.pucminas.rental_system.repository;
+
+import com.pucminas.rental_system.model.RegraPreco;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+
+public interface RegraPrecoRepository extends JpaRepository<RegraPreco, Long> {
+    List<RegraPreco> findAllByOrderByIdAsc();
+}
@@ -0,0 +1,45 @@
+package com.pucminas.rental_system.service;
+
+// Pré-análise de crédito de um pedido pendente: quanto da renda declarada do cliente fica
+// comprometida com os pedidos já aprovados mais o valor deste pedido
+public class AnaliseCredito {
+    public enum Risco { BAIXO, MEDIO, ALTO }
+
+    private final Long pedidoId;
+    private final Long clienteId;
+    private final double valorPedido;
+    private final double renda;
+    private final double valorAprovado;
+    private final Risco risco;
+
+    public AnaliseCredito(Long pedidoId, Long clienteId, double valorPedido, double renda, double valorAprovado, Risco risco) {
+        this.pedidoId = pedidoId;
+        this.clienteId = clienteId;
+        this.valorPedido = valorPedido;
+        this.renda = renda;
+        this.valorAprovado = valorAprovado;
+        this.risco = risco;
+    }
+
+    // Fração da renda comprometida; sem renda declarada é infinita
+    public double getComprometimento() {
+        double comprometido = valorAprovado + valorPedido;
+        return renda > 0 ? comprometido / renda : Double.POSITIVE_INFINITY;
+    }
+
+    // 0 a 100, maior é melhor
+    public int getPontuacao() {
+        return (int) Math.round(100 * Math.max(0, 1 - getComprometimento()));
+    }
+
+    public boolean isSemRenda() {
+        return renda <= 0;
+    }
+
+    public Long getPedidoId() { return pedidoId; }
+    public Long getClienteId() { return clienteId; }
+    public double getValorPedido() { return valorPedido; }
+    public double getRenda() { return renda; }
+    public double getValorAprovado() { return valorAprovado; }
+    public Risco getRisco() { return risco; }
+}
@@ -0,0 +1,251 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.repository.ClienteRepository;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pré-análise de crédito da fila de pendentes, mantida em memória por cliente. Na subida calcula
+// todos os clientes com pendentes em paralelo (fork-join por lotes de clientes, três consultas
+// agregadas por lote); depois, cada criação ou avaliação recalcula só os clientes afetados.
+// Cada cálculo leva um número de sequência tirado antes das consultas, e um resultado mais antigo
+// nunca substitui um mais novo. Clientes que faltarem (pedidos de outra instância) são calculados
+// na hora em que a página precisa deles.
+@Service
+public class AnaliseCreditoService {
+    private static final Logger log = LoggerFactory.getLogger(AnaliseCreditoService.class);
+
+    static final Comparator<AnaliseCredito> MENOR_RISCO = Comparator
+        .comparingDouble(AnaliseCredito::getComprometimento)
+        .thenComparing(AnaliseCredito::getPedidoId);
+
+    @Autowired private PedidoAluguelRepository pedidoRepository;
+    @Autowired private ClienteRepository clienteRepository;
+
+    private final double limiteBaixo;
+    private final double limiteMedio;
+    private final int tamanhoLote;
+    private final ForkJoinPool pool;
+    private final AtomicLong sequencia = new AtomicLong();
+    private final Map<Long, AnalisesCliente> porCliente = new ConcurrentHashMap<>();
+
+    public AnaliseCreditoService(@Value("${rental.credito.limite-baixo:0.3}") double limiteBaixo,
+                                 @Value("${rental.credito.limite-medio:0.6}") double limiteMedio,
+                                 @Value("${rental.credito.lote:500}") int tamanhoLote,
+                                 @Value("${rental.credito.paralelismo:0}") int paralelismo,
+                                 MeterRegistry meterRegistry) {
+        this.limiteBaixo = limiteBaixo;
+        this.limiteMedio = limiteMedio;
+        this.tamanhoLote = tamanhoLote;
+        // As folhas esperam pelo banco: mais threads que conexões no pool do Hikari não ajuda
+        this.pool = new ForkJoinPool(paralelismo > 0 ? paralelismo : Math.min(4, Runtime.getRuntime().availableProcessors()));
+        Gauge.builder("credito.analises", porCliente, mapa -> mapa.values().stream().mapToInt(a -> a.analises().size()).sum())
+            .description("Pedidos pendentes com pré-análise de crédito em memória")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void calcularTudo() {
+        long inicio = System.nanoTime();
+        List<Long> clienteIds = pedidoRepository.findClienteIdsComPendentes(PedidoAluguel.PedidoStatus.PENDENTE);
+        pool.invoke(new CalculoLote(clienteIds, sequencia.incrementAndGet()));
+        log.info("Pré-análise de crédito de {} cliente(s) em {} ms", clienteIds.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // Chamado por quem cria ou avalia pedidos; recalcula depois do commit, fora da thread da requisição
+    public void registrarAlteracao(Collection<Long> clienteIds) {
+        if (clienteIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(new HashSet<>(clienteIds));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pool.execute(new CalculoLote(ids, sequencia.incrementAndGet()));
+                }
+            });
+        } else {
+            pool.execute(new CalculoLote(ids, sequencia.incrementAndGet()));
+        }
+    }
+
+    // Análises dos pedidos informados (pedidoId -> clienteId); calcula na hora os clientes que faltarem
+    public Map<Long, AnaliseCredito> analisar(Map<Long, Long> clientePorPedido) {
+        Set<Long> faltando = new HashSet<>();
+        clientePorPedido.forEach((pedidoId, clienteId) -> {
+            if (buscar(pedidoId, clienteId) == null) {
+                faltando.add(clienteId);
+            }
+        });
+        if (!faltando.isEmpty()) {
+            pool.invoke(new CalculoLote(List.copyOf(faltando), sequencia.incrementAndGet()));
+        }
+        Map<Long, AnaliseCredito> analises = new HashMap<>();
+        clientePorPedido.forEach((pedidoId, clienteId) -> {
+            AnaliseCredito analise = buscar(pedidoId, clienteId);
+            if (analise != null) {
+                analises.put(pedidoId, analise);
+            }
+        });
+        return analises;
+    }
+
+    // Pendentes do menor para o maior comprometimento da renda
+    public List<AnaliseCredito> listarPorRisco(int limite) {
+        return porCliente.values().stream()
+            .flatMap(a -> a.analises().stream())
+            .sorted(MENOR_RISCO)
+            .limit(limite)
+            .toList();
+    }
+
+    // Pedidos que podem ser aprovados sem análise manual. Recalcula os candidatos antes de escolher e,
+    // para cada cliente, soma os pedidos escolhidos: aprovados juntos, continuam dentro do limite baixo.
+    public List<Long> selecionarBaixoRisco(int limite) {
+        List<Long> candidatos = porCliente.entrySet().stream()
+            .filter(e -> e.getValue().analises().stream().anyMatch(a -> a.getRisco() == AnaliseCredito.Risco.BAIXO))
+            .map(Map.Entry::getKey)
+            .toList();
+        if (candidatos.isEmpty()) {
+            return List.of();
+        }
+        pool.invoke(new CalculoLote(candidatos, sequencia.incrementAndGet()));
+
+        List<Long> selecionados = new ArrayList<>();
+        for (Long clienteId : candidatos) {
+            AnalisesCliente atual = porCliente.get(clienteId);
+            if (atual == null) {
+                continue;
+            }
+            double acumulado = 0;
+            for (AnaliseCredito analise : atual.analises().stream()
+                    .sorted(Comparator.comparingDouble(AnaliseCredito::getValorPedido)).toList()) {
+                double comprometido = analise.getValorAprovado() + acumulado + analise.getValorPedido();
+                if (analise.isSemRenda() || comprometido > limiteBaixo * analise.getRenda()) {
+                    break;
+                }
+                acumulado += analise.getValorPedido();
+                selecionados.add(analise.getPedidoId());
+                if (selecionados.size() >= limite) {
+                    return selecionados;
+                }
+            }
+        }
+        return selecionados;
+    }
+
+    private AnaliseCredito buscar(Long pedidoId, Long clienteId) {
+        AnalisesCliente analises = porCliente.get(clienteId);
+        if (analises == null) {
+            return null;
+        }
+        for (AnaliseCredito analise : analises.analises()) {
+            if (analise.getPedidoId().equals(pedidoId)) {
+                return analise;
+            }
+        }
+        return null;
+    }
+
+    AnaliseCredito.Risco classificar(double renda, double comprometido) {
+        if (renda <= 0) {
+            return AnaliseCredito.Risco.ALTO;
+        }
+        double fracao = comprometido / renda;
+        if (fracao <= limiteBaixo) {
+            return AnaliseCredito.Risco.BAIXO;
+        }
+        return fracao <= limiteMedio ? AnaliseCredito.Risco.MEDIO : AnaliseCredito.Risco.ALTO;
+    }
+
+    // Um lote de clientes: renda, valor aprovado e pendentes em três consultas
+    private void calcularLote(List<Long> clienteIds, long versao) {
+        Map<Long, Double> renda = new HashMap<>();
+        for (ClienteRepository.RendaCliente linha : clienteRepository.somarRendimentos(clienteIds)) {
+            renda.put(linha.getClienteId(), linha.getRenda());
+        }
+        Map<Long, Double> aprovado = new HashMap<>();
+        for (PedidoAluguelRepository.ClienteStatusCount linha : pedidoRepository.sumAprovadosByClienteIdIn(clienteIds, PedidoAluguel.PedidoStatus.APROVADO)) {
+            aprovado.put(linha.getClienteId(), linha.getValor());
+        }
+        Map<Long, List<AnaliseCredito>> novas = new HashMap<>();
+        for (Long clienteId : clienteIds) {
+            novas.put(clienteId, new ArrayList<>());
+        }
+        for (PedidoAluguelRepository.PedidoValor pedido : pedidoRepository.findPendentesByClienteIdIn(clienteIds, PedidoAluguel.PedidoStatus.PENDENTE)) {
+            double rendaCliente = renda.getOrDefault(pedido.getClienteId(), 0.0);
+            double aprovadoCliente = aprovado.getOrDefault(pedido.getClienteId(), 0.0);
+            novas.get(pedido.getClienteId()).add(new AnaliseCredito(pedido.getId(), pedido.getClienteId(), pedido.getValorTotal(),
+                    rendaCliente, aprovadoCliente, classificar(rendaCliente, aprovadoCliente + pedido.getValorTotal())));
+        }
+        novas.forEach((clienteId, analises) -> porCliente.merge(clienteId, new AnalisesCliente(versao, List.copyOf(analises)),
+                (antiga, nova) -> nova.versao() >= antiga.versao() ? nova : antiga));
+    }
+
+    // Divide a lista de clientes ao meio até caber num lote
+    private class CalculoLote extends RecursiveAction {
+        private final List<Long> clienteIds;
+        private final long versao;
+
+        CalculoLote(List<Long> clienteIds, long versao) {
+            this.clienteIds = clienteIds;
+            this.versao = versao;
+        }
+
+        @Override
+        protected void compute() {
+            if (clienteIds.size() <= tamanhoLote) {
+                if (!clienteIds.isEmpty()) {
+                    try {
+                        calcularLote(clienteIds, versao);
+                    } catch (RuntimeException e) {
+                        // Sem a análise o pedido aparece sem pontuação e é recalculado na próxima leitura
+                        log.warn("Falha na pré-análise de crédito de {} cliente(s)", clienteIds.size(), e);
+                    }
+                }
+                return;
+            }
+            int meio = clienteIds.size() / 2;
+            invokeAll(new CalculoLote(clienteIds.subList(0, meio), versao),
+                      new CalculoLote(clienteIds.subList(meio, clienteIds.size()), versao));
+        }
+    }
+
+    // Espera os recálculos em andamento terminarem; devolve false se o limite passar antes
+    public boolean aguardarRecalculos(Duration limite) {
+        return pool.awaitQuiescence(limite.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        pool.shutdownNow();
+    }
+
+    private record AnalisesCliente(long versao, List<AnaliseCredito> analises) {}
+}
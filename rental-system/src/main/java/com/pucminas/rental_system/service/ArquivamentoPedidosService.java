@@ -0,0 +1,179 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.PedidoAluguel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Tira da tabela quente os pedidos encerrados há mais de rental.arquivo.idade (rejeitados e
+// cancelados pela data do pedido, aprovados pela data de devolução) e os grava em segmentos
+// comprimidos em disco, um por lote. Ordem de cada lote: escreve e sincroniza o arquivo, publica o
+// segmento para leitura, e só então apaga os pedidos e registra o segmento em arquivo_segmento na
+// mesma transação. Se a transação falhar, o segmento é retirado e o arquivo apagado.
+@Service
+public class ArquivamentoPedidosService {
+    private static final Logger log = LoggerFactory.getLogger(ArquivamentoPedidosService.class);
+    private static final int TAMANHO_BLOCO_DELETE = 1000;
+
+    private static final String SELECIONAR =
+        "SELECT p.id, p.cliente_id, p.automovel_id, p.agente_avaliador_id, p.status, p.data_pedido, p.data_retirada, " +
+        "p.data_devolucao, p.valor_total, c.nome, a.marca, a.modelo, ag.nome_empresa " +
+        "FROM pedido_aluguel p " +
+        "JOIN cliente c ON c.id = p.cliente_id " +
+        "JOIN automovel a ON a.id = p.automovel_id " +
+        "LEFT JOIN agente ag ON ag.id = p.agente_avaliador_id " +
+        "WHERE p.data_pedido IS NOT NULL " +
+        "AND ((p.status IN ('REJEITADO', 'CANCELADO') AND p.data_pedido < ?) " +
+        "OR (p.status = 'APROVADO' AND p.data_devolucao < ?)) " +
+        "ORDER BY p.cliente_id, p.data_pedido, p.id " +
+        "FETCH FIRST ? ROWS ONLY";
+
+    @Autowired private ArquivoPedidosService arquivoService;
+    @Autowired private EstatisticaPedidosService estatisticaService;
+    @Autowired private VersoesService versoesService;
+    @Autowired private DisponibilidadeService disponibilidadeService;
+    @Autowired private AnaliseCreditoService analiseCreditoService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private final Duration idade;
+    private final int tamanhoLote;
+    private final Counter arquivados;
+
+    public ArquivamentoPedidosService(@Value("${rental.arquivo.idade:P180D}") Duration idade,
+                                      @Value("${rental.arquivo.lote:50000}") int tamanhoLote,
+                                      MeterRegistry meterRegistry) {
+        this.idade = idade;
+        this.tamanhoLote = tamanhoLote;
+        this.arquivados = Counter.builder("pedidos.arquivamento")
+            .description("Pedidos movidos da tabela para o arquivo em disco")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${rental.arquivo.cron:0 30 3 * * *}")
+    public void executar() {
+        if (!arquivoService.isHabilitado()) {
+            return;
+        }
+        try {
+            arquivar(LocalDateTime.now().minus(idade));
+        } catch (RuntimeException e) {
+            log.error("Falha no arquivamento de pedidos", e);
+        }
+    }
+
+    // Arquiva tudo o que encerrou antes do corte; devolve quantos pedidos saíram do banco
+    public synchronized int arquivar(LocalDateTime corte) {
+        if (!arquivoService.isHabilitado()) {
+            throw new RuntimeException("Arquivamento desligado (rental.arquivo.habilitado=false).");
+        }
+        int total = 0;
+        while (true) {
+            List<RegistroArquivado> registros = jdbcTemplate.query(SELECIONAR, this::registro, corte, corte, tamanhoLote);
+            if (registros.isEmpty()) {
+                break;
+            }
+            total += gravarSegmento(registros);
+            if (registros.size() < tamanhoLote) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("{} pedido(s) encerrados antes de {} movidos para o arquivo", total, corte);
+        }
+        return total;
+    }
+
+    private int gravarSegmento(List<RegistroArquivado> registros) {
+        long numero = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(numero), 0) + 1 FROM arquivo_segmento", Long.class);
+        Path arquivo = arquivoService.caminho(numero);
+        try {
+            SegmentoPedidos.escrever(arquivo, registros);
+            // Publicado antes do commit: até lá o pedido está nos dois lados e a mescla mostra uma vez só
+            arquivoService.publicar(SegmentoPedidos.abrir(numero, arquivo));
+        } catch (IOException e) {
+            apagar(arquivo);
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int apagados = 0;
+                for (int inicio = 0; inicio < registros.size(); inicio += TAMANHO_BLOCO_DELETE) {
+                    List<RegistroArquivado> bloco = registros.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_DELETE, registros.size()));
+                    apagados += jdbcTemplate.update("DELETE FROM pedido_aluguel WHERE id IN (" +
+                            String.join(",", Collections.nCopies(bloco.size(), "?")) + ") " +
+                            "AND status IN ('APROVADO', 'REJEITADO', 'CANCELADO')",
+                        bloco.stream().map(RegistroArquivado::id).toArray());
+                }
+                if (apagados != registros.size()) {
+                    throw new RuntimeException("Pedidos alterados durante o arquivamento; o lote será refeito na próxima execução.");
+                }
+                jdbcTemplate.update("INSERT INTO arquivo_segmento (numero, pedidos, arquivado_em) VALUES (?, ?, ?)",
+                    numero, registros.size(), LocalDateTime.now());
+
+                Map<Long, Double> aprovadoPorCliente = new HashMap<>();
+                Map<Long, List<Long>> aprovadosPorAutomovel = new HashMap<>();
+                for (RegistroArquivado registro : registros) {
+                    boolean aprovado = registro.status() == PedidoAluguel.PedidoStatus.APROVADO;
+                    aprovadoPorCliente.merge(registro.clienteId(), aprovado ? registro.valorTotal() : 0.0, Double::sum);
+                    if (aprovado) {
+                        aprovadosPorAutomovel.computeIfAbsent(registro.automovelId(), id -> new ArrayList<>()).add(registro.id());
+                    }
+                }
+                aprovadoPorCliente.forEach(estatisticaService::registrarArquivamento);
+                versoesService.registrarAlteracaoPedidos(aprovadoPorCliente.keySet());
+                // Só depois do commit: a vaga dos aprovados sai da agenda e a análise dos clientes é refeita
+                aprovadosPorAutomovel.forEach(disponibilidadeService::liberar);
+                analiseCreditoService.registrarAlteracao(aprovadoPorCliente.keySet());
+            });
+        } catch (RuntimeException e) {
+            arquivoService.remover(numero);
+            apagar(arquivo);
+            throw e;
+        }
+        arquivados.increment(registros.size());
+        return registros.size();
+    }
+
+    // Num sistema que não apaga arquivos mapeados, o resto é removido na próxima subida
+    private void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("Não foi possível apagar {}", arquivo, e);
+        }
+    }
+
+    private RegistroArquivado registro(ResultSet rs, int linha) throws SQLException {
+        long agenteId = rs.getLong("agente_avaliador_id");
+        Long agente = rs.wasNull() ? null : agenteId;
+        return new RegistroArquivado(rs.getLong("id"), rs.getLong("cliente_id"), rs.getLong("automovel_id"), agente,
+            PedidoAluguel.PedidoStatus.valueOf(rs.getString("status")),
+            rs.getObject("data_pedido", LocalDateTime.class),
+            rs.getObject("data_retirada", LocalDateTime.class),
+            rs.getObject("data_devolucao", LocalDateTime.class),
+            rs.getDouble("valor_total"), rs.getString("nome"), rs.getString("marca"), rs.getString("modelo"),
+            rs.getString("nome_empresa"));
+    }
+}
@@ -0,0 +1,259 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.PedidoAluguel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Leitura do arquivo de pedidos encerrados (segmentos em disco, ver SegmentoPedidos). Mantém em
+// memória só o índice dos blocos, por cliente e por mês; as páginas de histórico juntam a página do
+// banco com os blocos arquivados que cabem no mesmo filtro e cursor. Um segmento só vale se estiver
+// registrado em arquivo_segmento; arquivos sem registro são restos de um arquivamento interrompido.
+@Service
+public class ArquivoPedidosService {
+    private static final Logger log = LoggerFactory.getLogger(ArquivoPedidosService.class);
+    private static final String PREFIXO = "segmento-";
+    private static final String SUFIXO = ".seg";
+
+    static final Set<PedidoAluguel.PedidoStatus> ARQUIVAVEIS =
+        EnumSet.of(PedidoAluguel.PedidoStatus.APROVADO, PedidoAluguel.PedidoStatus.REJEITADO, PedidoAluguel.PedidoStatus.CANCELADO);
+
+    // Mesma ordem das consultas de página: (dataPedido, id) decrescente
+    static final Comparator<PedidoAluguel> MAIS_RECENTE_PRIMEIRO = Comparator
+        .comparing(PedidoAluguel::getDataPedido, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+        .thenComparing(PedidoAluguel::getId)
+        .reversed();
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private final boolean habilitado;
+    private final Path diretorio;
+    private final CacheComExpiracao<ChaveBloco, List<RegistroArquivado>> blocosLidos;
+    private volatile Indice indice = Indice.de(List.of());
+
+    public ArquivoPedidosService(@Value("${rental.arquivo.habilitado:false}") boolean habilitado,
+                                 @Value("${rental.arquivo.diretorio:./data/arquivo}") String diretorio,
+                                 @Value("${rental.arquivo.cache-blocos:2000}") int capacidadeCache,
+                                 MeterRegistry meterRegistry) {
+        this.habilitado = habilitado;
+        this.diretorio = Path.of(diretorio);
+        this.blocosLidos = new CacheComExpiracao<>(capacidadeCache, Duration.ofMinutes(30));
+        Gauge.builder("pedidos.arquivados", this, s -> s.indice.pedidos()).register(meterRegistry);
+        Gauge.builder("pedidos.arquivo.segmentos", this, s -> s.indice.segmentos().size()).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void carregar() throws IOException {
+        Set<Long> confirmados = new HashSet<>(jdbcTemplate.queryForList("SELECT numero FROM arquivo_segmento", Long.class));
+        if (!habilitado) {
+            if (!confirmados.isEmpty()) {
+                log.warn("Há {} segmento(s) de arquivo registrados, mas rental.arquivo.habilitado=false: o histórico arquivado não aparece", confirmados.size());
+            }
+            return;
+        }
+        Files.createDirectories(diretorio);
+        List<SegmentoPedidos> segmentos = new ArrayList<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, PREFIXO + "*" + SUFIXO)) {
+            for (Path arquivo : arquivos) {
+                long numero = numeroDe(arquivo);
+                if (!confirmados.remove(numero)) {
+                    // Escrito por um arquivamento que não chegou ao commit: os pedidos continuam no banco
+                    log.warn("Descartando {}, sem registro em arquivo_segmento", arquivo);
+                    Files.deleteIfExists(arquivo);
+                    continue;
+                }
+                segmentos.add(SegmentoPedidos.abrir(numero, arquivo));
+            }
+        }
+        if (!confirmados.isEmpty()) {
+            log.error("Segmentos registrados no banco e ausentes em {}: {}", diretorio, confirmados);
+        }
+        indice = Indice.de(segmentos);
+        log.info("Arquivo de pedidos: {} segmento(s), {} pedido(s)", segmentos.size(), indice.pedidos());
+    }
+
+    public boolean isHabilitado() { return habilitado; }
+
+    Path caminho(long numero) {
+        return diretorio.resolve(String.format("%s%08d%s", PREFIXO, numero, SUFIXO));
+    }
+
+    synchronized void publicar(SegmentoPedidos segmento) {
+        List<SegmentoPedidos> segmentos = new ArrayList<>(indice.segmentos().values());
+        segmentos.add(segmento);
+        indice = Indice.de(segmentos);
+    }
+
+    synchronized void remover(long numero) {
+        List<SegmentoPedidos> segmentos = new ArrayList<>(indice.segmentos().values());
+        segmentos.removeIf(s -> s.getNumero() == numero);
+        indice = Indice.de(segmentos);
+    }
+
+    // Quantidade arquivada por cliente, indexada pelo ordinal do status; usada ao reconstruir os contadores
+    public Map<Long, long[]> contarPorCliente() {
+        Map<Long, long[]> contagens = new HashMap<>();
+        for (SegmentoPedidos segmento : indice.segmentos().values()) {
+            for (SegmentoPedidos.Bloco bloco : segmento.getBlocos()) {
+                long[] porStatus = contagens.computeIfAbsent(bloco.clienteId(), id -> new long[PedidoAluguel.PedidoStatus.values().length]);
+                for (int s = 0; s < bloco.porStatus().length && s < porStatus.length; s++) {
+                    porStatus[s] += bloco.porStatus()[s];
+                }
+            }
+        }
+        return contagens;
+    }
+
+    // Junta a página do banco (até "quantidade" linhas, na ordem da consulta) com os pedidos arquivados
+    // do mesmo filtro depois do cursor. Sem cliente, procura no índice por mês. Percorre os meses do
+    // mais novo para o mais antigo e para quando já tem "quantidade" pedidos: os meses seguintes são
+    // todos mais antigos. Um pedido presente nos dois lados (arquivamento em andamento) aparece uma vez.
+    public List<PedidoAluguel> mesclar(List<PedidoAluguel> doBanco, Long clienteId, PedidoAluguel.PedidoStatus status,
+                                       LocalDateTime de, LocalDateTime ate, PedidoCursor cursor, int quantidade) {
+        Indice atual = indice;
+        if (status != null && !ARQUIVAVEIS.contains(status)) {
+            return doBanco;
+        }
+        NavigableMap<YearMonth, List<SegmentoPedidos.Bloco>> porMes = clienteId == null
+            ? atual.porMes()
+            : atual.porCliente().getOrDefault(clienteId, Collections.emptyNavigableMap());
+        if (porMes.isEmpty()) {
+            return doBanco;
+        }
+        // Página cheia só com pedidos mais novos que tudo o que foi arquivado: nada a buscar
+        LocalDateTime ultimaDoBanco = doBanco.size() >= quantidade ? doBanco.get(quantidade - 1).getDataPedido() : null;
+        if (ultimaDoBanco != null && ultimaDoBanco.isAfter(maiorDataPedido(porMes))) {
+            return doBanco;
+        }
+
+        YearMonth ultimoMes = porMes.lastKey();
+        if (cursor != null && YearMonth.from(cursor.getDataPedido()).isBefore(ultimoMes)) {
+            ultimoMes = YearMonth.from(cursor.getDataPedido());
+        }
+        if (ate != null && YearMonth.from(ate.minusNanos(1)).isBefore(ultimoMes)) {
+            ultimoMes = YearMonth.from(ate.minusNanos(1));
+        }
+        YearMonth primeiroMes = de != null ? YearMonth.from(de) : porMes.firstKey();
+        if (primeiroMes.isAfter(ultimoMes)) {
+            return doBanco;
+        }
+
+        List<RegistroArquivado> encontrados = new ArrayList<>();
+        for (List<SegmentoPedidos.Bloco> blocos : porMes.subMap(primeiroMes, true, ultimoMes, true).descendingMap().values()) {
+            for (SegmentoPedidos.Bloco bloco : blocos) {
+                for (RegistroArquivado registro : ler(atual, bloco)) {
+                    if (aceita(registro, status, de, ate, cursor)) {
+                        encontrados.add(registro);
+                    }
+                }
+            }
+            if (encontrados.size() >= quantidade) {
+                break;
+            }
+        }
+        if (encontrados.isEmpty()) {
+            return doBanco;
+        }
+
+        Set<Long> ids = new HashSet<>();
+        List<PedidoAluguel> pedidos = new ArrayList<>(doBanco.size() + encontrados.size());
+        for (PedidoAluguel pedido : doBanco) {
+            ids.add(pedido.getId());
+            pedidos.add(pedido);
+        }
+        for (RegistroArquivado registro : encontrados) {
+            if (ids.add(registro.id())) {
+                pedidos.add(registro.paraPedido());
+            }
+        }
+        pedidos.sort(MAIS_RECENTE_PRIMEIRO);
+        return pedidos.size() > quantidade ? new ArrayList<>(pedidos.subList(0, quantidade)) : pedidos;
+    }
+
+    private List<RegistroArquivado> ler(Indice atual, SegmentoPedidos.Bloco bloco) {
+        return blocosLidos.buscar(new ChaveBloco(bloco.segmento(), bloco.posicao()),
+            chave -> atual.segmentos().get(bloco.segmento()).ler(bloco));
+    }
+
+    private boolean aceita(RegistroArquivado registro, PedidoAluguel.PedidoStatus status, LocalDateTime de,
+                           LocalDateTime ate, PedidoCursor cursor) {
+        LocalDateTime data = registro.dataPedido();
+        if (status != null && registro.status() != status) {
+            return false;
+        }
+        if ((de != null && data.isBefore(de)) || (ate != null && !data.isBefore(ate))) {
+            return false;
+        }
+        return cursor == null || data.isBefore(cursor.getDataPedido())
+            || (data.isEqual(cursor.getDataPedido()) && registro.id() < cursor.getId());
+    }
+
+    private LocalDateTime maiorDataPedido(NavigableMap<YearMonth, List<SegmentoPedidos.Bloco>> porMes) {
+        LocalDateTime maior = null;
+        for (SegmentoPedidos.Bloco bloco : porMes.lastEntry().getValue()) {
+            if (maior == null || bloco.maiorDataPedido().isAfter(maior)) {
+                maior = bloco.maiorDataPedido();
+            }
+        }
+        return maior;
+    }
+
+    private long numeroDe(Path arquivo) throws IOException {
+        String nome = arquivo.getFileName().toString();
+        try {
+            return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Nome de segmento inválido: " + arquivo, e);
+        }
+    }
+
+    private record ChaveBloco(long segmento, int posicao) {}
+
+    // Índice imutável; cada segmento novo gera outro (são poucos e o índice é pequeno)
+    private record Indice(Map<Long, SegmentoPedidos> segmentos,
+                          Map<Long, NavigableMap<YearMonth, List<SegmentoPedidos.Bloco>>> porCliente,
+                          NavigableMap<YearMonth, List<SegmentoPedidos.Bloco>> porMes,
+                          long pedidos) {
+
+        static Indice de(List<SegmentoPedidos> lista) {
+            Map<Long, SegmentoPedidos> segmentos = new HashMap<>();
+            Map<Long, NavigableMap<YearMonth, List<SegmentoPedidos.Bloco>>> porCliente = new HashMap<>();
+            NavigableMap<YearMonth, List<SegmentoPedidos.Bloco>> porMes = new TreeMap<>();
+            long pedidos = 0;
+            for (SegmentoPedidos segmento : lista) {
+                segmentos.put(segmento.getNumero(), segmento);
+                for (SegmentoPedidos.Bloco bloco : segmento.getBlocos()) {
+                    porCliente.computeIfAbsent(bloco.clienteId(), id -> new TreeMap<>())
+                        .computeIfAbsent(bloco.mes(), mes -> new ArrayList<>()).add(bloco);
+                    porMes.computeIfAbsent(bloco.mes(), mes -> new ArrayList<>()).add(bloco);
+                    pedidos += bloco.quantidade();
+                }
+            }
+            return new Indice(segmentos, porCliente, porMes, pedidos);
+        }
+    }
+}
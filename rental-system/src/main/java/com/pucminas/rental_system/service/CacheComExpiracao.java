@@ -0,0 +1,76 @@
+package com.pucminas.rental_system.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Cache LRU limitado por tamanho em que cada entrada expira após um tempo fixo.
+// Valores nulos não são guardados.
+public class CacheComExpiracao<K, V> {
+    private final int capacidade;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+
+    public CacheComExpiracao(int capacidade, Duration ttl) {
+        this.capacidade = capacidade;
+        this.ttlNanos = ttl.toNanos();
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> maisAntiga) {
+                return size() > CacheComExpiracao.this.capacidade;
+            }
+        };
+    }
+
+    public V buscar(K chave, Function<K, V> carregar) {
+        synchronized (this) {
+            Entrada<V> entrada = entradas.get(chave);
+            if (entrada != null && entrada.expiraEm - System.nanoTime() > 0) {
+                acertos.incrementAndGet();
+                return entrada.valor;
+            }
+        }
+        falhas.incrementAndGet();
+        // Carrega fora do lock para não bloquear outras chaves durante a consulta
+        V valor = carregar.apply(chave);
+        if (valor != null) {
+            synchronized (this) {
+                entradas.put(chave, new Entrada<>(valor, System.nanoTime() + ttlNanos));
+            }
+        }
+        return valor;
+    }
+
+    // Leitura sem carga: não conta acerto/falha
+    public synchronized V obter(K chave) {
+        Entrada<V> entrada = entradas.get(chave);
+        return entrada != null && entrada.expiraEm - System.nanoTime() > 0 ? entrada.valor : null;
+    }
+
+    public synchronized void colocar(K chave, V valor) {
+        entradas.put(chave, new Entrada<>(valor, System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized void invalidar(K chave) {
+        entradas.remove(chave);
+    }
+
+    public synchronized void invalidarSe(Predicate<V> condicao) {
+        entradas.values().removeIf(entrada -> condicao.test(entrada.valor));
+    }
+
+    public synchronized void limpar() {
+        entradas.clear();
+    }
+
+    public synchronized int getTamanho() { return entradas.size(); }
+    public long getAcertos() { return acertos.get(); }
+    public long getFalhas() { return falhas.get(); }
+
+    private record Entrada<V>(V valor, long expiraEm) {}
+}
@@ -0,0 +1,39 @@
+package com.pucminas.rental_system.service;
+
+import java.math.BigDecimal;
+
+// Preço de um automóvel para um período, em centavos
+public class Cotacao {
+    private final Long automovelId;
+    private final long dias;
+    private final long subtotalCentavos;
+    private final long descontoCentavos;
+
+    public Cotacao(Long automovelId, long dias, long subtotalCentavos, long descontoCentavos) {
+        this.automovelId = automovelId;
+        this.dias = dias;
+        this.subtotalCentavos = subtotalCentavos;
+        this.descontoCentavos = descontoCentavos;
+    }
+
+    public long getTotalCentavos() {
+        return subtotalCentavos - descontoCentavos;
+    }
+
+    public BigDecimal getTotal() {
+        return BigDecimal.valueOf(getTotalCentavos(), 2);
+    }
+
+    public BigDecimal getSubtotal() {
+        return BigDecimal.valueOf(subtotalCentavos, 2);
+    }
+
+    public BigDecimal getDesconto() {
+        return BigDecimal.valueOf(descontoCentavos, 2);
+    }
+
+    public Long getAutomovelId() { return automovelId; }
+    public long getDias() { return dias; }
+    public long getSubtotalCentavos() { return subtotalCentavos; }
+    public long getDescontoCentavos() { return descontoCentavos; }
+}
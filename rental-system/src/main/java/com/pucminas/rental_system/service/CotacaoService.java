@@ -0,0 +1,75 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Automovel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Prévia de preço sem gravar nada. O preço fica em cache por (automóvel, período); a disponibilidade
+// vem sempre do índice em memória, que já é uma consulta barata e muda a cada reserva.
+@Service
+public class CotacaoService {
+    @Autowired private PedidoAluguelService pedidoService;
+    @Autowired private PrecoService precoService;
+    @Autowired private DisponibilidadeService disponibilidadeService;
+
+    private final CacheComExpiracao<ChaveCotacao, Cotacao> cache;
+
+    public CotacaoService(@Value("${rental.cache.cotacoes.capacidade:10000}") int capacidade,
+                          @Value("${rental.cache.cotacoes.ttl:PT1M}") Duration ttl) {
+        this.cache = new CacheComExpiracao<>(capacidade, ttl);
+    }
+
+    // Sem ids, cota a frota inteira
+    public List<ResultadoCotacao> cotar(List<Long> automovelIds, String dataRetiradaStr, String dataDevolucaoStr) {
+        LocalDateTime dataRetirada = pedidoService.parseData(dataRetiradaStr);
+        LocalDateTime dataDevolucao = pedidoService.parseData(dataDevolucaoStr);
+        pedidoService.validarPeriodo(dataRetirada, dataDevolucao);
+
+        TabelaTarifas tabela = precoService.getTabela();
+        LocalDate retirada = dataRetirada.toLocalDate();
+        long dias = precoService.diasCobrados(dataRetirada, dataDevolucao);
+
+        List<Cotacao> cotacoes;
+        if (automovelIds == null || automovelIds.isEmpty()) {
+            // A frota inteira sai da tabela em uma passada; não vale ocupar o cache com ela
+            cotacoes = tabela.cotarTodos(retirada, dias);
+        } else {
+            cotacoes = new ArrayList<>(automovelIds.size());
+            for (Long automovelId : automovelIds) {
+                Cotacao cotacao = cache.buscar(new ChaveCotacao(tabela.getVersao(), automovelId, retirada, dias),
+                        chave -> calcular(tabela, chave));
+                if (cotacao != null) {
+                    cotacoes.add(cotacao);
+                }
+            }
+        }
+
+        List<ResultadoCotacao> resultados = new ArrayList<>(cotacoes.size());
+        for (Cotacao cotacao : cotacoes) {
+            resultados.add(new ResultadoCotacao(cotacao,
+                    disponibilidadeService.estaDisponivel(cotacao.getAutomovelId(), dataRetirada, dataDevolucao)));
+        }
+        return resultados;
+    }
+
+    public CacheComExpiracao<?, ?> getCache() {
+        return cache;
+    }
+
+    // Automóvel inexistente devolve null, que não é guardado no cache
+    private Cotacao calcular(TabelaTarifas tabela, ChaveCotacao chave) {
+        Automovel automovel = tabela.getFrota().buscar(chave.automovelId());
+        return automovel == null ? null : tabela.cotar(automovel, chave.retirada(), chave.dias());
+    }
+
+    // O preço depende só do dia da retirada e da quantidade de diárias, não do horário. A chave guarda
+    // a versão da tabela, não a tabela: depois de uma remontagem as entradas antigas só expiram, sem
+    // manter a tabela antiga em memória.
+    record ChaveCotacao(long versaoTabela, Long automovelId, LocalDate retirada, long dias) {}
+}
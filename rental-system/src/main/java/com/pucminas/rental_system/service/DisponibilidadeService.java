@@ -0,0 +1,173 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Automovel;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Índice em memória das reservas ativas (PENDENTE/APROVADO) de cada automóvel.
+// É carregado do banco na inicialização e atualizado a cada criação/avaliação de pedido.
+@Service
+public class DisponibilidadeService {
+
+    @Autowired private PedidoAluguelRepository pedidoRepository;
+
+    private final Map<Long, AgendaVeiculo> agendas = new ConcurrentHashMap<>();
+    // Incrementada depois de cada alteração das agendas (ETag da página de disponíveis)
+    private final AtomicLong versao = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarReservas() {
+        agendas.clear();
+        for (PedidoAluguelRepository.ReservaAtiva reserva : pedidoRepository.findReservasAtivas(
+                List.of(PedidoAluguel.PedidoStatus.PENDENTE, PedidoAluguel.PedidoStatus.APROVADO))) {
+            agenda(reserva.getAutomovelId()).adicionar(
+                    new Reserva(reserva.getId(), reserva.getDataRetirada(), reserva.getDataDevolucao()));
+        }
+        versao.incrementAndGet();
+    }
+
+    public long getVersao() {
+        return versao.get();
+    }
+
+    public boolean estaDisponivel(Long automovelId, LocalDateTime inicio, LocalDateTime fim) {
+        AgendaVeiculo agenda = agendas.get(automovelId);
+        return agenda == null || !agenda.conflita(inicio, fim);
+    }
+
+    public Set<Long> automoveisOcupados(LocalDateTime inicio, LocalDateTime fim) {
+        Set<Long> ocupados = new HashSet<>();
+        agendas.forEach((automovelId, agenda) -> {
+            if (agenda.conflita(inicio, fim)) {
+                ocupados.add(automovelId);
+            }
+        });
+        return ocupados;
+    }
+
+    public List<Automovel> filtrarDisponiveis(Collection<Automovel> automoveis, LocalDateTime inicio, LocalDateTime fim) {
+        Set<Long> ocupados = automoveisOcupados(inicio, fim);
+        return automoveis.stream().filter(a -> !ocupados.contains(a.getId())).toList();
+    }
+
+    // Verifica e registra a reserva de forma atômica. Dentro de uma transação, a reserva
+    // é desfeita se a transação não for confirmada.
+    public void reservar(PedidoAluguel pedido) {
+        Long automovelId = pedido.getAutomovel().getId();
+        Reserva reserva = new Reserva(pedido.getId(), pedido.getDataRetirada(), pedido.getDataDevolucao());
+        if (!agenda(automovelId).adicionarSeLivre(reserva)) {
+            throw new PedidoAluguelService.PedidoInvalidoException("O automóvel já está reservado neste período.");
+        }
+        versao.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        agenda(automovelId).remover(reserva.pedidoId());
+                        versao.incrementAndGet();
+                    }
+                }
+            });
+        }
+    }
+
+    // Dentro de uma transação, a vaga só é liberada depois do commit
+    public void liberar(PedidoAluguel pedido) {
+        liberar(pedido.getAutomovel().getId(), List.of(pedido.getId()));
+    }
+
+    public void liberar(Long automovelId, Collection<Long> pedidoIds) {
+        List<Long> ids = List.copyOf(pedidoIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remover(automovelId, ids);
+                }
+            });
+        } else {
+            remover(automovelId, ids);
+        }
+    }
+
+    private void remover(Long automovelId, List<Long> pedidoIds) {
+        AgendaVeiculo agenda = agenda(automovelId);
+        pedidoIds.forEach(agenda::remover);
+        versao.incrementAndGet();
+    }
+
+    private AgendaVeiculo agenda(Long automovelId) {
+        return agendas.computeIfAbsent(automovelId, id -> new AgendaVeiculo());
+    }
+
+    // Intervalo semiaberto [inicio, fim)
+    private record Reserva(Long pedidoId, LocalDateTime inicio, LocalDateTime fim) {}
+
+    // Reservas de um veículo ordenadas pelo início. A maior duração registrada limita até onde
+    // a busca precisa voltar, então a verificação de conflito é O(log n + k).
+    private static class AgendaVeiculo {
+        private static final Comparator<Reserva> ORDEM = Comparator.comparing(Reserva::inicio)
+                .thenComparing(Reserva::pedidoId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final NavigableSet<Reserva> reservas = new TreeSet<>(ORDEM);
+        private final Map<Long, Reserva> porPedido = new HashMap<>();
+        private Duration maiorDuracao = Duration.ZERO;
+
+        synchronized boolean conflita(LocalDateTime inicio, LocalDateTime fim) {
+            LocalDateTime limite = inicio.minus(maiorDuracao);
+            for (Reserva reserva : reservas.headSet(new Reserva(null, fim, null), false).descendingSet()) {
+                if (reserva.inicio().isBefore(limite)) {
+                    return false;
+                }
+                if (reserva.fim().isAfter(inicio)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized boolean adicionarSeLivre(Reserva reserva) {
+            if (conflita(reserva.inicio(), reserva.fim())) {
+                return false;
+            }
+            adicionar(reserva);
+            return true;
+        }
+
+        synchronized void adicionar(Reserva reserva) {
+            reservas.add(reserva);
+            porPedido.put(reserva.pedidoId(), reserva);
+            Duration duracao = Duration.between(reserva.inicio(), reserva.fim());
+            if (duracao.compareTo(maiorDuracao) > 0) {
+                maiorDuracao = duracao;
+            }
+        }
+
+        synchronized void remover(Long pedidoId) {
+            Reserva reserva = porPedido.remove(pedidoId);
+            if (reserva != null) {
+                reservas.remove(reserva);
+            }
+        }
+    }
+}
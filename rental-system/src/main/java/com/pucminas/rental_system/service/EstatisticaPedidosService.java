@@ -0,0 +1,170 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.EstatisticaCliente;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.repository.ClienteRepository;
+import com.pucminas.rental_system.repository.EstatisticaClienteRepository;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Contadores materializados por cliente. Os métodos registrar* participam da transação de quem
+// cria/avalia o pedido, então os contadores nunca divergem dos pedidos gravados. Os totais por
+// status são a soma dos clientes: nenhuma reserva atualiza uma linha compartilhada por todas.
+@Service
+public class EstatisticaPedidosService implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(EstatisticaPedidosService.class);
+
+    @Autowired private EstatisticaClienteRepository estatisticaClienteRepository;
+    @Autowired private PedidoAluguelRepository pedidoRepository;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private ArquivoPedidosService arquivoService;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Value("${rental.estatisticas.reconstruir:false}")
+    private boolean reconstruirNaSubida;
+
+    // Roda antes do servidor web subir, então nenhuma requisição incrementa contadores no meio da
+    // montagem. Só monta com a tabela vazia (banco novo ou recém-migrado) ou com
+    // rental.estatisticas.reconstruir=true; outro nó no mesmo banco mantém os contadores que já gravou.
+    @Override
+    public void afterSingletonsInstantiated() {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        try {
+            transacao.executeWithoutResult(status -> {
+                if (reconstruirNaSubida) {
+                    estatisticaClienteRepository.deleteAllInBatch();
+                } else if (estatisticaClienteRepository.count() > 0) {
+                    return;
+                }
+                montar();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Dois nós subindo juntos sobre a tabela vazia: a chave primária deixa só um gravar
+            log.info("Contadores de pedidos montados por outra instância");
+        }
+    }
+
+    // Recalcula tudo a partir de pedido_aluguel e do arquivo. Apaga os contadores atuais:
+    // só chamar sem pedidos sendo criados ou avaliados (testes, carga de dados)
+    @Transactional
+    public void reconstruir() {
+        estatisticaClienteRepository.deleteAllInBatch();
+        montar();
+    }
+
+    private void montar() {
+        Map<Long, EstatisticaCliente> porCliente = new HashMap<>();
+        for (Long clienteId : clienteRepository.findAllIds()) {
+            porCliente.put(clienteId, novaEstatistica(clienteId));
+        }
+        for (PedidoAluguelRepository.ClienteStatusCount contagem : pedidoRepository.countGroupByClienteAndStatus()) {
+            EstatisticaCliente estatistica = porCliente.computeIfAbsent(contagem.getClienteId(), this::novaEstatistica);
+            estatistica.somar(contagem.getStatus(), contagem.getTotal());
+            if (ativo(contagem.getStatus())) {
+                estatistica.setValorAtivo(estatistica.getValorAtivo() + contagem.getValor());
+            }
+        }
+        // Pedidos arquivados continuam nas quantidades, mas não no valor ativo
+        arquivoService.contarPorCliente().forEach((clienteId, quantidades) -> {
+            EstatisticaCliente estatistica = porCliente.computeIfAbsent(clienteId, this::novaEstatistica);
+            for (PedidoAluguel.PedidoStatus status : PedidoAluguel.PedidoStatus.values()) {
+                estatistica.somar(status, quantidades[status.ordinal()]);
+            }
+        });
+        estatisticaClienteRepository.saveAll(porCliente.values());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCriacao(Long clienteId, double valorTotal) {
+        incrementarCliente(clienteId, PedidoAluguel.PedidoStatus.PENDENTE, null, 1, valorTotal);
+    }
+
+    // Move "quantidade" pedidos do cliente de um status para outro; valorTotal é a soma dos pedidos movidos
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarMudanca(Long clienteId, PedidoAluguel.PedidoStatus de, PedidoAluguel.PedidoStatus para,
+                                 long quantidade, double valorTotal) {
+        double variacaoAtiva = (ativo(para) ? valorTotal : 0) - (ativo(de) ? valorTotal : 0);
+        incrementarCliente(clienteId, para, de, quantidade, variacaoAtiva);
+    }
+
+    // Aprovados que foram para o arquivo saem do valor ativo; as quantidades não mudam
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarArquivamento(Long clienteId, double valorAprovado) {
+        if (valorAprovado != 0) {
+            estatisticaClienteRepository.incrementar(clienteId, 0, 0, 0, 0, -valorAprovado);
+        }
+    }
+
+    public Map<PedidoAluguel.PedidoStatus, Long> contarPorStatus() {
+        EstatisticaClienteRepository.TotaisStatus totais = estatisticaClienteRepository.somarTotais();
+        Map<PedidoAluguel.PedidoStatus, Long> porStatus = new EnumMap<>(PedidoAluguel.PedidoStatus.class);
+        porStatus.put(PedidoAluguel.PedidoStatus.PENDENTE, totais.getPendentes());
+        porStatus.put(PedidoAluguel.PedidoStatus.APROVADO, totais.getAprovados());
+        porStatus.put(PedidoAluguel.PedidoStatus.REJEITADO, totais.getRejeitados());
+        porStatus.put(PedidoAluguel.PedidoStatus.CANCELADO, totais.getCancelados());
+        return porStatus;
+    }
+
+    public EstatisticaCliente buscarPorCliente(Long clienteId) {
+        return estatisticaClienteRepository.findById(clienteId).orElseGet(() -> novaEstatistica(clienteId));
+    }
+
+    private void incrementarCliente(Long clienteId, PedidoAluguel.PedidoStatus entra, PedidoAluguel.PedidoStatus sai,
+                                    long quantidade, double variacaoAtiva) {
+        EstatisticaCliente variacao = novaEstatistica(clienteId);
+        variacao.somar(entra, quantidade);
+        if (sai != null) {
+            variacao.somar(sai, -quantidade);
+        }
+        variacao.setValorAtivo(variacaoAtiva);
+        int atualizados = estatisticaClienteRepository.incrementar(clienteId, variacao.getPendentes(), variacao.getAprovados(),
+                variacao.getRejeitados(), variacao.getCancelados(), variacao.getValorAtivo());
+        if (atualizados == 0) {
+            // Cliente cadastrado depois da inicialização. Dois primeiros pedidos simultâneos (automóveis
+            // diferentes, locks diferentes) chegariam aqui juntos; a linha zerada é criada numa transação
+            // própria, quem perder a corrida ignora a chave duplicada, e os dois repetem o incremento.
+            criarLinhaZerada(clienteId);
+            estatisticaClienteRepository.incrementar(clienteId, variacao.getPendentes(), variacao.getAprovados(),
+                    variacao.getRejeitados(), variacao.getCancelados(), variacao.getValorAtivo());
+        }
+    }
+
+    private void criarLinhaZerada(Long clienteId) {
+        TransactionTemplate novaTransacao = new TransactionTemplate(transactionManager);
+        novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            novaTransacao.executeWithoutResult(status -> jdbcTemplate.update(
+                    "INSERT INTO estatistica_cliente (cliente_id, pendentes, aprovados, rejeitados, cancelados, valor_ativo) " +
+                    "VALUES (?, 0, 0, 0, 0, 0)", clienteId));
+        } catch (DuplicateKeyException e) {
+            // Criada por outra transação
+        }
+    }
+
+    private EstatisticaCliente novaEstatistica(Long clienteId) {
+        EstatisticaCliente estatistica = new EstatisticaCliente();
+        estatistica.setClienteId(clienteId);
+        return estatistica;
+    }
+
+    private boolean ativo(PedidoAluguel.PedidoStatus status) {
+        return status == PedidoAluguel.PedidoStatus.PENDENTE || status == PedidoAluguel.PedidoStatus.APROVADO;
+    }
+}
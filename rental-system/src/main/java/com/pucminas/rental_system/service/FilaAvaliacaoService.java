@@ -0,0 +1,57 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Distribui os pedidos pendentes entre os agentes. Cada agente reserva um lote por tempo limitado;
+// a reserva é gravada no próprio pedido com um UPDATE condicional, o que tem o mesmo efeito de
+// SELECT ... FOR UPDATE SKIP LOCKED (que o H2 não suporta). Reservas vencidas voltam para a fila.
+@Service
+public class FilaAvaliacaoService {
+    @Autowired private PedidoAluguelRepository pedidoRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Value("${rental.fila.reserva:PT10M}")
+    private Duration duracaoReserva;
+
+    @Value("${rental.fila.lote:10}")
+    private int tamanhoLote;
+
+    static final int MAX_TENTATIVAS = 3;
+
+    // Completa a fila do agente até o tamanho do lote. Quando outro agente leva parte dos
+    // candidatos, busca os próximos livres, até MAX_TENTATIVAS vezes.
+    public List<PedidoAluguel> reservarLote(Long agenteId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime agora = LocalDateTime.now();
+            long faltam = tamanhoLote - pedidoRepository.countByReservadoPorAndStatusAndReservadoAteGreaterThanEqual(
+                    agenteId, PedidoAluguel.PedidoStatus.PENDENTE, agora);
+            for (int tentativa = 0; faltam > 0 && tentativa < MAX_TENTATIVAS; tentativa++) {
+                List<Long> candidatos = pedidoRepository.findIdsLivresParaReserva(PedidoAluguel.PedidoStatus.PENDENTE, agora, PageRequest.of(0, (int) faltam));
+                if (candidatos.isEmpty()) {
+                    break;
+                }
+                faltam -= pedidoRepository.reservarParaAgente(candidatos, PedidoAluguel.PedidoStatus.PENDENTE, agenteId, agora.plus(duracaoReserva), agora);
+            }
+        });
+        return minhaFila(agenteId);
+    }
+
+    public List<PedidoAluguel> minhaFila(Long agenteId) {
+        return pedidoRepository.findReservadosPor(agenteId, PedidoAluguel.PedidoStatus.PENDENTE, LocalDateTime.now());
+    }
+
+    // Devolve para a fila os pedidos ainda não avaliados pelo agente
+    public int liberar(Long agenteId) {
+        Integer liberados = transactionTemplate.execute(status -> pedidoRepository.liberarReservas(agenteId, PedidoAluguel.PedidoStatus.PENDENTE));
+        return liberados == null ? 0 : liberados;
+    }
+}
@@ -0,0 +1,30 @@
+package com.pucminas.rental_system.service;
+
+// Critérios opcionais para consultar a frota; campos nulos não filtram
+public class FiltroFrota {
+    // Palavras buscadas em marca, modelo, cor, placa e matrícula
+    private String texto;
+    private String marca;
+    private Integer anoMin;
+    private Integer anoMax;
+    private Double precoMin;
+    private Double precoMax;
+
+    public boolean isVazio() {
+        return (texto == null || texto.isBlank()) && (marca == null || marca.isBlank()) && anoMin == null && anoMax == null && precoMin == null && precoMax == null;
+    }
+
+    // Getters and Setters
+    public String getTexto() { return texto; }
+    public void setTexto(String texto) { this.texto = texto; }
+    public String getMarca() { return marca; }
+    public void setMarca(String marca) { this.marca = marca; }
+    public Integer getAnoMin() { return anoMin; }
+    public void setAnoMin(Integer anoMin) { this.anoMin = anoMin; }
+    public Integer getAnoMax() { return anoMax; }
+    public void setAnoMax(Integer anoMax) { this.anoMax = anoMax; }
+    public Double getPrecoMin() { return precoMin; }
+    public void setPrecoMin(Double precoMin) { this.precoMin = precoMin; }
+    public Double getPrecoMax() { return precoMax; }
+    public void setPrecoMax(Double precoMax) { this.precoMax = precoMax; }
+}
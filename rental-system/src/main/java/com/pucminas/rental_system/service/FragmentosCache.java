@@ -0,0 +1,50 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Automovel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// HTML já renderizado de trechos compartilhados entre usuários. A chave inclui a versão do
+// automóvel (@Version), então uma alteração gera outra entrada e a antiga sai por LRU/TTL.
+@Service
+public class FragmentosCache {
+    private static final String TEMPLATE_AUTOMOVEL = "fragmentos/automovel";
+    private static final Set<String> FICHA = Set.of("ficha");
+
+    @Autowired private ITemplateEngine templateEngine;
+
+    private final CacheComExpiracao<ChaveFicha, String> fichas;
+
+    public FragmentosCache(@Value("${rental.cache.fragmentos.capacidade:50000}") int capacidade,
+                           @Value("${rental.cache.fragmentos.ttl:PT1H}") Duration ttl) {
+        this.fichas = new CacheComExpiracao<>(capacidade, ttl);
+    }
+
+    // Ficha de cada automóvel por id, para a página inserir com th:utext
+    public Map<Long, String> fichasAutomoveis(Collection<Automovel> automoveis, boolean comMatricula) {
+        Map<Long, String> html = new HashMap<>();
+        for (Automovel automovel : automoveis) {
+            ChaveFicha chave = new ChaveFicha(automovel.getId(), automovel.getVersion(), comMatricula);
+            html.put(automovel.getId(), fichas.buscar(chave, c -> renderizar(automovel, comMatricula)));
+        }
+        return html;
+    }
+
+    private String renderizar(Automovel automovel, boolean comMatricula) {
+        Context contexto = new Context(Locale.getDefault(), Map.of("automovel", automovel, "comMatricula", comMatricula));
+        return templateEngine.process(TEMPLATE_AUTOMOVEL, FICHA, contexto);
+    }
+
+    public CacheComExpiracao<?, ?> getCache() { return fichas; }
+
+    private record ChaveFicha(Long automovelId, Long versao, boolean comMatricula) {}
+}
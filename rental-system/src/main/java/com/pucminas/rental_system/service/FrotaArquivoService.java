@@ -0,0 +1,322 @@
+package com.pucminas.rental_system.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.pucminas.rental_system.model.Automovel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Importação e exportação da frota em CSV/JSON. A leitura é incremental e as linhas válidas
+// são gravadas em lotes JDBC; linhas com erro são relatadas sem interromper a carga.
+// A memória usada depende do tamanho da frota (placas/matrículas conhecidas), não do arquivo.
+@Service
+public class FrotaArquivoService {
+    public static final int TAMANHO_LOTE = 1000;
+    static final List<String> COLUNAS = List.of("matricula", "placa", "marca", "modelo", "ano", "cor", "valorAluguelDiario");
+
+    private static final String INSERT = "INSERT INTO automovel (matricula, ano, marca, modelo, placa, cor, valor_aluguel_diario, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+
+    @Autowired private FrotaService frotaService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private final JsonFactory jsonFactory = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    public ResultadoImportacao importarCsv(InputStream entrada) throws IOException {
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        Importacao importacao = new Importacao();
+        long numeroLinha = 1;
+        List<String> cabecalho = lerRegistroCsv(leitor);
+        if (cabecalho == null) {
+            throw new RuntimeException("Arquivo vazio.");
+        }
+        cabecalho = cabecalho.stream().map(c -> c.replace("\uFEFF", "").strip()).toList();
+        for (String coluna : COLUNAS) {
+            if (!cabecalho.contains(coluna)) {
+                throw new RuntimeException("Coluna obrigatória ausente no cabeçalho: " + coluna);
+            }
+        }
+        List<String> valores;
+        while ((valores = lerRegistroCsv(leitor)) != null) {
+            numeroLinha++;
+            if (valores.size() == 1 && valores.get(0).isBlank()) {
+                continue;
+            }
+            if (valores.size() != cabecalho.size()) {
+                importacao.resultado.registrarInvalido(numeroLinha,
+                        "Esperadas " + cabecalho.size() + " colunas, encontradas " + valores.size() + ".");
+                continue;
+            }
+            Map<String, String> campos = new HashMap<>();
+            for (int i = 0; i < cabecalho.size(); i++) {
+                campos.put(cabecalho.get(i), valores.get(i));
+            }
+            importacao.adicionar(numeroLinha, campos);
+        }
+        return importacao.concluir();
+    }
+
+    // Espera um array de objetos; cada objeto é lido e descartado antes do próximo
+    public ResultadoImportacao importarJson(InputStream entrada) throws IOException {
+        Importacao importacao = new Importacao();
+        try (JsonParser json = jsonFactory.createParser(entrada)) {
+            if (json.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("O JSON deve ser um array de automóveis.");
+            }
+            long numeroItem = 0;
+            try {
+                JsonToken token;
+                while ((token = json.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    numeroItem++;
+                    if (token != JsonToken.START_OBJECT) {
+                        json.skipChildren();
+                        importacao.resultado.registrarInvalido(numeroItem, "Item não é um objeto.");
+                        continue;
+                    }
+                    Map<String, String> campos = new HashMap<>();
+                    while (json.nextToken() == JsonToken.FIELD_NAME) {
+                        String nome = json.currentName();
+                        JsonToken valor = json.nextToken();
+                        if (valor.isStructStart()) {
+                            json.skipChildren();
+                        } else if (valor != JsonToken.VALUE_NULL) {
+                            campos.put(nome, json.getText());
+                        }
+                    }
+                    importacao.adicionar(numeroItem, campos);
+                }
+            } catch (JsonProcessingException e) {
+                // Depois de um erro de sintaxe não há como achar o próximo item; o que já foi lido é gravado
+                importacao.resultado.registrarInvalido(numeroItem, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+        return importacao.concluir();
+    }
+
+    public void exportarCsv(OutputStream saida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        writer.write("id," + String.join(",", COLUNAS) + "\n");
+        for (Automovel automovel : frotaService.listar()) {
+            writer.write(automovel.getId() + "," + csv(automovel.getMatricula()) + "," + csv(automovel.getPlaca()) + ","
+                    + csv(automovel.getMarca()) + "," + csv(automovel.getModelo()) + "," + automovel.getAno() + ","
+                    + csv(automovel.getCor()) + "," + automovel.getValorAluguelDiario() + "\n");
+        }
+        writer.flush();
+    }
+
+    public void exportarJson(OutputStream saida) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(saida, JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            for (Automovel automovel : frotaService.listar()) {
+                json.writeStartObject();
+                json.writeNumberField("id", automovel.getId());
+                json.writeStringField("matricula", automovel.getMatricula());
+                json.writeStringField("placa", automovel.getPlaca());
+                json.writeStringField("marca", automovel.getMarca());
+                json.writeStringField("modelo", automovel.getModelo());
+                json.writeNumberField("ano", automovel.getAno());
+                json.writeStringField("cor", automovel.getCor());
+                json.writeNumberField("valorAluguelDiario", automovel.getValorAluguelDiario());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+    }
+
+    // Estado de uma importação: chaves já vistas (banco e arquivo) e o lote ainda não gravado
+    private class Importacao {
+        final ResultadoImportacao resultado = new ResultadoImportacao();
+        final Set<String> placas = new HashSet<>();
+        final Set<String> matriculas = new HashSet<>();
+        final List<Object[]> lote = new ArrayList<>(TAMANHO_LOTE);
+        final List<Long> linhasDoLote = new ArrayList<>(TAMANHO_LOTE);
+
+        Importacao() {
+            for (Automovel automovel : frotaService.listar()) {
+                placas.add(chave(automovel.getPlaca()));
+                matriculas.add(chave(automovel.getMatricula()));
+            }
+        }
+
+        void adicionar(long linha, Map<String, String> campos) {
+            Object[] valores;
+            try {
+                valores = validar(campos);
+            } catch (RuntimeException e) {
+                resultado.registrarInvalido(linha, e.getMessage());
+                return;
+            }
+            String placa = (String) valores[4];
+            String matricula = (String) valores[0];
+            if (placas.contains(chave(placa))) {
+                resultado.registrarDuplicado(linha, "Placa já cadastrada: " + placa);
+                return;
+            }
+            if (matriculas.contains(chave(matricula))) {
+                resultado.registrarDuplicado(linha, "Matrícula já cadastrada: " + matricula);
+                return;
+            }
+            placas.add(chave(placa));
+            matriculas.add(chave(matricula));
+            lote.add(valores);
+            linhasDoLote.add(linha);
+            if (lote.size() == TAMANHO_LOTE) {
+                gravarLote();
+            }
+        }
+
+        ResultadoImportacao concluir() {
+            gravarLote();
+            if (resultado.getImportados() > 0) {
+                frotaService.recarregar();
+            }
+            return resultado;
+        }
+
+        private void gravarLote() {
+            if (lote.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, lote));
+                resultado.registrarImportados(lote.size());
+            } catch (DataAccessException e) {
+                // Um cadastro concorrente pode violar as restrições únicas; o lote é refeito linha a linha
+                for (int i = 0; i < lote.size(); i++) {
+                    try {
+                        jdbcTemplate.update(INSERT, lote.get(i));
+                        resultado.registrarImportados(1);
+                    } catch (DuplicateKeyException erroLinha) {
+                        resultado.registrarDuplicado(linhasDoLote.get(i), "Placa ou matrícula já cadastrada.");
+                    } catch (DataAccessException erroLinha) {
+                        resultado.registrarInvalido(linhasDoLote.get(i),
+                            "Erro ao gravar: " + erroLinha.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            lote.clear();
+            linhasDoLote.clear();
+        }
+    }
+
+    // Ordem dos parâmetros de INSERT
+    private static Object[] validar(Map<String, String> campos) {
+        String matricula = obrigatorio(campos, "matricula");
+        String placa = obrigatorio(campos, "placa").toUpperCase(Locale.ROOT);
+        String marca = obrigatorio(campos, "marca");
+        String modelo = obrigatorio(campos, "modelo");
+        String cor = campos.get("cor") == null || campos.get("cor").isBlank() ? null : campos.get("cor").strip();
+
+        int ano;
+        double valor;
+        try {
+            ano = Integer.parseInt(obrigatorio(campos, "ano"));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Ano inválido: " + campos.get("ano"));
+        }
+        if (ano < 1900 || ano > Year.now().getValue() + 1) {
+            throw new RuntimeException("Ano fora do intervalo permitido: " + ano);
+        }
+        try {
+            valor = Double.parseDouble(obrigatorio(campos, "valorAluguelDiario").replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Valor da diária inválido: " + campos.get("valorAluguelDiario"));
+        }
+        if (!(valor > 0)) {
+            throw new RuntimeException("O valor da diária deve ser positivo.");
+        }
+        return new Object[] {matricula, ano, marca, modelo, placa, cor, valor};
+    }
+
+    private static String obrigatorio(Map<String, String> campos, String nome) {
+        String valor = campos.get(nome);
+        if (valor == null || valor.isBlank()) {
+            throw new RuntimeException("Campo obrigatório vazio: " + nome);
+        }
+        return valor.strip();
+    }
+
+    // "ABC-1234" e "abc 1234" são a mesma placa
+    static String chave(String valor) {
+        return valor == null ? "" : IndiceFrota.normalizar(valor.replaceAll("[^\\p{L}\\p{N}]", ""));
+    }
+
+    // Um registro CSV (RFC 4180): aspas duplas delimitam campos com vírgula, aspas ou quebra de linha
+    static List<String> lerRegistroCsv(BufferedReader leitor) throws IOException {
+        String linha = leitor.readLine();
+        if (linha == null) {
+            return null;
+        }
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        while (true) {
+            for (int i = 0; i < linha.length(); i++) {
+                char c = linha.charAt(i);
+                if (entreAspas) {
+                    if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        entreAspas = false;
+                    } else {
+                        campo.append(c);
+                    }
+                } else if (c == '"') {
+                    entreAspas = true;
+                } else if (c == ',') {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else {
+                    campo.append(c);
+                }
+            }
+            if (!entreAspas) {
+                break;
+            }
+            linha = leitor.readLine();
+            if (linha == null) {
+                break;
+            }
+            campo.append('\n');
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    private static String csv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0 || valor.indexOf('\n') >= 0) {
+            return '"' + valor.replace("\"", "\"\"") + '"';
+        }
+        return valor;
+    }
+}
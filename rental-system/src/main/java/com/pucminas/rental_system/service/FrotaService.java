@@ -0,0 +1,114 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Automovel;
+import com.pucminas.rental_system.repository.AutomovelRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Catálogo da frota em memória. A primeira leitura carrega a frota do banco; depois disso
+// as leituras não consultam o banco e cada gravação feita por aqui atualiza a fotografia.
+@Service
+public class FrotaService {
+    @Autowired private AutomovelRepository automovelRepository;
+
+    private final AtomicReference<FrotaSnapshot> snapshot = new AtomicReference<>();
+    // ReentrantLock em vez de synchronized: a carga inicial consulta o banco e não deve
+    // prender a thread portadora quando as requisições rodam em threads virtuais
+    private final ReentrantLock lock = new ReentrantLock();
+    // A versão nunca volta atrás, mesmo depois de recarregar
+    private long versaoDescartada;
+
+    public FrotaSnapshot getSnapshot() {
+        FrotaSnapshot atual = snapshot.get();
+        if (atual != null) {
+            return atual;
+        }
+        lock.lock();
+        try {
+            if (snapshot.get() == null) {
+                snapshot.set(new FrotaSnapshot(versaoDescartada + 1, automovelRepository.findAll()));
+            }
+            return snapshot.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Automovel> listar() {
+        return getSnapshot().getAutomoveis();
+    }
+
+    public List<Automovel> listar(FiltroFrota filtro) {
+        return getSnapshot().filtrar(filtro);
+    }
+
+    public ResultadoBuscaFrota buscar(FiltroFrota filtro, int limite) {
+        return getSnapshot().buscar(filtro, limite);
+    }
+
+    public List<String> sugerir(String prefixo, int limite) {
+        return getSnapshot().sugerir(prefixo, limite);
+    }
+
+    public Automovel salvar(Automovel automovel) {
+        verificarDuplicado(automovel);
+        Automovel salvo;
+        try {
+            salvo = automovelRepository.save(automovel);
+        } catch (DataIntegrityViolationException e) {
+            // Cadastro simultâneo com a mesma placa ou matrícula: a restrição única do banco decide
+            throw new AutomovelDuplicadoException("Placa ou matrícula já cadastrada.");
+        }
+        lock.lock();
+        try {
+            FrotaSnapshot atual = snapshot.get();
+            if (atual != null) {
+                snapshot.set(atual.comAutomovel(salvo));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return salvo;
+    }
+
+    // Mesma comparação da importação em lote: sem pontuação e sem diferença de maiúsculas e acentos
+    private void verificarDuplicado(Automovel automovel) {
+        String placa = FrotaArquivoService.chave(automovel.getPlaca());
+        String matricula = FrotaArquivoService.chave(automovel.getMatricula());
+        for (Automovel existente : listar()) {
+            if (Objects.equals(existente.getId(), automovel.getId())) {
+                continue;
+            }
+            if (!placa.isEmpty() && placa.equals(FrotaArquivoService.chave(existente.getPlaca()))) {
+                throw new AutomovelDuplicadoException("Placa já cadastrada: " + automovel.getPlaca());
+            }
+            if (!matricula.isEmpty() && matricula.equals(FrotaArquivoService.chave(existente.getMatricula()))) {
+                throw new AutomovelDuplicadoException("Matrícula já cadastrada: " + automovel.getMatricula());
+            }
+        }
+    }
+
+    // Descarta a fotografia; a próxima leitura recarrega do banco
+    public void recarregar() {
+        lock.lock();
+        try {
+            FrotaSnapshot atual = snapshot.getAndSet(null);
+            if (atual != null) {
+                versaoDescartada = atual.getVersao();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static class AutomovelDuplicadoException extends RuntimeException {
+        public AutomovelDuplicadoException(String mensagem) {
+            super(mensagem);
+        }
+    }
+}
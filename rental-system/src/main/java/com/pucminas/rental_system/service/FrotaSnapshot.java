@@ -0,0 +1,79 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Automovel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+// Fotografia imutável da frota, compartilhada entre requisições. Cada alteração gera uma nova
+// instância com a versão incrementada; os automóveis guardados aqui não devem ser alterados.
+public final class FrotaSnapshot {
+    private final long versao;
+    private final List<Automovel> automoveis;
+    private final List<String> marcas;
+    private final Map<Long, Automovel> porId;
+    private final IndiceFrota indice;
+
+    FrotaSnapshot(long versao, List<Automovel> automoveis) {
+        List<Automovel> ordenados = new ArrayList<>(automoveis);
+        ordenados.sort(Comparator.comparing(Automovel::getId));
+        this.versao = versao;
+        this.automoveis = Collections.unmodifiableList(ordenados);
+        TreeSet<String> distintas = new TreeSet<>();
+        for (Automovel automovel : ordenados) {
+            if (automovel.getMarca() != null) {
+                distintas.add(automovel.getMarca());
+            }
+        }
+        this.marcas = List.copyOf(distintas);
+        Map<Long, Automovel> mapaPorId = new HashMap<>();
+        for (Automovel automovel : ordenados) {
+            mapaPorId.put(automovel.getId(), automovel);
+        }
+        this.porId = Collections.unmodifiableMap(mapaPorId);
+        this.indice = new IndiceFrota(this.automoveis);
+    }
+
+    FrotaSnapshot comAutomovel(Automovel alterado) {
+        List<Automovel> novos = new ArrayList<>(automoveis.size() + 1);
+        for (Automovel automovel : automoveis) {
+            if (!Objects.equals(automovel.getId(), alterado.getId())) {
+                novos.add(automovel);
+            }
+        }
+        novos.add(alterado);
+        return new FrotaSnapshot(versao + 1, novos);
+    }
+
+    public List<Automovel> filtrar(FiltroFrota filtro) {
+        if (filtro == null || filtro.isVazio()) {
+            return automoveis;
+        }
+        return indice.automoveis(indice.buscar(filtro), automoveis.size());
+    }
+
+    // Primeiros resultados do filtro, com o total e as contagens por ano e faixa de diária
+    public ResultadoBuscaFrota buscar(FiltroFrota filtro, int limite) {
+        BitSet posicoes = indice.buscar(filtro);
+        return new ResultadoBuscaFrota(indice.automoveis(posicoes, limite), posicoes.cardinality(),
+                indice.contarPorAno(posicoes), indice.contarPorFaixaPreco(posicoes));
+    }
+
+    public List<String> sugerir(String prefixo, int limite) {
+        return indice.sugerir(prefixo, limite);
+    }
+
+    public Automovel buscar(Long id) {
+        return porId.get(id);
+    }
+
+    public long getVersao() { return versao; }
+    public List<Automovel> getAutomoveis() { return automoveis; }
+    public List<String> getMarcas() { return marcas; }
+}
@@ -0,0 +1,241 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Automovel;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// Índice invertido imutável sobre a frota de uma fotografia. Cada automóvel é identificado pela
+// sua posição na lista da fotografia; os conjuntos de posições são BitSets, então os filtros se
+// combinam com AND/OR sem percorrer a frota.
+final class IndiceFrota {
+    // Limites das faixas de diária usadas como facetas
+    static final double[] FAIXAS_PRECO = {100, 150, 200, 300};
+
+    private final List<Automovel> automoveis;
+    private final NavigableMap<String, BitSet> termos = new TreeMap<>();
+    private final Map<String, String> exibicao = new HashMap<>();
+    private final Map<String, BitSet> porMarca = new HashMap<>();
+    private final NavigableMap<Integer, BitSet> porAno = new TreeMap<>();
+    // Posições ordenadas pela diária, para filtrar faixas com busca binária
+    private final int[] posicoesPorPreco;
+    private final double[] precosOrdenados;
+
+    IndiceFrota(List<Automovel> automoveis) {
+        this.automoveis = automoveis;
+        for (int i = 0; i < automoveis.size(); i++) {
+            Automovel automovel = automoveis.get(i);
+            indexar(i, automovel.getMarca());
+            indexar(i, automovel.getModelo());
+            indexar(i, automovel.getCor());
+            indexar(i, automovel.getPlaca());
+            indexar(i, automovel.getMatricula());
+            // Placa e matrícula também sem pontuação: "ABC-1234" é encontrada por "abc1234"
+            indexarCompacto(i, automovel.getPlaca());
+            indexarCompacto(i, automovel.getMatricula());
+            if (automovel.getMarca() != null) {
+                porMarca.computeIfAbsent(normalizar(automovel.getMarca()), m -> new BitSet()).set(i);
+            }
+            porAno.computeIfAbsent(automovel.getAno(), a -> new BitSet()).set(i);
+        }
+
+        Integer[] ordem = new Integer[automoveis.size()];
+        for (int i = 0; i < ordem.length; i++) {
+            ordem[i] = i;
+        }
+        Arrays.sort(ordem, Comparator.comparingDouble(i -> automoveis.get(i).getValorAluguelDiario()));
+        posicoesPorPreco = new int[ordem.length];
+        precosOrdenados = new double[ordem.length];
+        for (int i = 0; i < ordem.length; i++) {
+            posicoesPorPreco[i] = ordem[i];
+            precosOrdenados[i] = automoveis.get(ordem[i]).getValorAluguelDiario();
+        }
+    }
+
+    // Posições que atendem o filtro. Cada palavra do texto é tratada como prefixo e todas precisam casar.
+    BitSet buscar(FiltroFrota filtro) {
+        BitSet resultado = new BitSet(automoveis.size());
+        resultado.set(0, automoveis.size());
+        if (filtro == null) {
+            return resultado;
+        }
+        for (String palavra : palavras(filtro.getTexto())) {
+            resultado.and(comPrefixo(palavra));
+        }
+        if (filtro.getMarca() != null && !filtro.getMarca().isBlank()) {
+            resultado.and(porMarca.getOrDefault(normalizar(filtro.getMarca()), new BitSet()));
+        }
+        if (filtro.getAnoMin() != null || filtro.getAnoMax() != null) {
+            resultado.and(anos(filtro.getAnoMin(), filtro.getAnoMax()));
+        }
+        if (filtro.getPrecoMin() != null || filtro.getPrecoMax() != null) {
+            resultado.and(precos(filtro.getPrecoMin(), filtro.getPrecoMax()));
+        }
+        return resultado;
+    }
+
+    List<Automovel> automoveis(BitSet posicoes, int limite) {
+        List<Automovel> encontrados = new ArrayList<>(Math.min(posicoes.cardinality(), limite));
+        for (int i = posicoes.nextSetBit(0); i >= 0 && encontrados.size() < limite; i = posicoes.nextSetBit(i + 1)) {
+            encontrados.add(automoveis.get(i));
+        }
+        return encontrados;
+    }
+
+    Map<Integer, Integer> contarPorAno(BitSet posicoes) {
+        Map<Integer, Integer> contagem = new LinkedHashMap<>();
+        for (Map.Entry<Integer, BitSet> ano : porAno.descendingMap().entrySet()) {
+            int total = contarEm(posicoes, ano.getValue());
+            if (total > 0) {
+                contagem.put(ano.getKey(), total);
+            }
+        }
+        return contagem;
+    }
+
+    // Chave da faixa no formato "min-max"; a primeira começa em 0 e a última não tem máximo
+    Map<String, Integer> contarPorFaixaPreco(BitSet posicoes) {
+        Map<String, Integer> contagem = new LinkedHashMap<>();
+        double inicio = 0;
+        for (int i = 0; i <= FAIXAS_PRECO.length; i++) {
+            Double fim = i < FAIXAS_PRECO.length ? FAIXAS_PRECO[i] : null;
+            // Faixas semiabertas [inicio, fim)
+            int total = contarEm(posicoes, precos(inicio, fim == null ? null : Math.nextDown(fim)));
+            if (total > 0) {
+                contagem.put(formatar(inicio) + "-" + (fim == null ? "" : formatar(fim)), total);
+            }
+            inicio = fim == null ? inicio : fim;
+        }
+        return contagem;
+    }
+
+    // Termos que começam com o prefixo, os mais frequentes primeiro, na grafia original
+    List<String> sugerir(String prefixo, int limite) {
+        List<String> palavras = palavras(prefixo);
+        if (palavras.isEmpty()) {
+            return List.of();
+        }
+        String ultima = palavras.get(palavras.size() - 1);
+        return intervalo(ultima).entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, BitSet> e) -> -e.getValue().cardinality())
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limite)
+                .map(e -> exibicao.get(e.getKey()))
+                .toList();
+    }
+
+    private BitSet comPrefixo(String prefixo) {
+        BitSet posicoes = new BitSet(automoveis.size());
+        for (BitSet comTermo : intervalo(prefixo).values()) {
+            posicoes.or(comTermo);
+        }
+        return posicoes;
+    }
+
+    private SortedMap<String, BitSet> intervalo(String prefixo) {
+        return termos.subMap(prefixo, prefixo + Character.MAX_VALUE);
+    }
+
+    private BitSet anos(Integer minimo, Integer maximo) {
+        BitSet posicoes = new BitSet(automoveis.size());
+        int de = minimo == null ? Integer.MIN_VALUE : minimo;
+        int ate = maximo == null ? Integer.MAX_VALUE : maximo;
+        if (de <= ate) {
+            for (BitSet doAno : porAno.subMap(de, true, ate, true).values()) {
+                posicoes.or(doAno);
+            }
+        }
+        return posicoes;
+    }
+
+    private BitSet precos(Double minimo, Double maximo) {
+        int de = minimo == null ? 0 : primeiraPosicao(minimo, false);
+        int ate = maximo == null ? precosOrdenados.length : primeiraPosicao(maximo, true);
+        BitSet posicoes = new BitSet(automoveis.size());
+        for (int i = de; i < ate; i++) {
+            posicoes.set(posicoesPorPreco[i]);
+        }
+        return posicoes;
+    }
+
+    // Primeiro índice com preço >= valor (ou > valor, quando depois é true)
+    private int primeiraPosicao(double valor, boolean depois) {
+        int baixo = 0;
+        int alto = precosOrdenados.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (precosOrdenados[meio] < valor || (depois && precosOrdenados[meio] == valor)) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private void indexar(int posicao, String valor) {
+        if (valor == null) {
+            return;
+        }
+        for (String original : valor.split("[^\\p{L}\\p{N}]+")) {
+            if (!original.isEmpty()) {
+                adicionarTermo(posicao, normalizar(original), original);
+            }
+        }
+    }
+
+    private void indexarCompacto(int posicao, String valor) {
+        if (valor == null) {
+            return;
+        }
+        String compacto = valor.replaceAll("[^\\p{L}\\p{N}]", "");
+        if (!compacto.isEmpty()) {
+            adicionarTermo(posicao, normalizar(compacto), valor);
+        }
+    }
+
+    private void adicionarTermo(int posicao, String termo, String original) {
+        termos.computeIfAbsent(termo, t -> new BitSet()).set(posicao);
+        exibicao.putIfAbsent(termo, original);
+    }
+
+    private static int contarEm(BitSet posicoes, BitSet outro) {
+        BitSet intersecao = (BitSet) posicoes.clone();
+        intersecao.and(outro);
+        return intersecao.cardinality();
+    }
+
+    static List<String> palavras(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        List<String> palavras = new ArrayList<>();
+        for (String palavra : normalizar(texto).split("[^\\p{L}\\p{N}]+")) {
+            if (!palavra.isEmpty()) {
+                palavras.add(palavra);
+            }
+        }
+        return palavras;
+    }
+
+    // Minúsculas e sem acentos
+    static String normalizar(String texto) {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static String formatar(double valor) {
+        return valor == Math.rint(valor) ? String.valueOf((long) valor) : String.valueOf(valor);
+    }
+}
@@ -0,0 +1,53 @@
+package com.pucminas.rental_system.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Conjunto fixo de locks distribuídos por hash do id do veículo: reservas do mesmo carro
+// são serializadas, reservas de carros diferentes quase nunca disputam o mesmo lock.
+@Component
+public class LocksPorVeiculo {
+    private final ReentrantLock[] locks;
+
+    public LocksPorVeiculo(@Value("${rental.reservas.lock-stripes:64}") int quantidade) {
+        locks = new ReentrantLock[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T executar(Long automovelId, Supplier<T> acao) {
+        ReentrantLock lock = locks[indice(automovelId)];
+        lock.lock();
+        try {
+            return acao.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Vários veículos de uma vez (lote de pedidos). Os locks são tomados em ordem crescente e sem
+    // repetição, então dois lotes com veículos em comum não ficam esperando um pelo outro.
+    public <T> T executar(Collection<Long> automovelIds, Supplier<T> acao) {
+        int[] indices = automovelIds.stream().mapToInt(this::indice).distinct().sorted().toArray();
+        int tomados = 0;
+        try {
+            for (int indice : indices) {
+                locks[indice].lock();
+                tomados++;
+            }
+            return acao.get();
+        } finally {
+            for (int i = tomados - 1; i >= 0; i--) {
+                locks[indices[i]].unlock();
+            }
+        }
+    }
+
+    private int indice(Long automovelId) {
+        return Math.floorMod(automovelId.hashCode(), locks.length);
+    }
+}
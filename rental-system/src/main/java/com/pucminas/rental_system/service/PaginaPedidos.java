@@ -0,0 +1,18 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.PedidoAluguel;
+import java.util.List;
+
+public class PaginaPedidos {
+    private final List<PedidoAluguel> pedidos;
+    private final PedidoCursor proximoCursor;
+
+    public PaginaPedidos(List<PedidoAluguel> pedidos, PedidoCursor proximoCursor) {
+        this.pedidos = pedidos;
+        this.proximoCursor = proximoCursor;
+    }
+
+    public List<PedidoAluguel> getPedidos() { return pedidos; }
+    public PedidoCursor getProximoCursor() { return proximoCursor; }
+    public boolean isTemProxima() { return proximoCursor != null; }
+}
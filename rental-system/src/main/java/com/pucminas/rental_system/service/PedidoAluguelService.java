@@ -2,34 +2,140 @@ package com.pucminas.rental_system.service;
 
 import com.pucminas.rental_system.model.*;
 import com.pucminas.rental_system.repository.*;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
+@Timed("pedidos.servico")
 public class PedidoAluguelService {
     @Autowired private PedidoAluguelRepository pedidoRepository;
     @Autowired private ClienteRepository clienteRepository;
     @Autowired private AutomovelRepository automovelRepository;
     @Autowired private AgenteRepository agenteRepository;
+    @Autowired private DisponibilidadeService disponibilidadeService;
+    @Autowired private EstatisticaPedidosService estatisticaService;
+    @Autowired private PrecoService precoService;
+    @Autowired private VersoesService versoesService;
+    @Autowired private AnaliseCreditoService analiseCreditoService;
+    @Autowired private ArquivoPedidosService arquivoService;
+    @Autowired private LocksPorVeiculo locksPorVeiculo;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private DataSource dataSource;
+    @Autowired private MeterRegistry meterRegistry;
+
+    static final int MAX_TENTATIVAS = 3;
+    static final int TAMANHO_LOTE_AVALIACAO = 1000;
+    static final List<PedidoAluguel.PedidoStatus> STATUS_ATIVOS =
+        List.of(PedidoAluguel.PedidoStatus.PENDENTE, PedidoAluguel.PedidoStatus.APROVADO);
+
+    public static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    public LocalDateTime parseData(String data) {
+        try {
+            return LocalDateTime.parse(data, FORMATO_DATA);
+        } catch (DateTimeParseException e) {
+            throw new PedidoInvalidoException("Data inválida: " + data);
+        }
+    }
+
+    public void validarPeriodo(LocalDateTime dataRetirada, LocalDateTime dataDevolucao) {
+        // Intervalo semiaberto: retirada igual à devolução não ocuparia a agenda
+        if (!dataRetirada.isBefore(dataDevolucao)) {
+            throw new PedidoInvalidoException("A data de devolução precisa ser depois da data de retirada.");
+        }
+    }
 
     public PedidoAluguel criarPedido(Long clienteId, Long automovelId, String dataRetiradaStr, String dataDevolucaoStr) {
-        Cliente cliente = clienteRepository.findById(clienteId).orElseThrow(() -> new RuntimeException("Cliente não encontrado"));
-        Automovel automovel = automovelRepository.findById(automovelId).orElseThrow(() -> new RuntimeException("Automóvel não encontrado"));
+        PedidoAluguel pedido = locksPorVeiculo.executar(automovelId, () -> comRetentativa(() ->
+            transactionTemplate.execute(status -> reservar(clienteId, automovelId, dataRetiradaStr, dataDevolucaoStr))));
+        meterRegistry.counter("pedidos.criados").increment();
+        return pedido;
+    }
+
+    // Grava um lote de pedidos numa transação só, com um savepoint por pedido: dado inválido ou conflito
+    // de agenda desfaz apenas aquele pedido, que volta como falha na sua posição do resultado. Se a
+    // transação não puder ser confirmada (conflito de versão no commit, erro do banco), nada do lote
+    // fica gravado e os pedidos são refeitos um a um por criarPedido.
+    public List<ResultadoCriacao> criarPedidos(List<NovoPedido> novos) {
+        List<ResultadoCriacao> resultados;
+        try {
+            resultados = locksPorVeiculo.executar(novos.stream().map(NovoPedido::automovelId).toList(), () ->
+                transactionTemplate.execute(status -> {
+                    // O HibernateJpaDialect não cria savepoints; eles vão direto na conexão da transação.
+                    // Cada pedido é gravado na hora (id IDENTITY, contadores por UPDATE), então voltar ao
+                    // savepoint desfaz tudo o que ele escreveu.
+                    Connection conexao = DataSourceUtils.getConnection(dataSource);
+                    List<ResultadoCriacao> parciais = new ArrayList<>(novos.size());
+                    try {
+                        for (NovoPedido novo : novos) {
+                            Savepoint savepoint = conexao.setSavepoint();
+                            try {
+                                PedidoAluguel salvo = reservar(novo.clienteId(), novo.automovelId(), novo.dataRetirada(), novo.dataDevolucao());
+                                pedidoRepository.flush();
+                                conexao.releaseSavepoint(savepoint);
+                                parciais.add(new ResultadoCriacao(salvo.getId(), null));
+                            } catch (RuntimeException e) {
+                                conexao.rollback(savepoint);
+                                parciais.add(new ResultadoCriacao(null, e));
+                            }
+                        }
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Erro ao gravar o lote de pedidos", e);
+                    }
+                    return parciais;
+                }));
+        } catch (RuntimeException e) {
+            resultados = new ArrayList<>(novos.size());
+            for (NovoPedido novo : novos) {
+                try {
+                    resultados.add(new ResultadoCriacao(criarPedido(novo.clienteId(), novo.automovelId(),
+                            novo.dataRetirada(), novo.dataDevolucao()).getId(), null));
+                } catch (RuntimeException erro) {
+                    resultados.add(new ResultadoCriacao(null, erro));
+                }
+            }
+            return resultados;
+        }
+        meterRegistry.counter("pedidos.criados").increment(resultados.stream().filter(r -> r.erro() == null).count());
+        return resultados;
+    }
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-        LocalDateTime dataRetirada = LocalDateTime.parse(dataRetiradaStr, formatter);
-        LocalDateTime dataDevolucao = LocalDateTime.parse(dataDevolucaoStr, formatter);
+    private PedidoAluguel reservar(Long clienteId, Long automovelId, String dataRetiradaStr, String dataDevolucaoStr) {
+        Cliente cliente = clienteRepository.findById(clienteId).orElseThrow(() -> new PedidoInvalidoException("Cliente não encontrado"));
+        Automovel automovel = automovelRepository.findParaReservaById(automovelId).orElseThrow(() -> new PedidoInvalidoException("Automóvel não encontrado"));
 
-        if (dataRetirada.isAfter(dataDevolucao)) {
-            throw new RuntimeException("A data de retirada não pode ser depois da data de devolução.");
+        LocalDateTime dataRetirada = parseData(dataRetiradaStr);
+        LocalDateTime dataDevolucao = parseData(dataDevolucaoStr);
+
+        validarPeriodo(dataRetirada, dataDevolucao);
+        if (!disponibilidadeService.estaDisponivel(automovelId, dataRetirada, dataDevolucao)
+                || pedidoRepository.existsReservaConflitante(automovelId, STATUS_ATIVOS, dataRetirada, dataDevolucao)) {
+            throw new PedidoInvalidoException("O automóvel já está reservado neste período.");
         }
 
-        long dias = ChronoUnit.DAYS.between(dataRetirada.toLocalDate(), dataDevolucao.toLocalDate());
-        double valorTotal = automovel.getValorAluguelDiario() * (dias == 0 ? 1 : dias);
+        double valorTotal = precoService.cotar(automovel, dataRetirada, dataDevolucao).getTotal().doubleValue();
 
         PedidoAluguel pedido = new PedidoAluguel();
         pedido.setCliente(cliente);
@@ -40,19 +146,110 @@ public class PedidoAluguelService {
         pedido.setValorTotal(valorTotal);
         pedido.setStatus(PedidoAluguel.PedidoStatus.PENDENTE);
         
-        return pedidoRepository.save(pedido);
+        PedidoAluguel salvo = pedidoRepository.save(pedido);
+        estatisticaService.registrarCriacao(clienteId, valorTotal);
+        versoesService.registrarAlteracaoPedidos(clienteId);
+        analiseCreditoService.registrarAlteracao(List.of(clienteId));
+        // Por último: a vaga entra no índice na hora e só é devolvida se a transação inteira voltar, então
+        // num lote um savepoint desfeito depois dela deixaria a vaga presa. Um pedido concorrente para o
+        // mesmo período desfaz esta transação.
+        disponibilidadeService.reservar(salvo);
+        return salvo;
     }
     
     public PedidoAluguel avaliarPedido(Long pedidoId, Long agenteId, boolean aprovar) {
+        PedidoAluguel pedido = comRetentativa(() -> transactionTemplate.execute(status -> avaliar(pedidoId, agenteId, aprovar)));
+        contarAvaliacoes(aprovar, 1);
+        return pedido;
+    }
+
+    private void contarAvaliacoes(boolean aprovar, long quantidade) {
+        Counter.builder("pedidos.avaliados")
+            .tag("status", aprovar ? "APROVADO" : "REJEITADO")
+            .register(meterRegistry)
+            .increment(quantidade);
+    }
+
+    private PedidoAluguel avaliar(Long pedidoId, Long agenteId, boolean aprovar) {
         PedidoAluguel pedido = pedidoRepository.findById(pedidoId).orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
         Agente agente = agenteRepository.findById(agenteId).orElseThrow(() -> new RuntimeException("Agente não encontrado"));
+        // Na retentativa após conflito de versão, o pedido já pode ter sido avaliado por outro agente
+        if (pedido.getStatus() != PedidoAluguel.PedidoStatus.PENDENTE) {
+            throw new RuntimeException("Pedido já foi avaliado.");
+        }
+        if (pedido.isReservadoParaOutro(agenteId, LocalDateTime.now())) {
+            throw new RuntimeException("Pedido reservado por outro agente.");
+        }
         
+        PedidoAluguel.PedidoStatus novoStatus = aprovar ? PedidoAluguel.PedidoStatus.APROVADO : PedidoAluguel.PedidoStatus.REJEITADO;
         pedido.setAgente(agente);
-        pedido.setStatus(aprovar ? PedidoAluguel.PedidoStatus.APROVADO : PedidoAluguel.PedidoStatus.REJEITADO);
+        pedido.setStatus(novoStatus);
+        pedido.setReservadoPor(null);
+        pedido.setReservadoAte(null);
         
-        return pedidoRepository.save(pedido);
+        PedidoAluguel salvo = pedidoRepository.save(pedido);
+        if (!aprovar) {
+            disponibilidadeService.liberar(salvo);
+        }
+        estatisticaService.registrarMudanca(salvo.getCliente().getId(), PedidoAluguel.PedidoStatus.PENDENTE, novoStatus,
+                1, salvo.getValorTotal());
+        versoesService.registrarAlteracaoPedidos(salvo.getCliente().getId());
+        analiseCreditoService.registrarAlteracao(List.of(salvo.getCliente().getId()));
+        return salvo;
     }
     
+    // Aprova ou rejeita vários pedidos em uma transação, um UPDATE por bloco de ids,
+    // e informa o resultado de cada id na ordem recebida
+    public List<ResultadoAvaliacao> avaliarPedidos(List<Long> pedidoIds, Long agenteId, boolean aprovar) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(pedidoIds));
+        List<ResultadoAvaliacao> resultados = transactionTemplate.execute(status -> {
+            Agente agente = agenteRepository.findById(agenteId).orElseThrow(() -> new RuntimeException("Agente não encontrado"));
+            PedidoAluguel.PedidoStatus novoStatus = aprovar ? PedidoAluguel.PedidoStatus.APROVADO : PedidoAluguel.PedidoStatus.REJEITADO;
+
+            Map<Long, ResultadoAvaliacao.Situacao> situacoes = new HashMap<>();
+            LocalDateTime agora = LocalDateTime.now();
+            // Quantidade e valor avaliados por cliente, aplicados nos contadores uma vez por cliente
+            Map<Long, Long> quantidadePorCliente = new HashMap<>();
+            Map<Long, Double> valorPorCliente = new HashMap<>();
+            for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_LOTE_AVALIACAO) {
+                List<Long> bloco = ids.subList(inicio, Math.min(inicio + TAMANHO_LOTE_AVALIACAO, ids.size()));
+                List<Long> pendentes = new ArrayList<>();
+                for (PedidoAluguel pedido : pedidoRepository.findParaAvaliacaoByIdIn(bloco)) {
+                    if (pedido.getStatus() == PedidoAluguel.PedidoStatus.PENDENTE && pedido.isReservadoParaOutro(agenteId, agora)) {
+                        situacoes.put(pedido.getId(), ResultadoAvaliacao.Situacao.RESERVADO_POR_OUTRO);
+                    } else if (pedido.getStatus() == PedidoAluguel.PedidoStatus.PENDENTE) {
+                        pendentes.add(pedido.getId());
+                        situacoes.put(pedido.getId(), ResultadoAvaliacao.Situacao.AVALIADO);
+                        Long clienteId = pedido.getCliente().getId();
+                        quantidadePorCliente.merge(clienteId, 1L, Long::sum);
+                        valorPorCliente.merge(clienteId, pedido.getValorTotal(), Double::sum);
+                        if (!aprovar) {
+                            disponibilidadeService.liberar(pedido);
+                        }
+                    } else {
+                        situacoes.put(pedido.getId(), ResultadoAvaliacao.Situacao.JA_AVALIADO);
+                    }
+                }
+                if (!pendentes.isEmpty()) {
+                    pedidoRepository.avaliarEmLote(pendentes, PedidoAluguel.PedidoStatus.PENDENTE, agente, novoStatus);
+                }
+            }
+
+            quantidadePorCliente.forEach((clienteId, quantidade) -> estatisticaService.registrarMudanca(
+                    clienteId, PedidoAluguel.PedidoStatus.PENDENTE, novoStatus, quantidade, valorPorCliente.get(clienteId)));
+            versoesService.registrarAlteracaoPedidos(quantidadePorCliente.keySet());
+            analiseCreditoService.registrarAlteracao(quantidadePorCliente.keySet());
+
+            return ids.stream()
+                .map(id -> new ResultadoAvaliacao(id, situacoes.getOrDefault(id, ResultadoAvaliacao.Situacao.NAO_ENCONTRADO)))
+                .toList();
+        });
+        contarAvaliacoes(aprovar, resultados.stream()
+            .filter(r -> r.getSituacao() == ResultadoAvaliacao.Situacao.AVALIADO)
+            .count());
+        return resultados;
+    }
+
     public List<PedidoAluguel> findPedidosPorCliente(Cliente cliente) {
         return pedidoRepository.findByCliente(cliente);
     }
@@ -61,22 +258,121 @@ public class PedidoAluguelService {
         return pedidoRepository.findByStatus(PedidoAluguel.PedidoStatus.PENDENTE);
     }
     
+    // Pendentes na ordem dos ids informados; os que já foram avaliados ficam de fora
+    public List<PedidoAluguel> findPendentesPorIds(List<Long> ids) {
+        Map<Long, PedidoAluguel> porId = new HashMap<>();
+        for (PedidoAluguel pedido : pedidoRepository.findByIdIn(ids)) {
+            porId.put(pedido.getId(), pedido);
+        }
+        return ids.stream()
+            .map(porId::get)
+            .filter(p -> p != null && p.getStatus() == PedidoAluguel.PedidoStatus.PENDENTE)
+            .toList();
+    }
+
     public List<PedidoAluguel> findAllPedidos() {
         return pedidoRepository.findAll();
     }
 
+    // Repete a operação quando outra transação alterou a mesma versão do registro
+    private <T> T comRetentativa(Supplier<T> operacao) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return operacao.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (tentativa >= MAX_TENTATIVAS) {
+                    throw new RuntimeException("Não foi possível concluir a operação por conflito de concorrência. Tente novamente.", e);
+                }
+            }
+        }
+    }
+
+    public static final int TAMANHO_PAGINA_PADRAO = 20;
+    public static final int TAMANHO_PAGINA_MAXIMO = 500;
+
+    public PaginaPedidos buscarPagina(PedidoAluguel.PedidoStatus status, LocalDate de, LocalDate ate,
+                                      PedidoCursor cursor, int tamanho) {
+        int limite = limitarTamanho(tamanho);
+        List<PedidoAluguel> pedidos = pedidoRepository.findPagina(status, inicioDoDia(de), fimDoDia(ate),
+                cursor == null ? null : cursor.getDataPedido(), cursor == null ? null : cursor.getId(),
+                PageRequest.of(0, limite + 1));
+        return montarPagina(arquivoService.mesclar(pedidos, null, status, inicioDoDia(de), fimDoDia(ate), cursor, limite + 1), limite);
+    }
+
+    public PaginaPedidos buscarPaginaPorCliente(Cliente cliente, PedidoAluguel.PedidoStatus status, LocalDate de,
+                                                LocalDate ate, PedidoCursor cursor, int tamanho) {
+        int limite = limitarTamanho(tamanho);
+        List<PedidoAluguel> pedidos = pedidoRepository.findPaginaPorCliente(cliente, status, inicioDoDia(de), fimDoDia(ate),
+                cursor == null ? null : cursor.getDataPedido(), cursor == null ? null : cursor.getId(),
+                PageRequest.of(0, limite + 1));
+        return montarPagina(arquivoService.mesclar(pedidos, cliente.getId(), status, inicioDoDia(de), fimDoDia(ate), cursor, limite + 1),
+                limite);
+    }
+
+    // Busca um registro a mais só para saber se existe próxima página
+    private PaginaPedidos montarPagina(List<PedidoAluguel> pedidos, int limite) {
+        if (pedidos.size() <= limite) {
+            return new PaginaPedidos(pedidos, null);
+        }
+        List<PedidoAluguel> pagina = pedidos.subList(0, limite);
+        return new PaginaPedidos(pagina, PedidoCursor.depoisDe(pagina.get(limite - 1)));
+    }
+
+    private int limitarTamanho(int tamanho) {
+        return Math.max(1, Math.min(tamanho, TAMANHO_PAGINA_MAXIMO));
+    }
+
+    private LocalDateTime inicioDoDia(LocalDate data) {
+        return data == null ? null : data.atStartOfDay();
+    }
+
+    // O filtro "até" inclui o dia informado
+    private LocalDateTime fimDoDia(LocalDate data) {
+        return data == null ? null : data.plusDays(1).atStartOfDay();
+    }
+
+    // Os dashboards leem os contadores materializados em vez de agregar pedido_aluguel
+    public Map<PedidoAluguel.PedidoStatus, Long> contarPedidosPorStatus() {
+        return estatisticaService.contarPorStatus();
+    }
+
+    public Map<PedidoAluguel.PedidoStatus, Long> contarPedidosPorStatus(Cliente cliente) {
+        EstatisticaCliente estatistica = estatisticaService.buscarPorCliente(cliente.getId());
+        Map<PedidoAluguel.PedidoStatus, Long> porStatus = new EnumMap<>(PedidoAluguel.PedidoStatus.class);
+        for (PedidoAluguel.PedidoStatus status : PedidoAluguel.PedidoStatus.values()) {
+            porStatus.put(status, estatistica.getQuantidade(status));
+        }
+        return porStatus;
+    }
+
+    public List<PedidoAluguel> findPedidosRecentes(int limite) {
+        return pedidoRepository.findAllByOrderByDataPedidoDesc(PageRequest.of(0, limite));
+    }
+
+    public List<PedidoAluguel> findPedidosRecentesPorCliente(Cliente cliente, int limite) {
+        return pedidoRepository.findByClienteOrderByDataPedidoDesc(cliente, PageRequest.of(0, limite));
+    }
+
     public double calcularValorTotalPedidosAtivos(Cliente cliente) {
-        List<PedidoAluguel> pedidosAtivos = pedidoRepository.findByClienteAndStatusIn(
-            cliente, 
-            List.of(PedidoAluguel.PedidoStatus.PENDENTE, PedidoAluguel.PedidoStatus.APROVADO)
-        );
-        return pedidosAtivos.stream().mapToDouble(PedidoAluguel::getValorTotal).sum();
+        return estatisticaService.buscarPorCliente(cliente.getId()).getValorAtivo();
     }
 
     public List<PedidoAluguel> findPedidosAtivosPorCliente(Cliente cliente) {
         return pedidoRepository.findByClienteAndStatusIn(
             cliente, 
-            List.of(PedidoAluguel.PedidoStatus.PENDENTE, PedidoAluguel.PedidoStatus.APROVADO)
+            STATUS_ATIVOS
         );
     }
+
+    public record NovoPedido(Long clienteId, Long automovelId, String dataRetirada, String dataDevolucao) {}
+
+    // pedidoId quando gravou; senão, o erro daquele pedido
+    public record ResultadoCriacao(Long pedidoId, RuntimeException erro) {}
+
+    // Pedido recusado pelos dados (datas, período, cliente, automóvel, agenda); a mensagem pode ir ao usuário
+    public static class PedidoInvalidoException extends RuntimeException {
+        public PedidoInvalidoException(String mensagem) {
+            super(mensagem);
+        }
+    }
 }
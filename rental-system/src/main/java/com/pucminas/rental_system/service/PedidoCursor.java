@@ -0,0 +1,44 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.PedidoAluguel;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// Posição de paginação por chave (dataPedido, id), serializada como "<dataPedido>_<id>"
+public class PedidoCursor {
+    private final LocalDateTime dataPedido;
+    private final Long id;
+
+    public PedidoCursor(LocalDateTime dataPedido, Long id) {
+        this.dataPedido = dataPedido;
+        this.id = id;
+    }
+
+    public static PedidoCursor depoisDe(PedidoAluguel pedido) {
+        return new PedidoCursor(pedido.getDataPedido(), pedido.getId());
+    }
+
+    public static PedidoCursor parse(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        int separador = valor.lastIndexOf('_');
+        if (separador <= 0) {
+            throw new RuntimeException("Cursor de paginação inválido.");
+        }
+        try {
+            return new PedidoCursor(LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.valueOf(valor.substring(separador + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new RuntimeException("Cursor de paginação inválido.");
+        }
+    }
+
+    public LocalDateTime getDataPedido() { return dataPedido; }
+    public Long getId() { return id; }
+
+    @Override
+    public String toString() {
+        return dataPedido + "_" + id;
+    }
+}
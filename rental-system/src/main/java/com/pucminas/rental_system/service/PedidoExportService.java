@@ -0,0 +1,82 @@
+package com.pucminas.rental_system.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pucminas.rental_system.model.Cliente;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+// Exporta pedidos em blocos usando a paginação por chave: cada bloco é uma consulta curta
+// e é descartado depois de escrito, então a memória não cresce com o tamanho da tabela.
+@Service
+public class PedidoExportService {
+    public static final int TAMANHO_BLOCO = 500;
+
+    @Autowired private PedidoAluguelService pedidoService;
+
+    private final JsonFactory jsonFactory = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    public void exportarCsv(Cliente cliente, PedidoAluguel.PedidoStatus status, LocalDate de, LocalDate ate,
+                            OutputStream saida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        writer.write("id,cliente_id,automovel_id,data_pedido,data_retirada,data_devolucao,valor_total,status,agente_id\n");
+        PedidoCursor cursor = null;
+        do {
+            PaginaPedidos bloco = buscarBloco(cliente, status, de, ate, cursor);
+            for (PedidoAluguel pedido : bloco.getPedidos()) {
+                writer.write(pedido.getId() + "," + pedido.getCliente().getId() + "," + pedido.getAutomovel().getId() + ","
+                        + pedido.getDataPedido() + "," + pedido.getDataRetirada() + "," + pedido.getDataDevolucao() + ","
+                        + pedido.getValorTotal() + "," + pedido.getStatus() + ","
+                        + (pedido.getAgente() == null ? "" : pedido.getAgente().getId()) + "\n");
+            }
+            writer.flush();
+            cursor = bloco.getProximoCursor();
+        } while (cursor != null);
+    }
+
+    public void exportarJson(Cliente cliente, PedidoAluguel.PedidoStatus status, LocalDate de, LocalDate ate,
+                             OutputStream saida) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(saida, JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            PedidoCursor cursor = null;
+            do {
+                PaginaPedidos bloco = buscarBloco(cliente, status, de, ate, cursor);
+                for (PedidoAluguel pedido : bloco.getPedidos()) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", pedido.getId());
+                    json.writeNumberField("clienteId", pedido.getCliente().getId());
+                    json.writeNumberField("automovelId", pedido.getAutomovel().getId());
+                    json.writeStringField("dataPedido", String.valueOf(pedido.getDataPedido()));
+                    json.writeStringField("dataRetirada", String.valueOf(pedido.getDataRetirada()));
+                    json.writeStringField("dataDevolucao", String.valueOf(pedido.getDataDevolucao()));
+                    json.writeNumberField("valorTotal", pedido.getValorTotal());
+                    json.writeStringField("status", pedido.getStatus().name());
+                    if (pedido.getAgente() != null) {
+                        json.writeNumberField("agenteId", pedido.getAgente().getId());
+                    }
+                    json.writeEndObject();
+                }
+                json.flush();
+                cursor = bloco.getProximoCursor();
+            } while (cursor != null);
+            json.writeEndArray();
+        }
+    }
+
+    private PaginaPedidos buscarBloco(Cliente cliente, PedidoAluguel.PedidoStatus status, LocalDate de, LocalDate ate,
+                                      PedidoCursor cursor) {
+        if (cliente == null) {
+            return pedidoService.buscarPagina(status, de, ate, cursor, TAMANHO_BLOCO);
+        }
+        return pedidoService.buscarPaginaPorCliente(cliente, status, de, ate, cursor, TAMANHO_BLOCO);
+    }
+}
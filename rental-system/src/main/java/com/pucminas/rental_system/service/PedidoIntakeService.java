@@ -0,0 +1,152 @@
+package com.pucminas.rental_system.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Recebe pedidos numa fila limitada e os grava em segundo plano, liberando a thread da requisição.
+// Com a fila cheia, enviar() devolve null e o controller responde 429.
+@Service
+public class PedidoIntakeService {
+    private static final Logger log = LoggerFactory.getLogger(PedidoIntakeService.class);
+    private static final String FALHA_GRAVACAO = "Não foi possível gravar o pedido. Tente novamente.";
+
+    @Autowired private PedidoAluguelService pedidoService;
+    @Autowired private FrotaService frotaService;
+    @Autowired private DisponibilidadeService disponibilidadeService;
+
+    private final BlockingQueue<Solicitacao> fila;
+    private final int workers;
+    private final int tamanhoLote;
+    private final CacheComExpiracao<String, TicketPedido> tickets;
+    private ExecutorService executor;
+    private volatile boolean ativo;
+
+    public PedidoIntakeService(@Value("${rental.intake.capacidade:1000}") int capacidade,
+                               @Value("${rental.intake.workers:4}") int workers,
+                               @Value("${rental.intake.lote:50}") int tamanhoLote,
+                               MeterRegistry meterRegistry) {
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.workers = workers;
+        this.tamanhoLote = tamanhoLote;
+        this.tickets = new CacheComExpiracao<>(capacidade * 10, Duration.ofHours(1));
+        Gauge.builder("pedidos.intake.fila", fila, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        ativo = true;
+        executor = Executors.newFixedThreadPool(workers);
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::processar);
+        }
+    }
+
+    // Datas, automóvel e agenda em memória são conferidos antes de emitir o ticket, e a entrada inválida
+    // volta na própria requisição (PedidoInvalidoException). A confirmação no banco continua no worker.
+    public TicketPedido enviar(Long clienteId, Long automovelId, String dataRetirada, String dataDevolucao) {
+        LocalDateTime retirada = pedidoService.parseData(dataRetirada);
+        LocalDateTime devolucao = pedidoService.parseData(dataDevolucao);
+        pedidoService.validarPeriodo(retirada, devolucao);
+        if (frotaService.getSnapshot().buscar(automovelId) == null) {
+            throw new PedidoAluguelService.PedidoInvalidoException("Automóvel não encontrado");
+        }
+        if (!disponibilidadeService.estaDisponivel(automovelId, retirada, devolucao)) {
+            throw new PedidoAluguelService.PedidoInvalidoException("O automóvel já está reservado neste período.");
+        }
+
+        TicketPedido ticket = new TicketPedido(UUID.randomUUID().toString(), clienteId);
+        tickets.colocar(ticket.getId(), ticket);
+        if (!fila.offer(new Solicitacao(ticket, automovelId, dataRetirada, dataDevolucao))) {
+            tickets.invalidar(ticket.getId());
+            return null;
+        }
+        return ticket;
+    }
+
+    public TicketPedido buscarTicket(String id) {
+        return tickets.obter(id);
+    }
+
+    // Cada worker retira da fila um lote de solicitações por vez e o grava numa transação só
+    // (PedidoAluguelService.criarPedidos); um conflito de agenda desfaz apenas o pedido afetado.
+    private void processar() {
+        List<Solicitacao> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Solicitacao primeira = fila.poll(500, TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                lote.add(primeira);
+                fila.drainTo(lote, tamanhoLote - 1);
+                gravar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void gravar(List<Solicitacao> lote) {
+        try {
+            List<PedidoAluguelService.ResultadoCriacao> resultados = pedidoService.criarPedidos(lote.stream()
+                    .map(s -> new PedidoAluguelService.NovoPedido(s.ticket().getClienteId(), s.automovelId(),
+                            s.dataRetirada(), s.dataDevolucao()))
+                    .toList());
+            for (int i = 0; i < lote.size(); i++) {
+                TicketPedido ticket = lote.get(i).ticket();
+                PedidoAluguelService.ResultadoCriacao resultado = resultados.get(i);
+                if (resultado.erro() == null) {
+                    ticket.concluir(resultado.pedidoId());
+                } else if (resultado.erro() instanceof PedidoAluguelService.PedidoInvalidoException) {
+                    ticket.falhar(resultado.erro().getMessage());
+                } else {
+                    // Mensagens de banco e de infraestrutura ficam no log, não no ticket
+                    log.warn("Falha ao gravar pedido do ticket {}", ticket.getId(), resultado.erro());
+                    ticket.falhar(FALHA_GRAVACAO);
+                }
+            }
+        } catch (Throwable e) {
+            // Um Error que escapasse encerraria o worker em silêncio e a fila deixaria de andar
+            log.error("Erro inesperado ao gravar lote de {} pedido(s)", lote.size(), e);
+            for (Solicitacao solicitacao : lote) {
+                solicitacao.ticket().falhar(FALHA_GRAVACAO);
+            }
+        }
+    }
+
+    // Para de aceitar e espera os workers esvaziarem a fila; depois de 30 s, interrompe o que sobrou
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        if (executor != null) {
+            executor.shutdown();
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Fila de pedidos não esvaziou em 30 s; {} solicitação(ões) descartada(s)", fila.size());
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private record Solicitacao(TicketPedido ticket, Long automovelId, String dataRetirada, String dataDevolucao) {}
+}
@@ -0,0 +1,83 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Automovel;
+import com.pucminas.rental_system.model.RegraPreco;
+import com.pucminas.rental_system.repository.RegraPrecoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Cotação de aluguéis a partir da tabela de tarifas pré-calculada. A tabela é montada sobre a
+// fotografia da frota; quando a fotografia muda, a nova tabela recalcula só os automóveis alterados.
+// A montagem completa só acontece na primeira leitura e quando o início do horizonte já ficou para trás.
+// As regras de preço não têm tela de cadastro: são lidas de regra_preco uma vez, na primeira montagem,
+// e alterações feitas direto no banco só valem depois de reiniciar a aplicação.
+@Service
+public class PrecoService {
+    @Autowired private FrotaService frotaService;
+    @Autowired private RegraPrecoRepository regraPrecoRepository;
+
+    @Value("${rental.preco.dias-passados:30}")
+    private int diasPassados;
+
+    @Value("${rental.preco.horizonte-dias:730}")
+    private int horizonteDias;
+
+    private final AtomicReference<TabelaTarifas> tabela = new AtomicReference<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Lidas na primeira montagem; só mudam sob o lock
+    private List<RegraPreco> regras;
+    // Numera as tabelas montadas; só muda sob o lock
+    private long versaoTabela;
+
+    public TabelaTarifas getTabela() {
+        FrotaSnapshot frota = frotaService.getSnapshot();
+        TabelaTarifas atual = tabela.get();
+        if (atual != null && atual.getFrota() == frota) {
+            return atual;
+        }
+        lock.lock();
+        try {
+            atual = tabela.get();
+            LocalDate inicio = LocalDate.now().minusDays(diasPassados);
+            if (atual != null && atual.getFrota() != frota && atual.getInicio().equals(inicio)) {
+                atual = atual.comFrota(++versaoTabela, frota);
+                tabela.set(atual);
+            } else if (atual == null || atual.getFrota() != frota) {
+                if (regras == null) {
+                    regras = List.copyOf(regraPrecoRepository.findAllByOrderByIdAsc());
+                }
+                atual = new TabelaTarifas(++versaoTabela, frota, regras, inicio, diasPassados + horizonteDias);
+                tabela.set(atual);
+            }
+            return atual;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Cotacao cotar(Automovel automovel, LocalDateTime retirada, LocalDateTime devolucao) {
+        return getTabela().cotar(automovel, retirada.toLocalDate(), diasCobrados(retirada, devolucao));
+    }
+
+    public List<Cotacao> cotarFrota(LocalDateTime retirada, LocalDateTime devolucao) {
+        return getTabela().cotarTodos(retirada.toLocalDate(), diasCobrados(retirada, devolucao));
+    }
+
+    // Versão da tabela que cota agora: muda com a frota e com o avanço do horizonte
+    public long getVersao() {
+        return getTabela().getVersao();
+    }
+
+    // Dias de calendário entre retirada e devolução; devolução no mesmo dia cobra uma diária
+    public long diasCobrados(LocalDateTime retirada, LocalDateTime devolucao) {
+        long dias = ChronoUnit.DAYS.between(retirada.toLocalDate(), devolucao.toLocalDate());
+        return dias == 0 ? 1 : dias;
+    }
+}
@@ -0,0 +1,43 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Agente;
+import com.pucminas.rental_system.model.Automovel;
+import com.pucminas.rental_system.model.Cliente;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import java.time.LocalDateTime;
+
+// Pedido encerrado guardado num segmento de arquivo. Leva junto os nomes que as páginas de
+// histórico mostram, para não depender de cliente, automóvel e agente no banco.
+public record RegistroArquivado(long id, long clienteId, long automovelId, Long agenteId, PedidoAluguel.PedidoStatus status,
+                                LocalDateTime dataPedido, LocalDateTime dataRetirada, LocalDateTime dataDevolucao,
+                                double valorTotal, String clienteNome, String marca, String modelo, String agenteNomeEmpresa) {
+
+    // Objetos só para exibição: nunca são gravados
+    public PedidoAluguel paraPedido() {
+        Cliente cliente = new Cliente();
+        cliente.setId(clienteId);
+        cliente.setNome(clienteNome);
+        Automovel automovel = new Automovel();
+        automovel.setId(automovelId);
+        automovel.setMarca(marca);
+        automovel.setModelo(modelo);
+
+        PedidoAluguel pedido = new PedidoAluguel();
+        pedido.setId(id);
+        pedido.setCliente(cliente);
+        pedido.setAutomovel(automovel);
+        if (agenteId != null) {
+            Agente agente = new Agente();
+            agente.setId(agenteId);
+            agente.setNomeEmpresa(agenteNomeEmpresa);
+            pedido.setAgente(agente);
+        }
+        pedido.setStatus(status);
+        pedido.setDataPedido(dataPedido);
+        pedido.setDataRetirada(dataRetirada);
+        pedido.setDataDevolucao(dataDevolucao);
+        pedido.setValorTotal(valorTotal);
+        pedido.setArquivado(true);
+        return pedido;
+    }
+}
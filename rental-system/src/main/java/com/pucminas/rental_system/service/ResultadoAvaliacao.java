@@ -0,0 +1,18 @@
+package com.pucminas.rental_system.service;
+
+public class ResultadoAvaliacao {
+    public enum Situacao {
+        AVALIADO, NAO_ENCONTRADO, JA_AVALIADO, RESERVADO_POR_OUTRO
+    }
+
+    private final Long pedidoId;
+    private final Situacao situacao;
+
+    public ResultadoAvaliacao(Long pedidoId, Situacao situacao) {
+        this.pedidoId = pedidoId;
+        this.situacao = situacao;
+    }
+
+    public Long getPedidoId() { return pedidoId; }
+    public Situacao getSituacao() { return situacao; }
+}
@@ -0,0 +1,26 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Automovel;
+import java.util.List;
+import java.util.Map;
+
+// Página de uma busca na frota com as facetas calculadas sobre todos os resultados
+public class ResultadoBuscaFrota {
+    private final List<Automovel> automoveis;
+    private final int total;
+    private final Map<Integer, Integer> porAno;
+    private final Map<String, Integer> porFaixaPreco;
+
+    public ResultadoBuscaFrota(List<Automovel> automoveis, int total, Map<Integer, Integer> porAno,
+                               Map<String, Integer> porFaixaPreco) {
+        this.automoveis = automoveis;
+        this.total = total;
+        this.porAno = porAno;
+        this.porFaixaPreco = porFaixaPreco;
+    }
+
+    public List<Automovel> getAutomoveis() { return automoveis; }
+    public int getTotal() { return total; }
+    public Map<Integer, Integer> getPorAno() { return porAno; }
+    public Map<String, Integer> getPorFaixaPreco() { return porFaixaPreco; }
+}
@@ -0,0 +1,15 @@
+package com.pucminas.rental_system.service;
+
+// Cotação de um automóvel junto com a disponibilidade no período pedido
+public class ResultadoCotacao {
+    private final Cotacao cotacao;
+    private final boolean disponivel;
+
+    public ResultadoCotacao(Cotacao cotacao, boolean disponivel) {
+        this.cotacao = cotacao;
+        this.disponivel = disponivel;
+    }
+
+    public Cotacao getCotacao() { return cotacao; }
+    public boolean isDisponivel() { return disponivel; }
+}
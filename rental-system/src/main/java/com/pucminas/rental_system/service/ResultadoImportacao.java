@@ -0,0 +1,43 @@
+package com.pucminas.rental_system.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Resumo de uma importação da frota. Só os primeiros erros são detalhados, para que um
+// arquivo inteiro inválido não ocupe memória proporcional ao seu tamanho.
+public class ResultadoImportacao {
+    public static final int MAX_ERROS_DETALHADOS = 1000;
+
+    public record ErroLinha(long linha, String mensagem) {}
+
+    private long importados;
+    private long duplicados;
+    private long invalidos;
+    private final List<ErroLinha> erros = new ArrayList<>();
+
+    void registrarImportados(int quantidade) {
+        importados += quantidade;
+    }
+
+    void registrarDuplicado(long linha, String mensagem) {
+        duplicados++;
+        adicionarErro(linha, mensagem);
+    }
+
+    void registrarInvalido(long linha, String mensagem) {
+        invalidos++;
+        adicionarErro(linha, mensagem);
+    }
+
+    private void adicionarErro(long linha, String mensagem) {
+        if (erros.size() < MAX_ERROS_DETALHADOS) {
+            erros.add(new ErroLinha(linha, mensagem));
+        }
+    }
+
+    public long getImportados() { return importados; }
+    public long getDuplicados() { return duplicados; }
+    public long getInvalidos() { return invalidos; }
+    public List<ErroLinha> getErros() { return Collections.unmodifiableList(erros); }
+}
@@ -0,0 +1,254 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.PedidoAluguel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Segmento do arquivo de pedidos, imutável depois de escrito:
+//   "RSEG" | versão | blocos Deflate | índice | posição do índice | "RSEG"
+// Cada bloco guarda os pedidos de um cliente num mês (pela data do pedido), em ordem de data e id.
+// O índice traz, por bloco, cliente, mês, posição, tamanhos, quantidade por status e a maior data
+// do pedido: contagens e escolha de blocos saem dele, sem descomprimir nada. A leitura é feita
+// sobre o arquivo mapeado em memória; só os blocos consultados são descomprimidos.
+class SegmentoPedidos {
+    static final int MAGICO = 0x52534547;
+    static final int VERSAO = 1;
+    private static final int RODAPE = Long.BYTES + Integer.BYTES;
+
+    private final long numero;
+    private final MappedByteBuffer dados;
+    private final List<Bloco> blocos;
+
+    record Bloco(long segmento, long clienteId, YearMonth mes, int posicao, int tamanho, int tamanhoOriginal,
+                 int[] porStatus, LocalDateTime maiorDataPedido) {
+        int quantidade() {
+            int total = 0;
+            for (int quantidade : porStatus) {
+                total += quantidade;
+            }
+            return total;
+        }
+    }
+
+    private SegmentoPedidos(long numero, MappedByteBuffer dados, List<Bloco> blocos) {
+        this.numero = numero;
+        this.dados = dados;
+        this.blocos = blocos;
+    }
+
+    // Os registros precisam vir ordenados por cliente, data do pedido e id; o arquivo vai para o disco (force) antes de retornar
+    static void escrever(Path arquivo, List<RegistroArquivado> registros) throws IOException {
+        List<Bloco> blocos = new ArrayList<>();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            escreverTudo(canal, ByteBuffer.allocate(2 * Integer.BYTES).putInt(MAGICO).putInt(VERSAO).flip());
+            int inicio = 0;
+            while (inicio < registros.size()) {
+                RegistroArquivado primeiro = registros.get(inicio);
+                YearMonth mes = YearMonth.from(primeiro.dataPedido());
+                int fim = inicio;
+                while (fim < registros.size() && registros.get(fim).clienteId() == primeiro.clienteId()
+                        && YearMonth.from(registros.get(fim).dataPedido()).equals(mes)) {
+                    fim++;
+                }
+                List<RegistroArquivado> doBloco = registros.subList(inicio, fim);
+                byte[] original = codificar(doBloco);
+                byte[] comprimido = comprimir(original);
+                int[] porStatus = new int[PedidoAluguel.PedidoStatus.values().length];
+                LocalDateTime maior = primeiro.dataPedido();
+                for (RegistroArquivado registro : doBloco) {
+                    porStatus[registro.status().ordinal()]++;
+                    if (registro.dataPedido().isAfter(maior)) {
+                        maior = registro.dataPedido();
+                    }
+                }
+                blocos.add(new Bloco(0, primeiro.clienteId(), mes, (int) canal.position(), comprimido.length, original.length,
+                        porStatus, maior));
+                escreverTudo(canal, ByteBuffer.wrap(comprimido));
+                inicio = fim;
+            }
+
+            long posicaoIndice = canal.position();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream indice = new DataOutputStream(bytes);
+            indice.writeInt(blocos.size());
+            for (Bloco bloco : blocos) {
+                indice.writeLong(bloco.clienteId());
+                indice.writeInt(bloco.mes().getYear());
+                indice.writeInt(bloco.mes().getMonthValue());
+                indice.writeInt(bloco.posicao());
+                indice.writeInt(bloco.tamanho());
+                indice.writeInt(bloco.tamanhoOriginal());
+                indice.writeInt(bloco.porStatus().length);
+                for (int quantidade : bloco.porStatus()) {
+                    indice.writeInt(quantidade);
+                }
+                escreverData(indice, bloco.maiorDataPedido());
+            }
+            indice.writeLong(posicaoIndice);
+            indice.writeInt(MAGICO);
+            escreverTudo(canal, ByteBuffer.wrap(bytes.toByteArray()));
+            canal.force(true);
+        }
+    }
+
+    static SegmentoPedidos abrir(long numero, Path arquivo) throws IOException {
+        MappedByteBuffer dados;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < 2 * Integer.BYTES + Integer.BYTES + RODAPE || tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Segmento " + arquivo + " com tamanho inválido");
+            }
+            // O mapeamento continua válido depois que o canal é fechado
+            dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+        }
+        if (dados.getInt(0) != MAGICO || dados.getInt(Integer.BYTES) != VERSAO || dados.getInt(dados.limit() - Integer.BYTES) != MAGICO) {
+            throw new IOException("Segmento " + arquivo + " incompleto ou de versão desconhecida");
+        }
+        int posicaoIndice = (int) dados.getLong(dados.limit() - RODAPE);
+        byte[] bytes = new byte[dados.limit() - RODAPE - posicaoIndice];
+        dados.get(posicaoIndice, bytes);
+        DataInputStream indice = new DataInputStream(new ByteArrayInputStream(bytes));
+        int quantidade = indice.readInt();
+        List<Bloco> blocos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            long clienteId = indice.readLong();
+            YearMonth mes = YearMonth.of(indice.readInt(), indice.readInt());
+            int posicao = indice.readInt();
+            int tamanho = indice.readInt();
+            int tamanhoOriginal = indice.readInt();
+            int[] porStatus = new int[indice.readInt()];
+            for (int s = 0; s < porStatus.length; s++) {
+                porStatus[s] = indice.readInt();
+            }
+            blocos.add(new Bloco(numero, clienteId, mes, posicao, tamanho, tamanhoOriginal, porStatus, lerData(indice)));
+        }
+        return new SegmentoPedidos(numero, dados, List.copyOf(blocos));
+    }
+
+    List<RegistroArquivado> ler(Bloco bloco) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(dados.slice(bloco.posicao(), bloco.tamanho()));
+            byte[] original = new byte[bloco.tamanhoOriginal()];
+            int lidos = 0;
+            while (lidos < original.length && !inflater.finished()) {
+                int n = inflater.inflate(original, lidos, original.length - lidos);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                lidos += n;
+            }
+            if (lidos != original.length) {
+                throw new RuntimeException("Bloco corrompido no segmento " + numero);
+            }
+            return decodificar(bloco, original);
+        } catch (DataFormatException | IOException e) {
+            throw new RuntimeException("Bloco corrompido no segmento " + numero, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    long getNumero() { return numero; }
+    List<Bloco> getBlocos() { return blocos; }
+
+    private static byte[] codificar(List<RegistroArquivado> registros) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        for (RegistroArquivado registro : registros) {
+            saida.writeLong(registro.id());
+            saida.writeLong(registro.automovelId());
+            saida.writeBoolean(registro.agenteId() != null);
+            if (registro.agenteId() != null) {
+                saida.writeLong(registro.agenteId());
+            }
+            saida.writeUTF(registro.status().name());
+            escreverData(saida, registro.dataPedido());
+            escreverData(saida, registro.dataRetirada());
+            escreverData(saida, registro.dataDevolucao());
+            saida.writeDouble(registro.valorTotal());
+            escreverTexto(saida, registro.clienteNome());
+            escreverTexto(saida, registro.marca());
+            escreverTexto(saida, registro.modelo());
+            escreverTexto(saida, registro.agenteNomeEmpresa());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<RegistroArquivado> decodificar(Bloco bloco, byte[] original) throws IOException {
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(original));
+        List<RegistroArquivado> registros = new ArrayList<>(bloco.quantidade());
+        for (int i = 0; i < bloco.quantidade(); i++) {
+            long id = entrada.readLong();
+            long automovelId = entrada.readLong();
+            Long agenteId = entrada.readBoolean() ? entrada.readLong() : null;
+            registros.add(new RegistroArquivado(id, bloco.clienteId(), automovelId, agenteId,
+                    PedidoAluguel.PedidoStatus.valueOf(entrada.readUTF()),
+                    lerData(entrada), lerData(entrada), lerData(entrada), entrada.readDouble(),
+                    lerTexto(entrada), lerTexto(entrada), lerTexto(entrada), lerTexto(entrada)));
+        }
+        return registros;
+    }
+
+    private static byte[] comprimir(byte[] original) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(original);
+            deflater.finish();
+            ByteArrayOutputStream comprimido = new ByteArrayOutputStream(original.length / 4 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                comprimido.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return comprimido.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void escreverTudo(FileChannel canal, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    private static void escreverData(DataOutputStream saida, LocalDateTime data) throws IOException {
+        saida.writeBoolean(data != null);
+        if (data != null) {
+            saida.writeLong(data.toEpochSecond(ZoneOffset.UTC));
+            saida.writeInt(data.getNano());
+        }
+    }
+
+    private static LocalDateTime lerData(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? LocalDateTime.ofEpochSecond(entrada.readLong(), entrada.readInt(), ZoneOffset.UTC) : null;
+    }
+
+    private static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        saida.writeBoolean(texto != null);
+        if (texto != null) {
+            saida.writeUTF(texto);
+        }
+    }
+
+    private static String lerTexto(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+}
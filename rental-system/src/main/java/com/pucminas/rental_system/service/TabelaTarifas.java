@@ -0,0 +1,262 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Automovel;
+import com.pucminas.rental_system.model.RegraPreco;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Tabela imutável com a diária de cada automóvel em cada dia do horizonte, já com os ajustes
+// sazonais e de dia da semana, guardada como soma acumulada em centavos: o subtotal de qualquer
+// período dentro do horizonte é a diferença entre duas posições do vetor. A linha de um automóvel
+// depende só do id, da diária e das regras; quando a frota muda, a tabela seguinte reaproveita as
+// linhas dos automóveis cuja diária não mudou e calcula apenas as novas. Automóveis sem regra própria
+// de diária e com a mesma diária compartilham o mesmo vetor: numa frota grande há poucas diárias distintas.
+public final class TabelaTarifas {
+    private static final BigDecimal CEM = BigDecimal.valueOf(100);
+
+    private final long versao;
+    private final FrotaSnapshot frota;
+    private final LocalDate inicio;
+    private final int dias;
+    private final Map<RegraPreco.TipoRegra, List<RegraPreco>> regrasGerais;
+    private final Map<Long, Map<RegraPreco.TipoRegra, List<RegraPreco>>> regrasPorAutomovel;
+    // Fatores diários da frota, reaproveitados por todos os veículos sem regra própria de diária
+    private final BigDecimal[] fatoresGerais;
+    // Vetor acumulado de cada diária (em centavos) sobre os fatores gerais
+    private final Map<Long, long[]> acumuladosGerais;
+    private final Map<Long, TarifaVeiculo> tarifas = new LinkedHashMap<>();
+
+    TabelaTarifas(long versao, FrotaSnapshot frota, List<RegraPreco> regras, LocalDate inicio, int dias) {
+        this.versao = versao;
+        this.frota = frota;
+        this.inicio = inicio;
+        this.dias = dias;
+        this.regrasGerais = new EnumMap<>(RegraPreco.TipoRegra.class);
+        this.regrasPorAutomovel = new HashMap<>();
+        // Regras em ordem de id: quando várias do mesmo tipo valem no mesmo dia, prevalece a mais recente
+        for (RegraPreco regra : regras) {
+            Map<RegraPreco.TipoRegra, List<RegraPreco>> destino = regra.getAutomovelId() == null
+                    ? regrasGerais
+                    : regrasPorAutomovel.computeIfAbsent(regra.getAutomovelId(), id -> new EnumMap<>(RegraPreco.TipoRegra.class));
+            destino.computeIfAbsent(regra.getTipo(), tipo -> new ArrayList<>()).add(regra);
+        }
+
+        this.fatoresGerais = fatores(regrasGerais.getOrDefault(RegraPreco.TipoRegra.SAZONAL, List.of()),
+                regrasGerais.getOrDefault(RegraPreco.TipoRegra.DIA_SEMANA, List.of()));
+        this.acumuladosGerais = new HashMap<>();
+        montar(Map.of());
+    }
+
+    private TabelaTarifas(long versao, TabelaTarifas anterior, FrotaSnapshot frota) {
+        this.versao = versao;
+        this.frota = frota;
+        this.inicio = anterior.inicio;
+        this.dias = anterior.dias;
+        this.regrasGerais = anterior.regrasGerais;
+        this.regrasPorAutomovel = anterior.regrasPorAutomovel;
+        this.fatoresGerais = anterior.fatoresGerais;
+        this.acumuladosGerais = new HashMap<>(anterior.acumuladosGerais);
+        montar(anterior.tarifas);
+    }
+
+    // Mesmas regras e horizonte sobre uma nova fotografia da frota
+    TabelaTarifas comFrota(long novaVersao, FrotaSnapshot novaFrota) {
+        return new TabelaTarifas(novaVersao, this, novaFrota);
+    }
+
+    private void montar(Map<Long, TarifaVeiculo> anteriores) {
+        Set<Long> diariasGerais = new HashSet<>();
+        for (Automovel automovel : frota.getAutomoveis()) {
+            long baseCentavos = centavos(automovel.getValorAluguelDiario());
+            TarifaVeiculo tarifa = anteriores.get(automovel.getId());
+            if (tarifa == null || tarifa.baseCentavos != baseCentavos) {
+                tarifa = calcularTarifa(automovel.getId(), baseCentavos);
+            }
+            if (!temDiariaPropria(automovel.getId())) {
+                diariasGerais.add(baseCentavos);
+            }
+            tarifas.put(automovel.getId(), tarifa);
+        }
+        // Diárias que saíram da frota não seguram mais o vetor
+        acumuladosGerais.keySet().retainAll(diariasGerais);
+    }
+
+    private TarifaVeiculo calcularTarifa(Long automovelId, long baseCentavos) {
+        TarifaVeiculo tarifa = novaTarifa(automovelId, baseCentavos);
+        tarifa.acumulado = temDiariaPropria(automovelId)
+                ? acumular(baseCentavos, fatores(tarifa.sazonais, tarifa.semanais))
+                : acumuladosGerais.computeIfAbsent(baseCentavos, base -> acumular(base, fatoresGerais));
+        return tarifa;
+    }
+
+    private long[] acumular(long baseCentavos, BigDecimal[] fatores) {
+        long[] acumulado = new long[dias + 1];
+        for (int i = 0; i < dias; i++) {
+            acumulado[i + 1] = acumulado[i] + aplicar(baseCentavos, fatores[i]);
+        }
+        return acumulado;
+    }
+
+    // Vetores acumulados distintos em uso na tabela
+    int getVetores() {
+        Set<long[]> vetores = Collections.newSetFromMap(new IdentityHashMap<>());
+        tarifas.values().forEach(tarifa -> vetores.add(tarifa.acumulado));
+        return vetores.size();
+    }
+
+    // Cresce a cada tabela montada pelo PrecoService
+    public long getVersao() {
+        return versao;
+    }
+
+    FrotaSnapshot getFrota() {
+        return frota;
+    }
+
+    LocalDate getInicio() {
+        return inicio;
+    }
+
+    // Automóveis fora da tabela ou com diária alterada depois da montagem são cotados dia a dia
+    public Cotacao cotar(Automovel automovel, LocalDate retirada, long diasAluguel) {
+        long baseCentavos = centavos(automovel.getValorAluguelDiario());
+        TarifaVeiculo tarifa = tarifas.get(automovel.getId());
+        if (tarifa == null || tarifa.baseCentavos != baseCentavos) {
+            tarifa = novaTarifa(automovel.getId(), baseCentavos);
+        }
+        int posicao = posicao(retirada, diasAluguel);
+        return cotar(tarifa, retirada, posicao, diasAluguel);
+    }
+
+    // Cota o mesmo período para toda a frota; a posição no horizonte é calculada uma única vez
+    public List<Cotacao> cotarTodos(LocalDate retirada, long diasAluguel) {
+        int posicao = posicao(retirada, diasAluguel);
+        List<Cotacao> cotacoes = new ArrayList<>(tarifas.size());
+        for (TarifaVeiculo tarifa : tarifas.values()) {
+            cotacoes.add(cotar(tarifa, retirada, posicao, diasAluguel));
+        }
+        return cotacoes;
+    }
+
+    private Cotacao cotar(TarifaVeiculo tarifa, LocalDate retirada, int posicao, long diasAluguel) {
+        long subtotal;
+        if (posicao >= 0 && tarifa.acumulado != null) {
+            subtotal = tarifa.acumulado[posicao + (int) diasAluguel] - tarifa.acumulado[posicao];
+        } else {
+            subtotal = 0;
+            for (long i = 0; i < diasAluguel; i++) {
+                LocalDate dia = retirada.plusDays(i);
+                subtotal += aplicar(tarifa.baseCentavos, fator(dia, tarifa.sazonais, tarifa.semanais));
+            }
+        }
+        return new Cotacao(tarifa.automovelId, diasAluguel, subtotal, desconto(tarifa.duracao, subtotal, diasAluguel));
+    }
+
+    // Posição do período no horizonte, ou -1 se alguma parte dele estiver fora
+    private int posicao(LocalDate retirada, long diasAluguel) {
+        long deslocamento = ChronoUnit.DAYS.between(inicio, retirada);
+        if (deslocamento < 0 || deslocamento + diasAluguel > dias) {
+            return -1;
+        }
+        return (int) deslocamento;
+    }
+
+    // A regra de duração com o maior mínimo atingido; percentual negativo vira desconto
+    private long desconto(List<RegraPreco> duracao, long subtotal, long diasAluguel) {
+        RegraPreco escolhida = null;
+        for (RegraPreco regra : duracao) {
+            if (regra.getDiasMinimos() != null && regra.getDiasMinimos() <= diasAluguel
+                    && (escolhida == null || regra.getDiasMinimos() >= escolhida.getDiasMinimos())) {
+                escolhida = regra;
+            }
+        }
+        if (escolhida == null) {
+            return 0;
+        }
+        return BigDecimal.valueOf(subtotal)
+                .multiply(escolhida.getPercentual().negate())
+                .divide(CEM, 0, RoundingMode.HALF_EVEN)
+                .longValueExact();
+    }
+
+    private TarifaVeiculo novaTarifa(Long automovelId, long baseCentavos) {
+        return new TarifaVeiculo(automovelId, baseCentavos,
+                regrasDe(automovelId, RegraPreco.TipoRegra.SAZONAL),
+                regrasDe(automovelId, RegraPreco.TipoRegra.DIA_SEMANA),
+                regrasDe(automovelId, RegraPreco.TipoRegra.DURACAO));
+    }
+
+    private List<RegraPreco> regrasDe(Long automovelId, RegraPreco.TipoRegra tipo) {
+        Map<RegraPreco.TipoRegra, List<RegraPreco>> proprias = automovelId == null ? null : regrasPorAutomovel.get(automovelId);
+        if (proprias != null && proprias.containsKey(tipo)) {
+            return proprias.get(tipo);
+        }
+        return regrasGerais.getOrDefault(tipo, List.of());
+    }
+
+    private boolean temDiariaPropria(Long automovelId) {
+        Map<RegraPreco.TipoRegra, List<RegraPreco>> proprias = regrasPorAutomovel.get(automovelId);
+        return proprias != null
+                && (proprias.containsKey(RegraPreco.TipoRegra.SAZONAL) || proprias.containsKey(RegraPreco.TipoRegra.DIA_SEMANA));
+    }
+
+    private BigDecimal[] fatores(List<RegraPreco> sazonais, List<RegraPreco> semanais) {
+        BigDecimal[] fatores = new BigDecimal[dias];
+        for (int i = 0; i < dias; i++) {
+            fatores[i] = fator(inicio.plusDays(i), sazonais, semanais);
+        }
+        return fatores;
+    }
+
+    private static BigDecimal fator(LocalDate dia, List<RegraPreco> sazonais, List<RegraPreco> semanais) {
+        return multiplicador(dia, sazonais).multiply(multiplicador(dia, semanais));
+    }
+
+    private static BigDecimal multiplicador(LocalDate dia, List<RegraPreco> regras) {
+        BigDecimal percentual = BigDecimal.ZERO;
+        for (RegraPreco regra : regras) {
+            if (regra.aplicaEm(dia)) {
+                percentual = regra.getPercentual();
+            }
+        }
+        return BigDecimal.ONE.add(percentual.divide(CEM));
+    }
+
+    private static long aplicar(long baseCentavos, BigDecimal fator) {
+        return BigDecimal.valueOf(baseCentavos).multiply(fator).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    static long centavos(double valor) {
+        return BigDecimal.valueOf(valor).movePointRight(2).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    private static final class TarifaVeiculo {
+        private final Long automovelId;
+        private final long baseCentavos;
+        private final List<RegraPreco> sazonais;
+        private final List<RegraPreco> semanais;
+        private final List<RegraPreco> duracao;
+        private long[] acumulado;
+
+        TarifaVeiculo(Long automovelId, long baseCentavos, List<RegraPreco> sazonais,
+                      List<RegraPreco> semanais, List<RegraPreco> duracao) {
+            this.automovelId = automovelId;
+            this.baseCentavos = baseCentavos;
+            this.sazonais = sazonais;
+            this.semanais = semanais;
+            this.duracao = duracao;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.pucminas.rental_system.service;
+
+// Protocolo devolvido ao cliente quando o pedido entra na fila; a situação é atualizada pelo worker
+public class TicketPedido {
+    public enum Situacao {
+        NA_FILA, PENDENTE, FALHOU
+    }
+
+    private final String id;
+    private final Long clienteId;
+    private volatile Situacao situacao = Situacao.NA_FILA;
+    private volatile Long pedidoId;
+    private volatile String mensagem;
+
+    public TicketPedido(String id, Long clienteId) {
+        this.id = id;
+        this.clienteId = clienteId;
+    }
+
+    void concluir(Long pedidoId) {
+        this.pedidoId = pedidoId;
+        this.situacao = Situacao.PENDENTE;
+    }
+
+    void falhar(String mensagem) {
+        this.mensagem = mensagem;
+        this.situacao = Situacao.FALHOU;
+    }
+
+    public String getId() { return id; }
+    public Long getClienteId() { return clienteId; }
+    public Situacao getSituacao() { return situacao; }
+    public Long getPedidoId() { return pedidoId; }
+    public String getMensagem() { return mensagem; }
+}
@@ -0,0 +1,98 @@
+package com.pucminas.rental_system.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+// Token de autenticação do modo stateless (rental.auth.modo=token): "dados.assinatura" em Base64 URL,
+// onde dados = id, papel, expiração e e-mail, e a assinatura é HMAC-SHA256 com o segredo compartilhado
+// entre as instâncias. A validação não consulta banco nem sessão. No modo de sessão o bean nem é criado.
+@Service
+@ConditionalOnProperty(name = "rental.auth.modo", havingValue = "token")
+public class TokenService {
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec chave;
+    private final Duration validade;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(@Value("${rental.auth.segredo:}") String segredo,
+                        @Value("${rental.auth.validade:PT8H}") Duration validade) {
+        this(segredo, validade, Clock.systemUTC());
+    }
+
+    TokenService(String segredo, Duration validade, Clock clock) {
+        byte[] bytes;
+        if (segredo.isBlank()) {
+            // Sem segredo configurado os tokens só valem nesta instância e até ela reiniciar
+            bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+            log.warn("rental.auth.segredo não configurado; usando um segredo aleatório desta instância");
+        } else {
+            bytes = segredo.getBytes(StandardCharsets.UTF_8);
+        }
+        this.chave = new SecretKeySpec(bytes, ALGORITMO);
+        this.validade = validade;
+        this.clock = clock;
+    }
+
+    public String emitir(UsuarioAutenticado usuario) {
+        long expiracao = clock.instant().plus(validade).getEpochSecond();
+        String dados = usuario.getId() + "\n" + usuario.getRole() + "\n" + expiracao + "\n" + usuario.getUsername();
+        String dadosCodificados = BASE64.encodeToString(dados.getBytes(StandardCharsets.UTF_8));
+        return dadosCodificados + "." + BASE64.encodeToString(assinar(dadosCodificados));
+    }
+
+    // Devolve o usuário do token, ou null se a assinatura não confere, o formato é inválido ou expirou
+    public UsuarioAutenticado validar(String token) {
+        if (token == null) {
+            return null;
+        }
+        int ponto = token.indexOf('.');
+        if (ponto <= 0) {
+            return null;
+        }
+        String dadosCodificados = token.substring(0, ponto);
+        try {
+            byte[] assinatura = BASE64_DECODER.decode(token.substring(ponto + 1));
+            if (!MessageDigest.isEqual(assinatura, assinar(dadosCodificados))) {
+                return null;
+            }
+            String[] campos = new String(BASE64_DECODER.decode(dadosCodificados), StandardCharsets.UTF_8).split("\n", 4);
+            if (campos.length != 4 || Long.parseLong(campos[2]) < clock.instant().getEpochSecond()) {
+                return null;
+            }
+            return new UsuarioAutenticado(Long.valueOf(campos[0]), campos[3], "", campos[1]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public Duration getValidade() { return validade; }
+
+    private byte[] assinar(String dados) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(chave);
+            return mac.doFinal(dados.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,26 +3,38 @@ package com.pucminas.rental_system.service;
 import com.pucminas.rental_system.model.User;
 import com.pucminas.rental_system.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import java.util.Collections;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    @Autowired
+    private UsuarioCache usuarioCache;
 
     @Autowired
     private UserRepository userRepository;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email);
+        UsuarioCacheado user = usuarioCache.buscarPorEmail(email);
         if (user == null) {
             throw new UsernameNotFoundException("User not found with email: " + email);
         }
-        return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(),
-                Collections.singleton(new SimpleGrantedAuthority(user.getRole())));
+        return new UsuarioAutenticado(user.id(), user.email(), user.senha(), user.role());
+    }
+
+    // Chamado pelo Spring Security após um login válido quando o hash usa um custo antigo
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String novoHash) {
+        User user = userRepository.findByEmail(userDetails.getUsername());
+        user.setPassword(novoHash);
+        // O UsuarioCacheListener tira o usuário do cache depois do commit do UPDATE
+        return new UsuarioAutenticado(user.getId(), user.getEmail(), novoHash, user.getRole());
     }
 }
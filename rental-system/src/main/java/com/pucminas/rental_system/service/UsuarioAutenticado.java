@@ -0,0 +1,22 @@
+package com.pucminas.rental_system.service;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import java.util.Collections;
+
+// Principal da sessão: já traz o id e o papel do usuário, evitando buscá-lo de novo a cada requisição
+public class UsuarioAutenticado extends User {
+    private final Long id;
+    private final String role;
+
+    public UsuarioAutenticado(Long id, String email, String password, String role) {
+        super(email, password, Collections.singleton(new SimpleGrantedAuthority(role)));
+        this.id = id;
+        this.role = role;
+    }
+
+    public Long getId() { return id; }
+    public String getRole() { return role; }
+    public boolean isAgente() { return "ROLE_AGENTE".equals(role); }
+    public boolean isCliente() { return "ROLE_CLIENTE".equals(role); }
+}
@@ -0,0 +1,33 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+
+// Usuários por e-mail para o login. Evita o JOIN de users com cliente/agente a cada autenticação;
+// guarda só id, e-mail, papel e hash, nunca a entidade.
+@Service
+public class UsuarioCache {
+    @Autowired private UserRepository userRepository;
+
+    private final CacheComExpiracao<String, UsuarioCacheado> cache;
+
+    public UsuarioCache(@Value("${rental.cache.usuarios.capacidade:10000}") int capacidade,
+                        @Value("${rental.cache.usuarios.ttl:PT5M}") Duration ttl) {
+        this.cache = new CacheComExpiracao<>(capacidade, ttl);
+    }
+
+    public UsuarioCacheado buscarPorEmail(String email) {
+        return cache.buscar(email, chave -> UsuarioCacheado.de(userRepository.findByEmail(chave)));
+    }
+
+    // Remove por id, cobrindo também a troca de e-mail
+    public void invalidar(Long id, String email) {
+        cache.invalidar(email);
+        cache.invalidarSe(cacheado -> cacheado.id().equals(id));
+    }
+
+    public CacheComExpiracao<String, UsuarioCacheado> getCache() { return cache; }
+}
@@ -0,0 +1,37 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Qualquer alteração de usuário feita via JPA invalida a entrada correspondente no cache.
+// @PostUpdate roda no flush; a remoção espera o commit, senão um login entre o flush e o commit
+// recarregaria do banco a versão antiga e ela voltaria para o cache.
+@Component
+public class UsuarioCacheListener {
+    // O Hibernate pede este listener ao Spring enquanto monta o EntityManagerFactory, antes do
+    // UserRepository existir; sem @Lazy a criação falha e ele instancia o listener sem injeção.
+    @Lazy @Autowired private UsuarioCache usuarioCache;
+
+    @PostUpdate
+    @PostRemove
+    public void invalidar(User user) {
+        Long id = user.getId();
+        String email = user.getEmail();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    usuarioCache.invalidar(id, email);
+                }
+            });
+        } else {
+            usuarioCache.invalidar(id, email);
+        }
+    }
+}
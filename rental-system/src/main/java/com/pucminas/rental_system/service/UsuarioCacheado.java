@@ -0,0 +1,12 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.User;
+
+// O que o login precisa de um usuário. Imutável: pode ser compartilhado entre requisições e threads,
+// ao contrário da entidade, que fica presa à sessão JPA que a carregou.
+public record UsuarioCacheado(Long id, String email, String role, String senha) {
+
+    static UsuarioCacheado de(User user) {
+        return user == null ? null : new UsuarioCacheado(user.getId(), user.getEmail(), user.getRole(), user.getPassword());
+    }
+}
@@ -0,0 +1,154 @@
+package com.pucminas.rental_system.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// BCrypt com a verificação isolada num pool limitado: numa onda de logins, no máximo
+// "threads" núcleos ficam ocupados com hashes e o resto das páginas continua sendo atendido.
+// Com o pool e a fila cheios o login falha na hora (LoginSaturadoException) em vez de enfileirar.
+// Custo 0 calibra o fator de trabalho na subida para o tempo alvo; hashes com custo menor que o
+// atual são refeitos no login (upgradeEncoding + UserDetailsServiceImpl.updatePassword).
+// Com várias instâncias, fixe rental.senhas.custo para todas usarem o mesmo fator.
+@Service
+public class VerificadorSenhas implements PasswordEncoder {
+    private static final Logger log = LoggerFactory.getLogger(VerificadorSenhas.class);
+
+    static final int CUSTO_MINIMO = 10;
+    static final int CUSTO_MAXIMO = 16;
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final int custo;
+    private final ThreadPoolExecutor executor;
+    private final Duration espera;
+    private final Timer tempoVerificacao;
+    private final Counter rejeitadas;
+
+    public VerificadorSenhas(@Value("${rental.senhas.custo:0}") int custo,
+                             @Value("${rental.senhas.alvo:PT0.1S}") Duration alvo,
+                             @Value("${rental.senhas.isolar:true}") boolean isolar,
+                             @Value("${rental.senhas.threads:0}") int threads,
+                             @Value("${rental.senhas.fila:50}") int fila,
+                             @Value("${rental.senhas.espera:PT2S}") Duration espera,
+                             MeterRegistry meterRegistry) {
+        this.custo = custo > 0 ? custo : calibrar(alvo);
+        this.bcrypt = new BCryptPasswordEncoder(this.custo);
+        this.espera = espera;
+        if (isolar) {
+            int tamanho = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            AtomicInteger contador = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(fila), tarefa -> {
+                        Thread thread = new Thread(tarefa, "bcrypt-" + contador.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+            Gauge.builder("login.verificacoes.ativas", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+            Gauge.builder("login.verificacoes.fila", executor, e -> e.getQueue().size()).register(meterRegistry);
+        } else {
+            this.executor = null;
+        }
+        this.tempoVerificacao = Timer.builder("login.verificacoes")
+            .description("Tempo de CPU gasto verificando senhas")
+            .register(meterRegistry);
+        this.rejeitadas = Counter.builder("login.verificacoes.rejeitadas")
+            .description("Logins recusados com o pool de verificação cheio")
+            .register(meterRegistry);
+        log.info("BCrypt com custo {}{}", this.custo, executor == null ? "" : ", " + executor.getMaximumPoolSize() + " threads de verificação");
+    }
+
+    @Override
+    public String encode(CharSequence senha) {
+        return bcrypt.encode(senha);
+    }
+
+    @Override
+    public boolean matches(CharSequence senha, String hash) {
+        if (executor == null) {
+            return verificar(senha, hash);
+        }
+        Future<Boolean> resultado;
+        try {
+            resultado = executor.submit(() -> verificar(senha, hash));
+        } catch (RejectedExecutionException e) {
+            rejeitadas.increment();
+            throw new LoginSaturadoException();
+        }
+        try {
+            return resultado.get(espera.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            rejeitadas.increment();
+            throw new LoginSaturadoException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoginSaturadoException();
+        } catch (ExecutionException e) {
+            throw new AuthenticationServiceException("Falha ao verificar a senha.", e.getCause());
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String hash) {
+        return bcrypt.upgradeEncoding(hash);
+    }
+
+    private boolean verificar(CharSequence senha, String hash) {
+        long inicio = System.nanoTime();
+        try {
+            return bcrypt.matches(senha, hash);
+        } finally {
+            tempoVerificacao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Cada ponto de custo dobra o tempo do hash: mede o custo mínimo e sobe enquanto couber no alvo
+    static int calibrar(Duration alvo) {
+        BCryptPasswordEncoder aquecimento = new BCryptPasswordEncoder(4);
+        for (int i = 0; i < 10; i++) {
+            aquecimento.encode("aquecimento");
+        }
+        long inicio = System.nanoTime();
+        new BCryptPasswordEncoder(CUSTO_MINIMO).encode("calibracao");
+        long nanos = System.nanoTime() - inicio;
+        int custo = CUSTO_MINIMO;
+        while (custo < CUSTO_MAXIMO && nanos * 2 <= alvo.toNanos()) {
+            nanos *= 2;
+            custo++;
+        }
+        return custo;
+    }
+
+    public int getCusto() { return custo; }
+
+    @PreDestroy
+    public void encerrar() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public static class LoginSaturadoException extends AuthenticationServiceException {
+        public LoginSaturadoException() {
+            super("Muitos logins simultâneos. Tente novamente em instantes.");
+        }
+    }
+}
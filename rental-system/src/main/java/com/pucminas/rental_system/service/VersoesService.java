@@ -0,0 +1,69 @@
+package com.pucminas.rental_system.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Carimbos de versão das páginas, usados nos ETags: frota, agenda de reservas, tabela de preços e
+// pedidos de cada cliente. São contadores em memória; o id da instância entra no ETag para que
+// versões de outra instância ou de antes de um reinício nunca sejam confundidas.
+@Service
+public class VersoesService {
+    @Autowired private FrotaService frotaService;
+    @Autowired private DisponibilidadeService disponibilidadeService;
+    @Autowired private PrecoService precoService;
+
+    private final String instancia = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequencia = new AtomicLong();
+    private final Map<Long, Long> pedidosPorCliente = new ConcurrentHashMap<>();
+
+    public String getInstancia() { return instancia; }
+
+    public long versaoFrota() {
+        return frotaService.getSnapshot().getVersao();
+    }
+
+    public long versaoReservas() {
+        return disponibilidadeService.getVersao();
+    }
+
+    public long versaoPrecos() {
+        return precoService.getVersao();
+    }
+
+    public long versaoPedidos(Long clienteId) {
+        return pedidosPorCliente.getOrDefault(clienteId, 0L);
+    }
+
+    public void registrarAlteracaoPedidos(Long clienteId) {
+        registrarAlteracaoPedidos(List.of(clienteId));
+    }
+
+    // Só depois do commit: quem ler a versão nova já encontra os dados novos no banco
+    public void registrarAlteracaoPedidos(Collection<Long> clienteIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(clienteIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementar(ids);
+                }
+            });
+        } else {
+            incrementar(clienteIds);
+        }
+    }
+
+    private void incrementar(Collection<Long> clienteIds) {
+        for (Long clienteId : clienteIds) {
+            pedidosPorCliente.put(clienteId, sequencia.incrementAndGet());
+        }
+    }
+}
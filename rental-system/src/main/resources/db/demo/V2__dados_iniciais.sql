@@ -0,0 +1,32 @@
+-- Dados de demonstração (antes em data.sql)
+
+-- Senha para todos: 'password' (BCrypt encoded)
+-- Inserir Cliente
+INSERT INTO users (id, email, password, role) VALUES (1, 'cliente@email.com', '$2a$10$I4lD2pfnimOEsoOdI.xJxeizuBvRi1dtTkDu5buJWZxXCWyds8Dp.', 'ROLE_CLIENTE');
+INSERT INTO cliente (id, nome, rg, cpf, endereco, profissao) VALUES (1, 'Joao Cliente', 'MG-123456', '123.456.789-00', 'Rua A, 123', 'Engenheiro');
+
+-- Inserir Agente
+INSERT INTO users (id, email, password, role) VALUES (2, 'agente@email.com', '$2a$10$I4lD2pfnimOEsoOdI.xJxeizuBvRi1dtTkDu5buJWZxXCWyds8Dp.', 'ROLE_AGENTE');
+INSERT INTO agente (id, nome_empresa) VALUES (2, 'Banco Fictício S/A');
+
+-- Inserir Automóveis
+INSERT INTO automovel (id, matricula, ano, marca, modelo, placa, cor, valor_aluguel_diario, version) VALUES (101, 'MAT01', 2023, 'Fiat', 'Mobi', 'ABC-1234', 'Branco', 70.00, 0);
+INSERT INTO automovel (id, matricula, ano, marca, modelo, placa, cor, valor_aluguel_diario, version) VALUES (102, 'MAT02', 2024, 'Chevrolet', 'Onix', 'DEF-5678', 'Prata', 90.00, 0);
+INSERT INTO automovel (id, matricula, ano, marca, modelo, placa, cor, valor_aluguel_diario, version) VALUES (103, 'MAT03', 2023, 'Volkswagen', 'Golf', 'GHI-9012', 'Azul', 120.00, 0);
+INSERT INTO automovel (id, matricula, ano, marca, modelo, placa, cor, valor_aluguel_diario, version) VALUES (104, 'MAT04', 2024, 'Ford', 'Ka', 'JKL-3456', 'Vermelho', 80.00, 0);
+INSERT INTO automovel (id, matricula, ano, marca, modelo, placa, cor, valor_aluguel_diario, version) VALUES (105, 'MAT05', 2023, 'Honda', 'Civic', 'MNO-7890', 'Preto', 150.00, 0);
+
+-- Regras de preço (percentual sobre a diária; negativo = desconto)
+INSERT INTO regra_preco (tipo, automovel_id, data_inicio, data_fim, dia_semana, dias_minimos, percentual) VALUES ('SAZONAL', NULL, '2026-12-15', '2027-01-31', NULL, NULL, 20.00);
+INSERT INTO regra_preco (tipo, automovel_id, data_inicio, data_fim, dia_semana, dias_minimos, percentual) VALUES ('SAZONAL', NULL, '2027-07-01', '2027-07-31', NULL, NULL, 15.00);
+INSERT INTO regra_preco (tipo, automovel_id, data_inicio, data_fim, dia_semana, dias_minimos, percentual) VALUES ('DIA_SEMANA', NULL, NULL, NULL, 'SATURDAY', NULL, 10.00);
+INSERT INTO regra_preco (tipo, automovel_id, data_inicio, data_fim, dia_semana, dias_minimos, percentual) VALUES ('DIA_SEMANA', NULL, NULL, NULL, 'SUNDAY', NULL, 10.00);
+INSERT INTO regra_preco (tipo, automovel_id, data_inicio, data_fim, dia_semana, dias_minimos, percentual) VALUES ('DURACAO', NULL, NULL, NULL, NULL, 7, -5.00);
+INSERT INTO regra_preco (tipo, automovel_id, data_inicio, data_fim, dia_semana, dias_minimos, percentual) VALUES ('DURACAO', NULL, NULL, NULL, NULL, 30, -15.00);
+-- O Civic tem acréscimo maior no fim de semana
+INSERT INTO regra_preco (tipo, automovel_id, data_inicio, data_fim, dia_semana, dias_minimos, percentual) VALUES ('DIA_SEMANA', 105, NULL, NULL, 'SATURDAY', NULL, 25.00);
+INSERT INTO regra_preco (tipo, automovel_id, data_inicio, data_fim, dia_semana, dias_minimos, percentual) VALUES ('DIA_SEMANA', 105, NULL, NULL, 'SUNDAY', NULL, 25.00);
+
+-- Os ids acima foram informados explicitamente; as identidades continuam depois deles
+ALTER TABLE users ALTER COLUMN id RESTART WITH 1000;
+ALTER TABLE automovel ALTER COLUMN id RESTART WITH 1000;
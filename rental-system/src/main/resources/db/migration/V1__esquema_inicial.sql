@@ -0,0 +1,90 @@
+-- Esquema equivalente ao que o Hibernate gerava com ddl-auto=update
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE cliente (
+    id BIGINT NOT NULL PRIMARY KEY,
+    nome VARCHAR(255),
+    rg VARCHAR(255),
+    cpf VARCHAR(255),
+    endereco VARCHAR(255),
+    profissao VARCHAR(255),
+    CONSTRAINT fk_cliente_users FOREIGN KEY (id) REFERENCES users (id)
+);
+
+CREATE TABLE agente (
+    id BIGINT NOT NULL PRIMARY KEY,
+    nome_empresa VARCHAR(255),
+    CONSTRAINT fk_agente_users FOREIGN KEY (id) REFERENCES users (id)
+);
+
+CREATE TABLE rendimentos (
+    cliente_id BIGINT NOT NULL,
+    entidade_empregadora VARCHAR(255),
+    valor FLOAT(53),
+    CONSTRAINT fk_rendimentos_cliente FOREIGN KEY (cliente_id) REFERENCES cliente (id)
+);
+
+CREATE TABLE automovel (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    matricula VARCHAR(255),
+    ano INTEGER NOT NULL,
+    marca VARCHAR(255),
+    modelo VARCHAR(255),
+    placa VARCHAR(255),
+    cor VARCHAR(255),
+    valor_aluguel_diario FLOAT(53) NOT NULL,
+    version BIGINT
+);
+
+CREATE TABLE pedido_aluguel (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cliente_id BIGINT NOT NULL,
+    automovel_id BIGINT NOT NULL,
+    data_pedido TIMESTAMP(6),
+    data_retirada TIMESTAMP(6),
+    data_devolucao TIMESTAMP(6),
+    valor_total FLOAT(53) NOT NULL,
+    status VARCHAR(255) CHECK (status IN ('PENDENTE', 'APROVADO', 'REJEITADO', 'CANCELADO')),
+    version BIGINT,
+    agente_avaliador_id BIGINT,
+    reservado_por BIGINT,
+    reservado_ate TIMESTAMP(6),
+    CONSTRAINT fk_pedido_cliente FOREIGN KEY (cliente_id) REFERENCES cliente (id),
+    CONSTRAINT fk_pedido_automovel FOREIGN KEY (automovel_id) REFERENCES automovel (id),
+    CONSTRAINT fk_pedido_agente FOREIGN KEY (agente_avaliador_id) REFERENCES agente (id)
+);
+
+CREATE INDEX idx_pedido_data_pedido ON pedido_aluguel (data_pedido, id);
+CREATE INDEX idx_pedido_cliente_data_pedido ON pedido_aluguel (cliente_id, data_pedido, id);
+
+CREATE TABLE estatistica_cliente (
+    cliente_id BIGINT NOT NULL PRIMARY KEY,
+    pendentes BIGINT NOT NULL,
+    aprovados BIGINT NOT NULL,
+    rejeitados BIGINT NOT NULL,
+    cancelados BIGINT NOT NULL,
+    valor_ativo FLOAT(53) NOT NULL
+);
+
+CREATE TABLE estatistica_status (
+    status VARCHAR(255) NOT NULL PRIMARY KEY CHECK (status IN ('PENDENTE', 'APROVADO', 'REJEITADO', 'CANCELADO')),
+    total BIGINT NOT NULL
+);
+
+CREATE TABLE regra_preco (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tipo VARCHAR(255) CHECK (tipo IN ('SAZONAL', 'DIA_SEMANA', 'DURACAO')),
+    automovel_id BIGINT,
+    data_inicio DATE,
+    data_fim DATE,
+    dia_semana VARCHAR(255) CHECK (dia_semana IN ('MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY')),
+    dias_minimos INTEGER,
+    percentual NUMERIC(7, 2)
+);
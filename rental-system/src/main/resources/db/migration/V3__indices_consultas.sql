@@ -0,0 +1,13 @@
+-- Índices compostos para as consultas de PedidoAluguelRepository
+
+-- findByClienteAndStatusIn, sumValorTotalByClienteAndStatusIn, countGroupByStatusAndCliente
+CREATE INDEX idx_pedido_cliente_status ON pedido_aluguel (cliente_id, status);
+
+-- findByStatus, countByStatus, findReservasAtivas e a fila de avaliação (ordenada por data_pedido)
+CREATE INDEX idx_pedido_status_data_pedido ON pedido_aluguel (status, data_pedido);
+
+-- existsReservaConflitante: sobreposição de períodos de um mesmo automóvel
+CREATE INDEX idx_pedido_automovel_periodo ON pedido_aluguel (automovel_id, data_retirada, data_devolucao);
+
+-- Pedidos reservados por um agente na fila de avaliação
+CREATE INDEX idx_pedido_reservado_por ON pedido_aluguel (reservado_por, status);
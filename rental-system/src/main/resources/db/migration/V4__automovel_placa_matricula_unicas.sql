@@ -0,0 +1,4 @@
+-- Placa e matrícula identificam o veículo; a importação em lote depende destas restrições
+-- para não gravar duplicados vindos de cadastros simultâneos
+CREATE UNIQUE INDEX uk_automovel_placa ON automovel (placa);
+CREATE UNIQUE INDEX uk_automovel_matricula ON automovel (matricula);
@@ -0,0 +1,7 @@
+-- Segmentos do arquivo de pedidos encerrados. A linha é gravada na mesma transação que apaga os
+-- pedidos arquivados: um arquivo de segmento sem linha aqui é descartado na subida.
+CREATE TABLE arquivo_segmento (
+    numero BIGINT NOT NULL PRIMARY KEY,
+    pedidos INTEGER NOT NULL,
+    arquivado_em TIMESTAMP(6) NOT NULL
+);
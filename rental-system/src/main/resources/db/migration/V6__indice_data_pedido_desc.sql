@@ -0,0 +1,4 @@
+-- As listagens paginadas ordenam por data_pedido DESC, id DESC. O H2 só usa um índice para o ORDER BY
+-- quando a direção das colunas coincide; com o índice crescente ele lia a tabela inteira e ordenava.
+DROP INDEX idx_pedido_data_pedido;
+CREATE INDEX idx_pedido_data_pedido_desc ON pedido_aluguel (data_pedido DESC, id DESC);
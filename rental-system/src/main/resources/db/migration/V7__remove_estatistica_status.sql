@@ -0,0 +1,3 @@
+-- Os totais por status passam a ser a soma de estatistica_cliente: criar um pedido não atualiza
+-- mais uma linha global compartilhada por todas as reservas
+DROP TABLE estatistica_status;
@@ -0,0 +1,52 @@
+package com.pucminas.rental_system;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Com o console H2 desligado, como no perfil prod, as regras de segurança do console não podem
+// derrubar o login nem as outras páginas.
+class ConsoleH2DesligadoTests {
+
+	private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+	@Test
+	void loginEPaginasFuncionamSemOConsole() throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RentalSystemApplication.class)
+				.properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:consoledesligado", "rental.senhas.custo=10")
+				// Argumento, e não propriedade padrão, para valer sobre o application.properties
+				.run("--spring.h2.console.enabled=false")) {
+			String base = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			HttpClient http = HttpClient.newBuilder().cookieHandler(new CookieManager()).followRedirects(HttpClient.Redirect.NEVER).build();
+
+			Matcher csrf = CSRF.matcher(get(http, base + "/login").body());
+			assertTrue(csrf.find());
+			String formulario = "username=" + URLEncoder.encode("agente@email.com", StandardCharsets.UTF_8)
+				+ "&password=password&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+			HttpResponse<Void> login = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(formulario))
+				.build(), HttpResponse.BodyHandlers.discarding());
+			assertEquals(302, login.statusCode());
+
+			assertEquals(200, get(http, base + "/agente/dashboard").statusCode());
+		}
+	}
+
+	private HttpResponse<String> get(HttpClient http, String url) throws Exception {
+		return http.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+	}
+}
@@ -0,0 +1,90 @@
+package com.pucminas.rental_system;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// /pedidos/quote: a resposta tem de ser revalidada (a disponibilidade muda a cada reserva) e só
+// entrada inválida vira 400; outros erros não são disfarçados de "período inválido". A lista de
+// automóveis do cliente com datas inválidas mostra o erro no formulário em vez de falhar com 500.
+class CotacaoEndpointTests {
+
+	private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+	@Test
+	void cotacaoNaoFicaEmCacheERecusaSoEntradaInvalida() throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RentalSystemApplication.class)
+				.properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:cotacaoendpoint", "rental.senhas.custo=10")
+				.run()) {
+			String base = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			HttpClient http = HttpClient.newBuilder().cookieHandler(new CookieManager()).followRedirects(HttpClient.Redirect.NEVER).build();
+			login(http, base);
+
+			HttpResponse<String> valida = get(http, base + "/pedidos/quote?automovelId=101&dataRetirada=2032-03-10T09:00&dataDevolucao=2032-03-11T09:00");
+			assertEquals(200, valida.statusCode());
+			assertEquals("no-cache", valida.headers().firstValue("Cache-Control").orElseThrow());
+			assertTrue(valida.body().contains("\"disponivel\":true"), valida.body());
+
+			HttpResponse<String> dataInvalida = get(http, base + "/pedidos/quote?automovelId=101&dataRetirada=amanha&dataDevolucao=2032-03-11T09:00");
+			assertEquals(400, dataInvalida.statusCode());
+			assertTrue(dataInvalida.body().contains("Data inválida: amanha"), dataInvalida.body());
+
+			HttpResponse<String> periodoInvertido = get(http, base + "/pedidos/quote?automovelId=101&dataRetirada=2032-03-12T09:00&dataDevolucao=2032-03-11T09:00");
+			assertEquals(400, periodoInvertido.statusCode());
+		}
+	}
+
+	@Test
+	void automoveisComPeriodoInvalidoMostramOErroNoFormulario() throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RentalSystemApplication.class)
+				.properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:cotacaoautomoveis", "rental.senhas.custo=10")
+				.run()) {
+			String base = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			HttpClient http = HttpClient.newBuilder().cookieHandler(new CookieManager()).followRedirects(HttpClient.Redirect.NEVER).build();
+			login(http, base);
+
+			HttpResponse<String> valida = get(http, base + "/cliente/automoveis?dataRetirada=2032-03-10T09:00&dataDevolucao=2032-03-11T09:00");
+			assertEquals(200, valida.statusCode());
+
+			HttpResponse<String> dataInvalida = get(http, base + "/cliente/automoveis?dataRetirada=amanha&dataDevolucao=2032-03-11T09:00");
+			assertEquals(400, dataInvalida.statusCode());
+			assertTrue(dataInvalida.body().contains("Data inválida: amanha"), dataInvalida.body());
+
+			HttpResponse<String> periodoInvertido = get(http, base + "/cliente/automoveis?dataRetirada=2032-03-12T09:00&dataDevolucao=2032-03-11T09:00");
+			assertEquals(400, periodoInvertido.statusCode());
+			assertTrue(periodoInvertido.body().contains("A data de devolução precisa ser depois da data de retirada."));
+
+			HttpResponse<String> periodoVazio = get(http, base + "/cliente/automoveis?dataRetirada=2032-03-11T09:00&dataDevolucao=2032-03-11T09:00");
+			assertEquals(400, periodoVazio.statusCode());
+		}
+	}
+
+	private void login(HttpClient http, String base) throws Exception {
+		Matcher csrf = CSRF.matcher(get(http, base + "/login").body());
+		assertTrue(csrf.find());
+		String formulario = "username=" + URLEncoder.encode("cliente@email.com", StandardCharsets.UTF_8)
+			+ "&password=password&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+		HttpResponse<Void> resposta = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+			.header("Content-Type", "application/x-www-form-urlencoded")
+			.POST(HttpRequest.BodyPublishers.ofString(formulario))
+			.build(), HttpResponse.BodyHandlers.discarding());
+		assertEquals(302, resposta.statusCode());
+	}
+
+	private HttpResponse<String> get(HttpClient http, String url) throws Exception {
+		return http.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+	}
+}
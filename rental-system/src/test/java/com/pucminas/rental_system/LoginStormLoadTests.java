@@ -0,0 +1,145 @@
+package com.pucminas.rental_system;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Onda de logins, fora da suíte padrão: mvn test -Dtest=LoginStormLoadTests -Drental.loadtest=true
+// Enquanto muitos usuários fazem login ao mesmo tempo, um cliente já logado navega pelo dashboard.
+// Registra no log logins/s, logins recusados por saturação e a latência do dashboard, com a verificação
+// de senhas no pool limitado e na própria thread da requisição.
+@EnabledIfSystemProperty(named = "rental.loadtest", matches = "true")
+class LoginStormLoadTests {
+	private static final Logger log = LoggerFactory.getLogger(LoginStormLoadTests.class);
+
+	private static final int LOGINS_SIMULTANEOS = 100;
+	private static final int LOGINS_POR_USUARIO = 10;
+	private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+	@Test
+	void verificacaoIsolada() throws Exception {
+		executar("isolada", true);
+	}
+
+	@Test
+	void verificacaoNaThreadDaRequisicao() throws Exception {
+		executar("requisicao", false);
+	}
+
+	private void executar(String modo, boolean isolar) throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RentalSystemApplication.class)
+				.properties(
+					"server.port=0",
+					"spring.datasource.url=jdbc:h2:mem:loginstorm" + modo,
+					"rental.senhas.isolar=" + isolar)
+				.run()) {
+			String base = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			HttpClient navegador = novoCliente();
+			assertTrue(login(navegador, base).endsWith("/pedidos"));
+
+			AtomicBoolean ativo = new AtomicBoolean(true);
+			List<Long> latencias = Collections.synchronizedList(new ArrayList<>());
+			Thread pagina = new Thread(() -> {
+				HttpRequest dashboard = HttpRequest.newBuilder(URI.create(base + "/cliente/dashboard")).build();
+				while (ativo.get()) {
+					try {
+						long t0 = System.nanoTime();
+						navegador.send(dashboard, HttpResponse.BodyHandlers.discarding());
+						latencias.add(System.nanoTime() - t0);
+					} catch (Exception e) {
+						return;
+					}
+				}
+			});
+			pagina.start();
+
+			AtomicInteger aceitos = new AtomicInteger();
+			AtomicInteger recusados = new AtomicInteger();
+			ExecutorService executor = Executors.newFixedThreadPool(LOGINS_SIMULTANEOS);
+			long inicio = System.nanoTime();
+			List<Future<?>> tarefas = new ArrayList<>();
+			for (int i = 0; i < LOGINS_SIMULTANEOS; i++) {
+				tarefas.add(executor.submit(() -> {
+					for (int j = 0; j < LOGINS_POR_USUARIO; j++) {
+						String destino = login(novoCliente(), base);
+						if (destino.endsWith("?ocupado")) {
+							recusados.incrementAndGet();
+						} else {
+							aceitos.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> tarefa : tarefas) {
+				tarefa.get();
+			}
+			double segundos = (System.nanoTime() - inicio) / 1e9;
+			executor.shutdown();
+			ativo.set(false);
+			pagina.join();
+
+			List<Long> ordenadas = new ArrayList<>(latencias);
+			Collections.sort(ordenadas);
+			log.info(String.format("[%s] %.1f logins/s, %d recusados por saturação; /cliente/dashboard durante a onda: p50=%.1fms, p99=%.1fms",
+				modo, aceitos.get() / segundos, recusados.get(), percentil(ordenadas, 0.50), percentil(ordenadas, 0.99)));
+			assertEquals(LOGINS_SIMULTANEOS * LOGINS_POR_USUARIO, aceitos.get() + recusados.get());
+			assertFalse(ordenadas.isEmpty());
+		}
+	}
+
+	private HttpClient novoCliente() {
+		return HttpClient.newBuilder()
+			.cookieHandler(new CookieManager())
+			.followRedirects(HttpClient.Redirect.NEVER)
+			.build();
+	}
+
+	// Devolve o destino do redirecionamento: .../pedidos, .../login?error ou .../login?ocupado
+	private String login(HttpClient http, String base) throws Exception {
+		String pagina = http.send(HttpRequest.newBuilder(URI.create(base + "/login")).build(),
+			HttpResponse.BodyHandlers.ofString()).body();
+		Matcher csrf = CSRF.matcher(pagina);
+		csrf.find();
+		String formulario = "username=" + URLEncoder.encode("cliente@email.com", StandardCharsets.UTF_8)
+			+ "&password=password&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+		HttpResponse<Void> resposta = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+			.header("Content-Type", "application/x-www-form-urlencoded")
+			.POST(HttpRequest.BodyPublishers.ofString(formulario))
+			.build(), HttpResponse.BodyHandlers.discarding());
+		assertEquals(302, resposta.statusCode());
+		return resposta.headers().firstValue("Location").orElseThrow();
+	}
+
+	private double percentil(List<Long> ordenadas, double p) {
+		if (ordenadas.isEmpty()) {
+			return 0;
+		}
+		return ordenadas.get((int) Math.min(ordenadas.size() - 1, Math.round(p * ordenadas.size()))) / 1e6;
+	}
+}
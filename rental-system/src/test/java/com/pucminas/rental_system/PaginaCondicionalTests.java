@@ -0,0 +1,78 @@
+package com.pucminas.rental_system;
+
+import com.pucminas.rental_system.model.Automovel;
+import com.pucminas.rental_system.service.FrotaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A lista de automóveis responde 304 enquanto a frota não muda e volta a 200, com outro ETag e a
+// ficha do veículo novo, depois de uma alteração.
+class PaginaCondicionalTests {
+
+	private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+	@Test
+	void respondeNaoModificadaAteAFrotaMudar() throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RentalSystemApplication.class)
+				.properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:paginacondicional", "rental.senhas.custo=10")
+				.run()) {
+			String base = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			HttpClient http = HttpClient.newBuilder().cookieHandler(new CookieManager()).followRedirects(HttpClient.Redirect.NEVER).build();
+			login(http, base);
+
+			HttpResponse<String> primeira = get(http, base + "/agente/automoveis", null);
+			assertEquals(200, primeira.statusCode());
+			String etag = primeira.headers().firstValue("ETag").orElseThrow();
+			assertEquals(304, get(http, base + "/agente/automoveis", etag).statusCode());
+
+			Automovel novo = new Automovel();
+			novo.setMatricula("MAT-ETAG-1");
+			novo.setPlaca("ETG-0001");
+			novo.setMarca("Fiat");
+			novo.setModelo("Condicional");
+			novo.setAno(2024);
+			novo.setCor("Azul");
+			context.getBean(FrotaService.class).salvar(novo);
+
+			HttpResponse<String> depois = get(http, base + "/agente/automoveis", etag);
+			assertEquals(200, depois.statusCode());
+			assertNotEquals(etag, depois.headers().firstValue("ETag").orElseThrow());
+			assertTrue(depois.body().contains("Fiat Condicional"));
+		}
+	}
+
+	private void login(HttpClient http, String base) throws Exception {
+		Matcher csrf = CSRF.matcher(get(http, base + "/login", null).body());
+		assertTrue(csrf.find());
+		String formulario = "username=" + URLEncoder.encode("agente@email.com", StandardCharsets.UTF_8)
+			+ "&password=password&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+		HttpResponse<Void> resposta = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+			.header("Content-Type", "application/x-www-form-urlencoded")
+			.POST(HttpRequest.BodyPublishers.ofString(formulario))
+			.build(), HttpResponse.BodyHandlers.discarding());
+		assertEquals(302, resposta.statusCode());
+	}
+
+	private HttpResponse<String> get(HttpClient http, String url, String etag) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url));
+		if (etag != null) {
+			request.header("If-None-Match", etag);
+		}
+		return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+	}
+}
@@ -1,13 +1,25 @@
 package com.pucminas.rental_system;
 
+import com.pucminas.rental_system.service.TokenService;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(classes = RentalSystemApplication.class)
 class RentalSystemApplicationTests {
 
+	@Autowired private ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void modoSessaoNaoCriaOServicoDeTokens() {
+		assertTrue(context.getBeansOfType(TokenService.class).isEmpty());
+	}
+
 }
@@ -0,0 +1,96 @@
+package com.pucminas.rental_system;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Duas instâncias no mesmo processo, cada uma com o seu banco, sem nada em comum além do segredo:
+// o login feito na primeira vale na segunda sem sessão no servidor.
+class TokenAutenticacaoTests {
+
+	private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+	@Test
+	void tokenEmitidoPorUmaInstanciaValeNaOutra() throws Exception {
+		try (ConfigurableApplicationContext instanciaA = iniciar("a");
+			 ConfigurableApplicationContext instanciaB = iniciar("b")) {
+			String baseA = base(instanciaA);
+			String baseB = base(instanciaB);
+			CookieManager cookies = new CookieManager();
+			HttpClient http = HttpClient.newBuilder().cookieHandler(cookies).followRedirects(HttpClient.Redirect.NEVER).build();
+
+			String formulario = "username=" + URLEncoder.encode("cliente@email.com", StandardCharsets.UTF_8)
+				+ "&password=password&_csrf=" + URLEncoder.encode(csrf(http, baseA + "/login"), StandardCharsets.UTF_8);
+			HttpResponse<Void> login = http.send(HttpRequest.newBuilder(URI.create(baseA + "/login"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(formulario))
+				.build(), HttpResponse.BodyHandlers.discarding());
+			assertEquals(302, login.statusCode());
+			assertTrue(login.headers().firstValue("Location").orElseThrow().endsWith("/pedidos"));
+			assertTrue(cookies.getCookieStore().getCookies().stream().anyMatch(c -> c.getName().equals("RENTAL_TOKEN")));
+
+			assertEquals(200, get(http, baseB + "/cliente/dashboard").statusCode());
+			assertEquals(403, get(http, baseB + "/pedidos/pending").statusCode());
+			assertFalse(cookies.getCookieStore().getCookies().stream().anyMatch(c -> c.getName().equals("JSESSIONID")));
+
+			// Logout na instância B com o token CSRF em cookie
+			HttpResponse<Void> logout = http.send(HttpRequest.newBuilder(URI.create(baseB + "/logout"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString("_csrf=" + URLEncoder.encode(csrf(http, baseB + "/cliente/dashboard"), StandardCharsets.UTF_8)))
+				.build(), HttpResponse.BodyHandlers.discarding());
+			assertEquals(302, logout.statusCode());
+			assertEquals(302, get(http, baseA + "/cliente/dashboard").statusCode());
+		}
+	}
+
+	@Test
+	void tokenAdulteradoNaoAutentica() throws Exception {
+		try (ConfigurableApplicationContext instancia = iniciar("c")) {
+			HttpClient http = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+			HttpResponse<Void> resposta = http.send(HttpRequest.newBuilder(URI.create(base(instancia) + "/cliente/dashboard"))
+				.header("Cookie", "RENTAL_TOKEN=MXxST0xFX0FHRU5URXw5OTk5OTk5OTk5fGFAYi5j.YXNzaW5hdHVyYQ")
+				.build(), HttpResponse.BodyHandlers.discarding());
+			assertEquals(302, resposta.statusCode());
+		}
+	}
+
+	private ConfigurableApplicationContext iniciar(String nome) {
+		return new SpringApplicationBuilder(RentalSystemApplication.class)
+			.properties(
+				"server.port=0",
+				"spring.datasource.url=jdbc:h2:mem:tokentest" + nome,
+				"rental.auth.modo=token",
+				"rental.auth.segredo=segredo-compartilhado-entre-as-instancias",
+				"rental.senhas.custo=10")
+			.run();
+	}
+
+	private String base(ConfigurableApplicationContext context) {
+		return "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+	}
+
+	private HttpResponse<Void> get(HttpClient http, String url) throws Exception {
+		return http.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding());
+	}
+
+	private String csrf(HttpClient http, String url) throws Exception {
+		String pagina = http.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString()).body();
+		Matcher csrf = CSRF.matcher(pagina);
+		assertTrue(csrf.find());
+		return csrf.group(1);
+	}
+}
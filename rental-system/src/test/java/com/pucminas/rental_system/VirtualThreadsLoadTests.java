@@ -0,0 +1,171 @@
+package com.pucminas.rental_system;
+
+import com.pucminas.rental_system.model.Automovel;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import com.pucminas.rental_system.service.FrotaService;
+import com.pucminas.rental_system.service.PedidoAluguelService;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Teste de carga comparativo, fora da suíte padrão: mvn test -Dtest=VirtualThreadsLoadTests -Drental.loadtest=true
+// Sobe a aplicação com threads de plataforma e com threads virtuais (só em Java 21+) e registra no log
+// vazão e latências de GET /cliente/dashboard e do envio de pedidos (POST /pedidos/new) em cada modo.
+@EnabledIfSystemProperty(named = "rental.loadtest", matches = "true")
+class VirtualThreadsLoadTests {
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadsLoadTests.class);
+
+	private static final int CLIENTES_SIMULTANEOS = 200;
+	private static final int REQUISICOES_POR_CLIENTE = 50;
+	private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+	@Test
+	void threadsDePlataforma() throws Exception {
+		executar("plataforma", false);
+	}
+
+	@Test
+	void threadsVirtuais() throws Exception {
+		Assumptions.assumeTrue(Runtime.version().feature() >= 21, "Threads virtuais exigem Java 21; esta JVM é " + Runtime.version());
+		executar("virtuais", true);
+	}
+
+	private void executar(String modo, boolean virtuais) throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RentalSystemApplication.class)
+				.properties(
+					"server.port=0",
+					"spring.datasource.url=jdbc:h2:mem:loadtest" + modo,
+					"rental.threads.virtual=" + virtuais)
+				.run()) {
+			int porta = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			HttpClient http = HttpClient.newBuilder()
+				.cookieHandler(new CookieManager())
+				.followRedirects(HttpClient.Redirect.NEVER)
+				.build();
+			String base = "http://localhost:" + porta;
+			login(http, base);
+
+			HttpRequest dashboard = HttpRequest.newBuilder(URI.create(base + "/cliente/dashboard")).build();
+			medir(modo, "GET /cliente/dashboard", i -> http.send(dashboard, HttpResponse.BodyHandlers.discarding()));
+
+			// Cada envio pede um horário próprio num dos automóveis da frota, sem conflito de agenda
+			String csrf = csrf(http, base + "/pedidos/new");
+			List<Long> automoveis = context.getBean(FrotaService.class).listar().stream().map(Automovel::getId).toList();
+			LocalDateTime inicio = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+			AtomicInteger recusados = new AtomicInteger();
+			int aceitos = medir(modo, "POST /pedidos/new", i -> {
+				LocalDateTime retirada = inicio.plusHours(2L * (i / automoveis.size()));
+				String formulario = "automovelId=" + automoveis.get(i % automoveis.size())
+					+ "&dataRetirada=" + retirada.format(PedidoAluguelService.FORMATO_DATA)
+					+ "&dataDevolucao=" + retirada.plusHours(1).format(PedidoAluguelService.FORMATO_DATA)
+					+ "&_csrf=" + URLEncoder.encode(csrf, StandardCharsets.UTF_8);
+				HttpResponse<Void> resposta = http.send(HttpRequest.newBuilder(URI.create(base + "/pedidos/new"))
+					.header("Content-Type", "application/x-www-form-urlencoded")
+					.POST(HttpRequest.BodyPublishers.ofString(formulario))
+					.build(), HttpResponse.BodyHandlers.discarding());
+				// 429: fila de entrada cheia, o cliente tentaria de novo depois
+				if (resposta.statusCode() == 429) {
+					recusados.incrementAndGet();
+				}
+				return resposta;
+			});
+			log.info("[{}] POST /pedidos/new: {} aceitos, {} recusados com 429", modo, aceitos, recusados.get());
+
+			// Os aceitos são gravados pelos workers da fila; mede quanto tempo leva para todos chegarem ao banco
+			PedidoAluguelRepository pedidoRepository = context.getBean(PedidoAluguelRepository.class);
+			long t0 = System.nanoTime();
+			long limite = t0 + 120_000_000_000L;
+			while (pedidoRepository.count() < aceitos && System.nanoTime() < limite) {
+				Thread.sleep(100);
+			}
+			assertEquals(aceitos, pedidoRepository.count());
+			log.info("[{}] fila esvaziada {} ms depois do último envio", modo, (System.nanoTime() - t0) / 1_000_000);
+		}
+	}
+
+	private void login(HttpClient http, String base) throws Exception {
+		String formulario = "username=" + URLEncoder.encode("cliente@email.com", StandardCharsets.UTF_8)
+			+ "&password=password&_csrf=" + URLEncoder.encode(csrf(http, base + "/login"), StandardCharsets.UTF_8);
+		HttpResponse<Void> resposta = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+			.header("Content-Type", "application/x-www-form-urlencoded")
+			.POST(HttpRequest.BodyPublishers.ofString(formulario))
+			.build(), HttpResponse.BodyHandlers.discarding());
+		assertEquals(302, resposta.statusCode());
+	}
+
+	private String csrf(HttpClient http, String url) throws Exception {
+		String pagina = http.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString()).body();
+		Matcher csrf = CSRF.matcher(pagina);
+		assertTrue(csrf.find());
+		return csrf.group(1);
+	}
+
+	// Dispara CLIENTES_SIMULTANEOS x REQUISICOES_POR_CLIENTE requisições; devolve quantas tiveram 200 ou 302
+	private int medir(String modo, String descricao, Requisicao requisicao) throws Exception {
+		List<Long> latencias = Collections.synchronizedList(new ArrayList<>());
+		AtomicInteger sequencia = new AtomicInteger();
+		AtomicInteger sucessos = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(CLIENTES_SIMULTANEOS);
+		long inicio = System.nanoTime();
+		List<Future<?>> tarefas = new ArrayList<>();
+		for (int i = 0; i < CLIENTES_SIMULTANEOS; i++) {
+			tarefas.add(executor.submit(() -> {
+				for (int j = 0; j < REQUISICOES_POR_CLIENTE; j++) {
+					long t0 = System.nanoTime();
+					int status = requisicao.enviar(sequencia.getAndIncrement()).statusCode();
+					latencias.add(System.nanoTime() - t0);
+					assertTrue(status == 200 || status == 302 || status == 429, descricao + " respondeu " + status);
+					if (status != 429) {
+						sucessos.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		for (Future<?> tarefa : tarefas) {
+			tarefa.get();
+		}
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+		executor.shutdown();
+
+		List<Long> ordenadas = new ArrayList<>(latencias);
+		Collections.sort(ordenadas);
+		log.info(String.format("[%s] %s: %.0f req/s, p50=%.1fms, p99=%.1fms", modo, descricao,
+			ordenadas.size() / segundos, percentil(ordenadas, 0.50), percentil(ordenadas, 0.99)));
+		return sucessos.get();
+	}
+
+	private double percentil(List<Long> ordenadas, double p) {
+		return ordenadas.get((int) Math.min(ordenadas.size() - 1, Math.round(p * ordenadas.size()))) / 1e6;
+	}
+
+	private interface Requisicao {
+		HttpResponse<Void> enviar(int indice) throws Exception;
+	}
+}
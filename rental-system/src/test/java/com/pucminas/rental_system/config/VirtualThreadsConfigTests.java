@@ -0,0 +1,37 @@
+package com.pucminas.rental_system.config;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadsConfigTests {
+
+	@Test
+	void recusaJavaAnteriorA21() {
+		IllegalStateException erro = assertThrows(IllegalStateException.class, () -> VirtualThreadsConfig.verificarJava(17));
+		assertTrue(erro.getMessage().contains("exige Java 21"));
+		assertTrue(erro.getMessage().contains("rodando em Java 17"));
+		assertDoesNotThrow(() -> VirtualThreadsConfig.verificarJava(21));
+	}
+
+	@Test
+	void perfilVirtualNaoSobeAntesDoJava21() {
+		Assumptions.assumeTrue(Runtime.version().feature() < 21, "Só vale em JVMs anteriores ao Java 21");
+
+		Exception erro = assertThrows(Exception.class, () -> new SpringApplicationBuilder(RentalSystemApplication.class)
+				.profiles("virtual")
+				.properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:virtualsemjava21")
+				.run());
+
+		Throwable causa = erro;
+		while (causa.getCause() != null) {
+			causa = causa.getCause();
+		}
+		assertTrue(causa instanceof IllegalStateException && causa.getMessage().contains("exige Java 21"), String.valueOf(causa));
+	}
+}
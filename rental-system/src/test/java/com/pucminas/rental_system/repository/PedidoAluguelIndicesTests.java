@@ -0,0 +1,175 @@
+package com.pucminas.rental_system.repository;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.Cliente;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Confere com EXPLAIN que as consultas de PedidoAluguelRepository usam índices sobre uma base grande.
+// Fora da suíte padrão: mvn test -Dtest=PedidoAluguelIndicesTests -Drental.indices=true
+// Tamanho padrão: 100 mil pedidos (-Drental.indices.linhas=1000000 para mudar).
+// O SQL conferido é o que o Hibernate gera para cada método, capturado antes de carregar a base.
+@EnabledIfSystemProperty(named = "rental.indices", matches = "true")
+@SpringBootTest(classes = RentalSystemApplication.class, properties = {
+		"spring.datasource.url=jdbc:h2:mem:indicestestdb",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.pucminas.rental_system.repository.PedidoAluguelIndicesTests$ConsultasCapturadas"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PedidoAluguelIndicesTests {
+
+	private static final int LINHAS = Integer.getInteger("rental.indices.linhas", 100_000);
+	private static final int CLIENTES = 1000;
+	private static final int AUTOMOVEIS = 500;
+	private static final long PRIMEIRO_ID = 100_000L;
+	private static final List<PedidoAluguel.PedidoStatus> ATIVOS =
+			List.of(PedidoAluguel.PedidoStatus.PENDENTE, PedidoAluguel.PedidoStatus.APROVADO);
+
+	@Autowired private JdbcTemplate jdbcTemplate;
+	@Autowired private PedidoAluguelRepository pedidoRepository;
+	@Autowired private ClienteRepository clienteRepository;
+
+	private String porCliente;
+	private String porClienteEStatus;
+	private String somaPorClienteEStatus;
+	private String contagemPorCliente;
+	private String recentesPorCliente;
+	private String porStatus;
+	private String contagemPorStatus;
+	private String reservasAtivas;
+	private String recentes;
+	private String paginaPorStatus;
+	private String livresParaReserva;
+	private String reservadosPorAgente;
+	private String porIds;
+	private String conflitoDeReserva;
+
+	@BeforeAll
+	void capturarConsultasECarregarPedidos() {
+		Cliente cliente = clienteRepository.findById(1L).orElseThrow();
+		LocalDateTime agora = LocalDateTime.now();
+		porCliente = capturar(() -> pedidoRepository.findByCliente(cliente));
+		porClienteEStatus = capturar(() -> pedidoRepository.findByClienteAndStatusIn(cliente, ATIVOS));
+		somaPorClienteEStatus = capturar(() -> pedidoRepository.sumValorTotalByClienteAndStatusIn(cliente, ATIVOS));
+		contagemPorCliente = capturar(() -> pedidoRepository.countGroupByStatusAndCliente(cliente));
+		recentesPorCliente = capturar(() -> pedidoRepository.findByClienteOrderByDataPedidoDesc(cliente, PageRequest.of(0, 20)));
+		porStatus = capturar(() -> pedidoRepository.findByStatus(PedidoAluguel.PedidoStatus.PENDENTE));
+		contagemPorStatus = capturar(() -> pedidoRepository.countByStatus(PedidoAluguel.PedidoStatus.APROVADO));
+		reservasAtivas = capturar(() -> pedidoRepository.findReservasAtivas(ATIVOS));
+		recentes = capturar(() -> pedidoRepository.findAllByOrderByDataPedidoDesc(PageRequest.of(0, 20)));
+		paginaPorStatus = capturar(() -> pedidoRepository.findPagina(PedidoAluguel.PedidoStatus.PENDENTE, null, null,
+				null, null, PageRequest.of(0, 20)));
+		livresParaReserva = capturar(() -> pedidoRepository.findIdsLivresParaReserva(PedidoAluguel.PedidoStatus.PENDENTE,
+				agora, PageRequest.of(0, 10)));
+		reservadosPorAgente = capturar(() -> pedidoRepository.findReservadosPor(2L, PedidoAluguel.PedidoStatus.PENDENTE, agora));
+		porIds = capturar(() -> pedidoRepository.findByIdIn(List.of(1L, 2L, 3L)));
+		conflitoDeReserva = capturar(() -> pedidoRepository.existsReservaConflitante(101L, ATIVOS, agora, agora.plusDays(1)));
+
+		jdbcTemplate.update("INSERT INTO users (id, email, password, role) SELECT ? + X, 'indices' || X || '@email.com', 'x', 'ROLE_CLIENTE' " +
+				"FROM SYSTEM_RANGE(1, ?)", PRIMEIRO_ID, CLIENTES);
+		jdbcTemplate.update("INSERT INTO cliente (id, nome) SELECT ? + X, 'Cliente ' || X FROM SYSTEM_RANGE(1, ?)", PRIMEIRO_ID, CLIENTES);
+		jdbcTemplate.update("INSERT INTO automovel (id, matricula, ano, marca, modelo, placa, cor, valor_aluguel_diario, version) " +
+				"SELECT ? + X, 'IDX' || X, 2024, 'Marca', 'Modelo', 'IDX-' || X, 'Cinza', 100, 0 FROM SYSTEM_RANGE(1, ?)", PRIMEIRO_ID, AUTOMOVEIS);
+		jdbcTemplate.update("INSERT INTO pedido_aluguel (cliente_id, automovel_id, data_pedido, data_retirada, data_devolucao, valor_total, status, version) " +
+				"SELECT ? + 1 + MOD(X, ?), ? + 1 + MOD(X, ?), " +
+				"DATEADD(MINUTE, X, TIMESTAMP '2024-01-01 00:00:00'), " +
+				"DATEADD(HOUR, X, TIMESTAMP '2030-01-01 10:00:00'), DATEADD(HOUR, X + 48, TIMESTAMP '2030-01-01 10:00:00'), " +
+				"200, CASE MOD(X, 4) WHEN 0 THEN 'PENDENTE' WHEN 1 THEN 'APROVADO' WHEN 2 THEN 'REJEITADO' ELSE 'CANCELADO' END, 0 " +
+				"FROM SYSTEM_RANGE(1, ?)", PRIMEIRO_ID, CLIENTES, PRIMEIRO_ID, AUTOMOVEIS, LINHAS);
+		jdbcTemplate.execute("ANALYZE");
+	}
+
+	@Test
+	void consultasPorClienteUsamIndice() {
+		assertUsaIndice(porCliente);
+		assertUsaIndice(porClienteEStatus, "IDX_PEDIDO_CLIENTE_STATUS");
+		assertUsaIndice(somaPorClienteEStatus, "IDX_PEDIDO_CLIENTE_STATUS");
+		assertUsaIndice(contagemPorCliente);
+		assertUsaIndice(recentesPorCliente);
+	}
+
+	@Test
+	void consultasPorStatusUsamIndice() {
+		assertUsaIndice(porStatus, "IDX_PEDIDO_STATUS_DATA_PEDIDO");
+		assertUsaIndice(contagemPorStatus, "IDX_PEDIDO_STATUS_DATA_PEDIDO");
+		assertUsaIndice(reservasAtivas, "IDX_PEDIDO_STATUS_DATA_PEDIDO");
+		assertUsaIndice(recentes, "IDX_PEDIDO_DATA_PEDIDO_DESC");
+		assertUsaIndice(paginaPorStatus, "IDX_PEDIDO_DATA_PEDIDO_DESC");
+	}
+
+	@Test
+	void filaDeAvaliacaoUsaIndice() {
+		assertUsaIndice(livresParaReserva, "IDX_PEDIDO_STATUS_DATA_PEDIDO");
+		assertUsaIndice(reservadosPorAgente, "IDX_PEDIDO_RESERVADO_POR");
+		assertUsaIndice(porIds);
+	}
+
+	@Test
+	void conflitoDeReservaUsaIndiceDoAutomovel() {
+		assertUsaIndice(conflitoDeReserva, "IDX_PEDIDO_AUTOMOVEL_PERIODO");
+	}
+
+	// Executa a chamada e devolve o único SELECT sobre pedido_aluguel que ela gerou
+	private String capturar(Runnable chamada) {
+		ConsultasCapturadas.iniciar();
+		try {
+			chamada.run();
+		} finally {
+			ConsultasCapturadas.parar();
+		}
+		List<String> consultas = ConsultasCapturadas.doPedido();
+		assertTrue(consultas.size() == 1, () -> "Esperava um SELECT sobre pedido_aluguel: " + consultas);
+		return consultas.get(0);
+	}
+
+	private void assertUsaIndice(String sql, String... indices) {
+		String plano = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+		assertFalse(plano.contains("tableScan"), () -> "Varredura completa em: " + plano);
+		for (String indice : indices) {
+			assertTrue(plano.toUpperCase().contains(indice), () -> "Índice " + indice + " não usado em: " + plano);
+		}
+	}
+
+	// Registrado no Hibernate pela propriedade do teste; guarda o SQL de cada thread enquanto a captura estiver ativa
+	public static class ConsultasCapturadas implements StatementInspector {
+		private static final ThreadLocal<List<String>> CAPTURADAS = new ThreadLocal<>();
+		private static final ThreadLocal<List<String>> ULTIMAS = new ThreadLocal<>();
+
+		static void iniciar() {
+			CAPTURADAS.set(new ArrayList<>());
+		}
+
+		static void parar() {
+			ULTIMAS.set(CAPTURADAS.get());
+			CAPTURADAS.remove();
+		}
+
+		static List<String> doPedido() {
+			return ULTIMAS.get().stream()
+					.filter(sql -> sql.toLowerCase().startsWith("select") && sql.toLowerCase().contains("pedido_aluguel"))
+					.toList();
+		}
+
+		@Override
+		public String inspect(String sql) {
+			List<String> capturadas = CAPTURADAS.get();
+			if (capturadas != null) {
+				capturadas.add(sql);
+			}
+			return sql;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.pucminas.rental_system.repository;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.Cliente;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.service.AnaliseCreditoService;
+import com.pucminas.rental_system.service.PaginaPedidos;
+import com.pucminas.rental_system.service.DisponibilidadeService;
+import com.pucminas.rental_system.service.EstatisticaPedidosService;
+import com.pucminas.rental_system.service.PedidoAluguelService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = RentalSystemApplication.class, properties = {
+	"spring.datasource.url=jdbc:h2:mem:querycounttestdb",
+	"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class PedidoAluguelQueryCountTests {
+
+	private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+	@Autowired private PedidoAluguelService pedidoService;
+	@Autowired private PedidoAluguelRepository pedidoRepository;
+	@Autowired private ClienteRepository clienteRepository;
+	@Autowired private DisponibilidadeService disponibilidadeService;
+	@Autowired private EstatisticaPedidosService estatisticaService;
+	@Autowired private EntityManagerFactory entityManagerFactory;
+	@Autowired private AnaliseCreditoService analiseCreditoService;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		pedidoRepository.deleteAll();
+		disponibilidadeService.carregarReservas();
+		estatisticaService.reconstruir();
+		LocalDateTime inicio = LocalDateTime.of(2030, 1, 1, 10, 0);
+		for (int i = 0; i < 30; i++) {
+			pedidoService.criarPedido(1L, 101L + (i % 5),
+					inicio.plusDays(i).format(FORMATO), inicio.plusDays(i + 1).format(FORMATO));
+		}
+		// Os recálculos da pré-análise de crédito rodam depois do commit e contariam nas estatísticas
+		assertTrue(analiseCreditoService.aguardarRecalculos(Duration.ofSeconds(10)));
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void paginaGeralCarregaAssociacoesEmUmaConsulta() {
+		PaginaPedidos pagina = pedidoService.buscarPagina(null, null, null, null, 20);
+		pagina.getPedidos().forEach(this::renderizar);
+
+		assertEquals(20, pagina.getPedidos().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void paginaDoClienteCarregaAssociacoesEmUmaConsulta() {
+		Cliente cliente = clienteRepository.findById(1L).orElseThrow();
+		statistics.clear();
+
+		PaginaPedidos pagina = pedidoService.buscarPaginaPorCliente(cliente, null, null, null, null, 20);
+		pagina.getPedidos().forEach(this::renderizar);
+
+		assertFalse(pagina.getPedidos().isEmpty());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	// Acessa as mesmas propriedades que os templates de listagem
+	private void renderizar(PedidoAluguel pedido) {
+		pedido.getCliente().getNome();
+		pedido.getAutomovel().getMarca();
+		if (pedido.getAgente() != null) {
+			pedido.getAgente().getNomeEmpresa();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.Cliente;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.model.Rendimento;
+import com.pucminas.rental_system.repository.ClienteRepository;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = RentalSystemApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:creditotestdb")
+class AnaliseCreditoServiceTests {
+
+	@Autowired private AnaliseCreditoService analiseCreditoService;
+	@Autowired private PedidoAluguelService pedidoService;
+	@Autowired private PedidoAluguelRepository pedidoRepository;
+	@Autowired private ClienteRepository clienteRepository;
+	@Autowired private DisponibilidadeService disponibilidadeService;
+	@Autowired private EstatisticaPedidosService estatisticaService;
+
+	@BeforeEach
+	void setUp() {
+		pedidoRepository.deleteAll();
+		disponibilidadeService.carregarReservas();
+		estatisticaService.reconstruir();
+	}
+
+	@Test
+	void clienteSemRendaFicaComRiscoAlto() {
+		declararRenda(0);
+		PedidoAluguel pedido = pedidoService.criarPedido(1L, 101L, "2030-01-10T10:00", "2030-01-12T10:00");
+		analiseCreditoService.calcularTudo();
+
+		AnaliseCredito analise = analiseCreditoService.analisar(Map.of(pedido.getId(), 1L)).get(pedido.getId());
+		assertEquals(AnaliseCredito.Risco.ALTO, analise.getRisco());
+		assertTrue(analise.isSemRenda());
+	}
+
+	@Test
+	void aprovacaoAutomaticaSomaOsPedidosDoMesmoCliente() {
+		PedidoAluguel primeiro = pedidoService.criarPedido(1L, 101L, "2030-02-10T10:00", "2030-02-12T10:00");
+		PedidoAluguel segundo = pedidoService.criarPedido(1L, 102L, "2030-02-10T10:00", "2030-02-12T10:00");
+		// Com preços parecidos, cada pedido sozinho compromete ~20% da renda; os dois juntos, 40%
+		declararRenda((primeiro.getValorTotal() + segundo.getValorTotal()) / 0.4);
+		analiseCreditoService.calcularTudo();
+
+		assertEquals(AnaliseCredito.Risco.BAIXO, analiseCreditoService.analisar(Map.of(primeiro.getId(), 1L)).get(primeiro.getId()).getRisco());
+		assertEquals(AnaliseCredito.Risco.BAIXO, analiseCreditoService.analisar(Map.of(segundo.getId(), 1L)).get(segundo.getId()).getRisco());
+		assertEquals(1, analiseCreditoService.selecionarBaixoRisco(100).size());
+	}
+
+	private void declararRenda(double valor) {
+		Cliente cliente = clienteRepository.findById(1L).orElseThrow();
+		List<Rendimento> rendimentos = new ArrayList<>();
+		if (valor > 0) {
+			Rendimento rendimento = new Rendimento();
+			rendimento.setEntidadeEmpregadora("Empresa");
+			rendimento.setValor(valor);
+			rendimentos.add(rendimento);
+		}
+		cliente.setRendimentos(rendimentos);
+		clienteRepository.save(cliente);
+	}
+}
@@ -0,0 +1,118 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.Cliente;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.repository.ClienteRepository;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = RentalSystemApplication.class, properties = {
+	"spring.datasource.url=jdbc:h2:mem:arquivotestdb",
+	"rental.arquivo.habilitado=true",
+	"rental.arquivo.diretorio=target/arquivo-teste"
+})
+class ArquivamentoPedidosTests {
+
+	@Autowired private ArquivamentoPedidosService arquivamentoService;
+	@Autowired private PedidoAluguelService pedidoService;
+	@Autowired private PedidoAluguelRepository pedidoRepository;
+	@Autowired private ClienteRepository clienteRepository;
+	@Autowired private EstatisticaPedidosService estatisticaService;
+	@Autowired private DisponibilidadeService disponibilidadeService;
+	@Autowired private AnaliseCreditoService analiseCreditoService;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		pedidoRepository.deleteAll();
+		disponibilidadeService.carregarReservas();
+	}
+
+	@Test
+	void historicoJuntaPedidosDoBancoComOsArquivados() {
+		// Três rejeitados em dois meses, um pendente entre eles e um aprovado com devolução futura
+		List<PedidoAluguel> pedidos = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			pedidos.add(pedidoService.criarPedido(1L, 101L + i, "2030-03-10T10:00", "2030-03-12T10:00"));
+		}
+		for (int i = 0; i < 3; i++) {
+			pedidoService.avaliarPedido(pedidos.get(i).getId(), 2L, false);
+		}
+		pedidoService.avaliarPedido(pedidos.get(4).getId(), 2L, true);
+		String[] datas = {"2020-01-10T09:00", "2020-02-10T09:00", "2020-02-11T09:00", "2020-01-20T09:00", "2020-03-01T09:00"};
+		for (int i = 0; i < 5; i++) {
+			jdbcTemplate.update("UPDATE pedido_aluguel SET data_pedido = ? WHERE id = ?", LocalDateTime.parse(datas[i]), pedidos.get(i).getId());
+		}
+		Cliente cliente = clienteRepository.findById(1L).orElseThrow();
+		List<Long> antes = ids(pedidoService.buscarPaginaPorCliente(cliente, null, null, null, null, 100).getPedidos());
+
+		assertEquals(3, arquivamentoService.arquivar(LocalDateTime.parse("2021-01-01T00:00")));
+		assertEquals(2, pedidoRepository.count());
+
+		assertEquals(antes, ids(pedidoService.buscarPaginaPorCliente(cliente, null, null, null, null, 100).getPedidos()));
+		assertEquals(antes, ids(pedidoService.buscarPagina(null, null, null, null, 100).getPedidos()));
+		assertEquals(3, pedidoService.buscarPaginaPorCliente(cliente, PedidoAluguel.PedidoStatus.REJEITADO, null, null, null, 100)
+			.getPedidos().size());
+
+		// Páginas de 2 atravessando o limite entre banco e arquivo
+		List<Long> paginado = new ArrayList<>();
+		PedidoCursor cursor = null;
+		do {
+			PaginaPedidos pagina = pedidoService.buscarPaginaPorCliente(cliente, null, null, null, cursor, 2);
+			paginado.addAll(ids(pagina.getPedidos()));
+			cursor = pagina.getProximoCursor();
+		} while (cursor != null);
+		assertEquals(antes, paginado);
+
+		estatisticaService.reconstruir();
+		assertEquals(Long.valueOf(3), pedidoService.contarPedidosPorStatus(cliente).get(PedidoAluguel.PedidoStatus.REJEITADO));
+	}
+
+	@Test
+	void aprovadoArquivadoLiberaAVagaERefazAAnaliseDoCliente() {
+		PedidoAluguel aprovado = pedidoService.criarPedido(1L, 102L, "2031-05-10T10:00", "2031-05-12T10:00");
+		pedidoService.avaliarPedido(aprovado.getId(), 2L, true);
+		PedidoAluguel pendente = pedidoService.criarPedido(1L, 103L, "2031-06-10T10:00", "2031-06-12T10:00");
+		assertTrue(analiseCreditoService.aguardarRecalculos(Duration.ofSeconds(10)));
+		assertEquals(aprovado.getValorTotal(), analiseCreditoService.analisar(Map.of(pendente.getId(), 1L))
+			.get(pendente.getId()).getValorAprovado());
+		assertFalse(disponibilidadeService.estaDisponivel(102L, LocalDateTime.parse("2031-05-10T10:00"), LocalDateTime.parse("2031-05-12T10:00")));
+
+		// Devolvido há anos: entra no arquivo
+		jdbcTemplate.update("UPDATE pedido_aluguel SET data_pedido = ?, data_devolucao = ? WHERE id = ?",
+			LocalDateTime.parse("2020-05-01T09:00"), LocalDateTime.parse("2020-05-12T10:00"), aprovado.getId());
+		assertEquals(1, arquivamentoService.arquivar(LocalDateTime.parse("2021-01-01T00:00")));
+
+		assertTrue(disponibilidadeService.estaDisponivel(102L, LocalDateTime.parse("2031-05-10T10:00"), LocalDateTime.parse("2031-05-12T10:00")));
+		assertTrue(analiseCreditoService.aguardarRecalculos(Duration.ofSeconds(10)));
+		assertEquals(0.0, analiseCreditoService.analisar(Map.of(pendente.getId(), 1L)).get(pendente.getId()).getValorAprovado());
+
+		// Na listagem, a linha arquivada vem marcada e a do banco não
+		Map<Long, Boolean> arquivado = new HashMap<>();
+		for (PedidoAluguel pedido : pedidoService.buscarPaginaPorCliente(clienteRepository.findById(1L).orElseThrow(),
+				null, null, null, null, 100).getPedidos()) {
+			arquivado.put(pedido.getId(), pedido.isArquivado());
+		}
+		assertEquals(Boolean.TRUE, arquivado.get(aprovado.getId()));
+		assertEquals(Boolean.FALSE, arquivado.get(pendente.getId()));
+	}
+
+	private List<Long> ids(List<PedidoAluguel> pedidos) {
+		return pedidos.stream().map(PedidoAluguel::getId).toList();
+	}
+}
@@ -0,0 +1,99 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = RentalSystemApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:avaliacaolotetestdb")
+class AvaliacaoEmLoteTests {
+
+	@Autowired private PedidoAluguelService pedidoService;
+	@Autowired private PedidoAluguelRepository pedidoRepository;
+	@Autowired private DisponibilidadeService disponibilidadeService;
+	@Autowired private EstatisticaPedidosService estatisticaService;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		pedidoRepository.deleteAll();
+		disponibilidadeService.carregarReservas();
+		estatisticaService.reconstruir();
+	}
+
+	@Test
+	void cadaIdRecebeASuaSituacaoNaOrdemPedida() {
+		List<Long> ids = criarPendentes(4);
+		pedidoService.avaliarPedido(ids.get(1), 2L, true);
+		// Reservado por outro agente até daqui a 10 minutos
+		jdbcTemplate.update("UPDATE pedido_aluguel SET reservado_por = 99, reservado_ate = ? WHERE id = ?",
+			LocalDateTime.now().plusMinutes(10), ids.get(2));
+
+		List<ResultadoAvaliacao> resultados = pedidoService.avaliarPedidos(
+			List.of(ids.get(3), 999_999L, ids.get(1), ids.get(2), ids.get(0), ids.get(3)), 2L, true);
+
+		// O id repetido aparece uma vez, na primeira posição em que veio
+		assertEquals(List.of(ids.get(3), 999_999L, ids.get(1), ids.get(2), ids.get(0)),
+			resultados.stream().map(ResultadoAvaliacao::getPedidoId).toList());
+		assertEquals(List.of(ResultadoAvaliacao.Situacao.AVALIADO, ResultadoAvaliacao.Situacao.NAO_ENCONTRADO,
+				ResultadoAvaliacao.Situacao.JA_AVALIADO, ResultadoAvaliacao.Situacao.RESERVADO_POR_OUTRO,
+				ResultadoAvaliacao.Situacao.AVALIADO),
+			resultados.stream().map(ResultadoAvaliacao::getSituacao).toList());
+
+		assertEquals(PedidoAluguel.PedidoStatus.APROVADO, status(ids.get(0)));
+		assertEquals(PedidoAluguel.PedidoStatus.PENDENTE, status(ids.get(2)));
+		assertEquals(PedidoAluguel.PedidoStatus.APROVADO, status(ids.get(3)));
+		assertEquals(2L, pedidoRepository.findById(ids.get(3)).orElseThrow().getAgente().getId());
+	}
+
+	@Test
+	void rejeicaoEmLoteLiberaAAgendaEAtualizaOsContadores() {
+		List<Long> ids = criarPendentes(3);
+
+		List<ResultadoAvaliacao> resultados = pedidoService.avaliarPedidos(List.of(ids.get(0), ids.get(1)), 2L, false);
+
+		assertTrue(resultados.stream().allMatch(r -> r.getSituacao() == ResultadoAvaliacao.Situacao.AVALIADO));
+		assertTrue(disponibilidadeService.estaDisponivel(101L, inicio(0), inicio(0).plusDays(2)));
+		assertTrue(disponibilidadeService.estaDisponivel(102L, inicio(1), inicio(1).plusDays(2)));
+		assertFalse(disponibilidadeService.estaDisponivel(103L, inicio(2), inicio(2).plusDays(2)));
+		assertEquals(1L, estatisticaService.contarPorStatus().get(PedidoAluguel.PedidoStatus.PENDENTE));
+		assertEquals(2L, estatisticaService.contarPorStatus().get(PedidoAluguel.PedidoStatus.REJEITADO));
+	}
+
+	@Test
+	void listaVaziaNaoAvaliaNada() {
+		criarPendentes(1);
+
+		assertTrue(pedidoService.avaliarPedidos(List.of(), 2L, true).isEmpty());
+		assertNull(pedidoRepository.findAll().get(0).getAgente());
+	}
+
+	private List<Long> criarPendentes(int quantidade) {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < quantidade; i++) {
+			ids.add(pedidoService.criarPedido(1L, 101L + i, inicio(i).format(PedidoAluguelService.FORMATO_DATA),
+				inicio(i).plusDays(2).format(PedidoAluguelService.FORMATO_DATA)).getId());
+		}
+		return ids;
+	}
+
+	private LocalDateTime inicio(int i) {
+		return LocalDateTime.parse("2033-01-10T10:00").plusDays(i * 5L);
+	}
+
+	private PedidoAluguel.PedidoStatus status(Long id) {
+		return pedidoRepository.findById(id).orElseThrow().getStatus();
+	}
+}
@@ -0,0 +1,95 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.Automovel;
+import com.pucminas.rental_system.repository.AutomovelRepository;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 2032-03-10 é uma quarta-feira, fora das regras sazonais e de fim de semana dos dados iniciais
+@SpringBootTest(classes = RentalSystemApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:cotacaotestdb")
+class CotacaoServiceTests {
+
+	@Autowired private CotacaoService cotacaoService;
+	@Autowired private PedidoAluguelService pedidoService;
+	@Autowired private PedidoAluguelRepository pedidoRepository;
+	@Autowired private DisponibilidadeService disponibilidadeService;
+	@Autowired private FrotaService frotaService;
+	@Autowired private PrecoService precoService;
+	@Autowired private AutomovelRepository automovelRepository;
+
+	@BeforeEach
+	void setUp() {
+		pedidoRepository.deleteAll();
+		disponibilidadeService.carregarReservas();
+		cotacaoService.getCache().limpar();
+	}
+
+	@Test
+	void mesmoDiaEMesmasDiariasReaproveitamOPreco() {
+		ResultadoCotacao primeira = cotar(101L, "2032-03-10T09:00", "2032-03-11T09:00");
+		long acertos = cotacaoService.getCache().getAcertos();
+
+		// Outro horário no mesmo dia, mesma quantidade de diárias
+		ResultadoCotacao segunda = cotar(101L, "2032-03-10T15:00", "2032-03-11T15:00");
+
+		assertEquals(acertos + 1, cotacaoService.getCache().getAcertos());
+		assertEquals(primeira.getCotacao().getTotalCentavos(), segunda.getCotacao().getTotalCentavos());
+		assertEquals(7000, segunda.getCotacao().getTotalCentavos());
+	}
+
+	@Test
+	void novaDiariaNaoUsaOPrecoDaTabelaAnterior() {
+		long versao = precoService.getTabela().getVersao();
+		assertEquals(12000, cotar(103L, "2032-03-10T09:00", "2032-03-11T09:00").getCotacao().getTotalCentavos());
+
+		Automovel golf = automovelRepository.findById(103L).orElseThrow();
+		golf.setValorAluguelDiario(240.0);
+		frotaService.salvar(golf);
+
+		assertEquals(24000, cotar(103L, "2032-03-10T09:00", "2032-03-11T09:00").getCotacao().getTotalCentavos());
+		assertTrue(precoService.getTabela().getVersao() > versao);
+	}
+
+	@Test
+	void disponibilidadeNaoVemDoCache() {
+		assertTrue(cotar(102L, "2032-03-10T09:00", "2032-03-12T09:00").isDisponivel());
+
+		pedidoService.criarPedido(1L, 102L, "2032-03-10T10:00", "2032-03-11T10:00");
+
+		assertFalse(cotar(102L, "2032-03-10T09:00", "2032-03-12T09:00").isDisponivel());
+	}
+
+	@Test
+	void automovelInexistenteFicaDeFora() {
+		List<ResultadoCotacao> resultados = cotacaoService.cotar(List.of(101L, 999_999L), "2032-03-10T09:00", "2032-03-11T09:00");
+
+		assertEquals(1, resultados.size());
+		assertEquals(101L, resultados.get(0).getCotacao().getAutomovelId());
+		assertEquals(frotaService.listar().size(),
+				cotacaoService.cotar(List.of(), "2032-03-10T09:00", "2032-03-11T09:00").size());
+	}
+
+	@Test
+	void periodoInvalidoERecusado() {
+		assertThrows(PedidoAluguelService.PedidoInvalidoException.class,
+				() -> cotacaoService.cotar(List.of(101L), "amanhã", "2032-03-11T09:00"));
+		assertThrows(PedidoAluguelService.PedidoInvalidoException.class,
+				() -> cotacaoService.cotar(List.of(101L), "2032-03-12T09:00", "2032-03-11T09:00"));
+	}
+
+	private ResultadoCotacao cotar(Long automovelId, String retirada, String devolucao) {
+		List<ResultadoCotacao> resultados = cotacaoService.cotar(List.of(automovelId), retirada, devolucao);
+		assertEquals(1, resultados.size());
+		return resultados.get(0);
+	}
+}
@@ -0,0 +1,132 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Os contadores materializados precisam bater com um GROUP BY sobre pedido_aluguel depois de cada operação
+@SpringBootTest(classes = RentalSystemApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:estatisticatestdb")
+class EstatisticaPedidosServiceTests {
+
+	@Autowired private PedidoAluguelService pedidoService;
+	@Autowired private PedidoAluguelRepository pedidoRepository;
+	@Autowired private DisponibilidadeService disponibilidadeService;
+	@Autowired private EstatisticaPedidosService estatisticaService;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		pedidoRepository.deleteAll();
+		jdbcTemplate.update("DELETE FROM estatistica_cliente WHERE cliente_id <> 1");
+		jdbcTemplate.update("DELETE FROM cliente WHERE id <> 1");
+		jdbcTemplate.update("DELETE FROM users WHERE id NOT IN (1, 2)");
+		disponibilidadeService.carregarReservas();
+		estatisticaService.reconstruir();
+	}
+
+	@Test
+	void contadoresAcompanhamCriacaoEAvaliacao() {
+		PedidoAluguel primeiro = pedidoService.criarPedido(1L, 101L, "2033-01-10T10:00", "2033-01-12T10:00");
+		PedidoAluguel segundo = pedidoService.criarPedido(1L, 102L, "2033-01-10T10:00", "2033-01-13T10:00");
+		PedidoAluguel terceiro = pedidoService.criarPedido(1L, 103L, "2033-01-10T10:00", "2033-01-14T10:00");
+		PedidoAluguel quarto = pedidoService.criarPedido(1L, 104L, "2033-01-10T10:00", "2033-01-15T10:00");
+		conferir();
+
+		pedidoService.avaliarPedido(primeiro.getId(), 2L, true);
+		conferir();
+
+		pedidoService.avaliarPedidos(List.of(segundo.getId(), terceiro.getId()), 2L, true);
+		conferir();
+
+		pedidoService.avaliarPedidos(List.of(quarto.getId()), 2L, false);
+		conferir();
+	}
+
+	@Test
+	void primeirosPedidosSimultaneosDeClienteNovo() throws Exception {
+		jdbcTemplate.update("INSERT INTO users (id, email, password, role) VALUES (500, 'novo@email.com', 'x', 'ROLE_CLIENTE')");
+		jdbcTemplate.update("INSERT INTO cliente (id, nome) VALUES (500, 'Cliente Novo')");
+
+		// Automóveis diferentes: nenhum lock em comum, as duas transações procuram a linha do cliente ao mesmo tempo
+		CountDownLatch largada = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<PedidoAluguel> a = executor.submit(pedidoNaLargada(largada, 101L));
+			Future<PedidoAluguel> b = executor.submit(pedidoNaLargada(largada, 102L));
+			largada.countDown();
+			a.get();
+			b.get();
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(2L, jdbcTemplate.queryForObject(
+				"SELECT pendentes FROM estatistica_cliente WHERE cliente_id = 500", Long.class));
+		conferir();
+	}
+
+	@Test
+	void subidaSoMontaContadoresComTabelaVazia() {
+		pedidoService.criarPedido(1L, 101L, "2033-03-10T10:00", "2033-03-12T10:00");
+		// Incremento gravado por outra instância, que não está em pedido_aluguel deste teste
+		jdbcTemplate.update("UPDATE estatistica_cliente SET pendentes = pendentes + 5 WHERE cliente_id = 1");
+
+		estatisticaService.afterSingletonsInstantiated();
+		assertEquals(6L, jdbcTemplate.queryForObject("SELECT pendentes FROM estatistica_cliente WHERE cliente_id = 1", Long.class));
+
+		jdbcTemplate.update("DELETE FROM estatistica_cliente");
+		estatisticaService.afterSingletonsInstantiated();
+		conferir();
+	}
+
+	private Callable<PedidoAluguel> pedidoNaLargada(CountDownLatch largada, Long automovelId) {
+		return () -> {
+			largada.await();
+			return pedidoService.criarPedido(500L, automovelId, "2033-02-10T10:00", "2033-02-12T10:00");
+		};
+	}
+
+	private void conferir() {
+		Map<String, Long> esperadoStatus = new HashMap<>();
+		jdbcTemplate.query("SELECT status, COUNT(*) FROM pedido_aluguel GROUP BY status",
+				rs -> { esperadoStatus.put(rs.getString(1), rs.getLong(2)); });
+		for (PedidoAluguel.PedidoStatus status : PedidoAluguel.PedidoStatus.values()) {
+			assertEquals(esperadoStatus.getOrDefault(status.name(), 0L),
+					estatisticaService.contarPorStatus().getOrDefault(status, 0L), status.name());
+		}
+
+		List<Map<String, Object>> esperadoCliente = jdbcTemplate.queryForList(
+				"SELECT cliente_id, " +
+				"SUM(CASE WHEN status = 'PENDENTE' THEN 1 ELSE 0 END) AS pendentes, " +
+				"SUM(CASE WHEN status = 'APROVADO' THEN 1 ELSE 0 END) AS aprovados, " +
+				"SUM(CASE WHEN status = 'REJEITADO' THEN 1 ELSE 0 END) AS rejeitados, " +
+				"SUM(CASE WHEN status = 'CANCELADO' THEN 1 ELSE 0 END) AS cancelados, " +
+				"COALESCE(SUM(CASE WHEN status IN ('PENDENTE', 'APROVADO') THEN valor_total END), 0) AS valor_ativo " +
+				"FROM pedido_aluguel GROUP BY cliente_id");
+		for (Map<String, Object> linha : esperadoCliente) {
+			Map<String, Object> contadores = jdbcTemplate.queryForMap(
+					"SELECT * FROM estatistica_cliente WHERE cliente_id = ?", linha.get("CLIENTE_ID"));
+			for (String coluna : List.of("PENDENTES", "APROVADOS", "REJEITADOS", "CANCELADOS")) {
+				assertEquals(((Number) linha.get(coluna)).longValue(), ((Number) contadores.get(coluna)).longValue(),
+						coluna + " do cliente " + linha.get("CLIENTE_ID"));
+			}
+			assertEquals(((Number) linha.get("VALOR_ATIVO")).doubleValue(),
+					((Number) contadores.get("VALOR_ATIVO")).doubleValue(), 0.001);
+		}
+	}
+}
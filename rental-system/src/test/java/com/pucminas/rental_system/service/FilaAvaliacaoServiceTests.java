@@ -0,0 +1,110 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Reservas vencidas são simuladas movendo reservado_ate para o passado; 99 faz o papel de um segundo agente
+@SpringBootTest(classes = RentalSystemApplication.class, properties = {
+	"spring.datasource.url=jdbc:h2:mem:filaavaliacaotestdb",
+	"rental.fila.lote=3"
+})
+class FilaAvaliacaoServiceTests {
+
+	@Autowired private FilaAvaliacaoService filaService;
+	@Autowired private PedidoAluguelService pedidoService;
+	@Autowired private PedidoAluguelRepository pedidoRepository;
+	@Autowired private DisponibilidadeService disponibilidadeService;
+	@Autowired private EstatisticaPedidosService estatisticaService;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		pedidoRepository.deleteAll();
+		disponibilidadeService.carregarReservas();
+		estatisticaService.reconstruir();
+		criarPendentes(5);
+	}
+
+	@Test
+	void loteSoECompletadoAteOTamanhoConfigurado() {
+		List<Long> primeira = ids(filaService.reservarLote(2L));
+		assertEquals(3, primeira.size());
+		assertEquals(primeira, ids(filaService.reservarLote(2L)));
+
+		pedidoService.avaliarPedido(primeira.get(0), 2L, true);
+		List<Long> depois = ids(filaService.reservarLote(2L));
+
+		assertEquals(3, depois.size());
+		assertFalse(depois.contains(primeira.get(0)));
+		assertTrue(depois.containsAll(primeira.subList(1, 3)));
+	}
+
+	@Test
+	void reservaVencidaSaiDaFilaEPodeSerTomadaPorOutroAgente() {
+		List<Long> doPrimeiro = ids(filaService.reservarLote(99L));
+		Long vencido = doPrimeiro.get(0);
+		vencer(vencido);
+
+		assertEquals(doPrimeiro.subList(1, 3), ids(filaService.minhaFila(99L)));
+
+		List<Long> doSegundo = ids(filaService.reservarLote(2L));
+		// O segundo agente leva os dois nunca reservados e o vencido
+		assertEquals(3, doSegundo.size());
+		assertTrue(doSegundo.contains(vencido));
+		Set<Long> todos = new HashSet<>(doSegundo);
+		todos.addAll(doPrimeiro.subList(1, 3));
+		assertEquals(5, todos.size());
+
+		// O primeiro agente não recupera o pedido, e a fila não tem mais livres para completar a dele
+		assertEquals(doPrimeiro.subList(1, 3), ids(filaService.reservarLote(99L)));
+		assertEquals(PedidoAluguel.PedidoStatus.APROVADO, pedidoService.avaliarPedido(vencido, 2L, true).getStatus());
+	}
+
+	@Test
+	void pedidoComReservaVencidaPodeSerAvaliadoSemNovaReserva() {
+		Long pedidoId = filaService.reservarLote(99L).get(0).getId();
+		vencer(pedidoId);
+
+		assertEquals(PedidoAluguel.PedidoStatus.REJEITADO, pedidoService.avaliarPedido(pedidoId, 2L, false).getStatus());
+	}
+
+	@Test
+	void liberarDevolveTudoParaAFila() {
+		filaService.reservarLote(99L);
+
+		assertEquals(3, filaService.liberar(99L));
+		assertTrue(filaService.minhaFila(99L).isEmpty());
+		assertEquals(3, filaService.reservarLote(2L).size());
+		assertEquals(0, filaService.liberar(99L));
+	}
+
+	private void vencer(Long pedidoId) {
+		jdbcTemplate.update("UPDATE pedido_aluguel SET reservado_ate = ? WHERE id = ?", LocalDateTime.now().minusMinutes(1), pedidoId);
+	}
+
+	private void criarPendentes(int quantidade) {
+		LocalDateTime inicio = LocalDateTime.of(2034, 1, 1, 10, 0);
+		for (int i = 0; i < quantidade; i++) {
+			pedidoService.criarPedido(1L, 101L + i, inicio.format(PedidoAluguelService.FORMATO_DATA),
+					inicio.plusDays(2).format(PedidoAluguelService.FORMATO_DATA));
+		}
+	}
+
+	private List<Long> ids(List<PedidoAluguel> pedidos) {
+		return pedidos.stream().map(PedidoAluguel::getId).toList();
+	}
+}
@@ -0,0 +1,74 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.repository.AutomovelRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = RentalSystemApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:frotaarquivotestdb")
+class FrotaArquivoServiceTests {
+
+	private static final int VEICULOS = 20_000;
+
+	@Autowired private FrotaArquivoService arquivoService;
+	@Autowired private FrotaService frotaService;
+	@Autowired private AutomovelRepository automovelRepository;
+
+	@Test
+	void importaFrotaGrandeRelatandoDuplicadosEInvalidos() throws Exception {
+		long antes = automovelRepository.count();
+		StringBuilder csv = new StringBuilder("placa,matricula,marca,modelo,ano,cor,valorAluguelDiario\n");
+		for (int i = 0; i < VEICULOS; i++) {
+			csv.append("IMP-").append(i).append(",IMP").append(i).append(",Marca,\"Modelo, Sedan\",2024,Prata,")
+				.append(80 + i % 50).append('\n');
+		}
+		csv.append("ABC-1234,NOVA1,Fiat,Mobi,2023,Branco,70\n");   // placa dos dados iniciais
+		csv.append("imp 0,NOVA2,Fiat,Mobi,2023,Branco,70\n");      // repetida no próprio arquivo
+		csv.append("NOV-0003,NOVA3,Fiat,Mobi,1800,Branco,70\n");   // ano inválido
+		csv.append("NOV-0004,NOVA4,Fiat,Mobi,2023,Branco,abc\n");  // diária inválida
+		csv.append("NOV-0005,NOVA5,Fiat\n");                       // colunas faltando
+
+		ResultadoImportacao resultado = arquivoService.importarCsv(
+				new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(VEICULOS, resultado.getImportados());
+		assertEquals(2, resultado.getDuplicados());
+		assertEquals(3, resultado.getInvalidos());
+		assertEquals(VEICULOS + 2, resultado.getErros().get(0).linha());
+		assertEquals(antes + VEICULOS, automovelRepository.count());
+		assertEquals(antes + VEICULOS, frotaService.listar().size());
+
+		// A exportação reimportada não traz nada novo: tudo é duplicado
+		ByteArrayOutputStream json = new ByteArrayOutputStream();
+		arquivoService.exportarJson(json);
+		ResultadoImportacao reimportacao = arquivoService.importarJson(new ByteArrayInputStream(json.toByteArray()));
+		assertEquals(0, reimportacao.getImportados());
+		assertEquals(antes + VEICULOS, reimportacao.getDuplicados());
+
+		ByteArrayOutputStream exportado = new ByteArrayOutputStream();
+		arquivoService.exportarCsv(exportado);
+		assertTrue(exportado.toString(StandardCharsets.UTF_8).contains(",IMP7,IMP-7,Marca,\"Modelo, Sedan\",2024,Prata,87.0\n"));
+	}
+
+	@Test
+	void erroDoBancoQueNaoEDuplicidadeMostraACausa() throws Exception {
+		String csv = "placa,matricula,marca,modelo,ano,cor,valorAluguelDiario\n"
+			+ "LNG-0001,LNG1,Fiat,Mobi,2023,Branco,70\n"
+			+ "LNG-0002,LNG2,Fiat," + "M".repeat(300) + ",2023,Branco,70\n";   // maior que a coluna
+
+		ResultadoImportacao resultado = arquivoService.importarCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(1, resultado.getImportados());
+		assertEquals(0, resultado.getDuplicados());
+		assertEquals(1, resultado.getInvalidos());
+		assertEquals(3, resultado.getErros().get(0).linha());
+		assertTrue(resultado.getErros().get(0).mensagem().startsWith("Erro ao gravar: "), resultado.getErros().get(0).mensagem());
+	}
+}
@@ -0,0 +1,74 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.Automovel;
+import com.pucminas.rental_system.repository.AutomovelRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = RentalSystemApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:frotatestdb")
+class FrotaServiceTests {
+
+	@Autowired private FrotaService frotaService;
+	@Autowired private AutomovelRepository automovelRepository;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void placaOuMatriculaRepetidaERecusada() {
+		long antes = automovelRepository.count();
+
+		// Mesma comparação da importação: "abc 1234" é a placa ABC-1234 dos dados iniciais
+		FrotaService.AutomovelDuplicadoException placa = assertThrows(FrotaService.AutomovelDuplicadoException.class,
+				() -> frotaService.salvar(automovel("abc 1234", "NOVA-1")));
+		assertEquals("Placa já cadastrada: abc 1234", placa.getMessage());
+		FrotaService.AutomovelDuplicadoException matricula = assertThrows(FrotaService.AutomovelDuplicadoException.class,
+				() -> frotaService.salvar(automovel("NOV-0001", "mat01")));
+		assertEquals("Matrícula já cadastrada: mat01", matricula.getMessage());
+
+		// Outro automóvel não pode ficar com a placa de um existente
+		Automovel onix = automovelRepository.findById(102L).orElseThrow();
+		onix.setPlaca("ABC-1234");
+		assertThrows(FrotaService.AutomovelDuplicadoException.class, () -> frotaService.salvar(onix));
+
+		assertEquals(antes, automovelRepository.count());
+		assertEquals(antes, frotaService.listar().size());
+	}
+
+	@Test
+	void edicaoMantendoAPropriaPlacaContinuaValendo() {
+		Automovel golf = automovelRepository.findById(103L).orElseThrow();
+		golf.setCor("Verde");
+
+		assertEquals("Verde", frotaService.salvar(golf).getCor());
+		assertEquals("Verde", frotaService.getSnapshot().buscar(103L).getCor());
+	}
+
+	@Test
+	void duplicadoGravadoPorOutraInstanciaViraErroDeCadastro() {
+		// Gravado direto no banco: a fotografia em memória não conhece este automóvel
+		frotaService.listar();
+		jdbcTemplate.update("INSERT INTO automovel (matricula, ano, marca, modelo, placa, cor, valor_aluguel_diario, version) " +
+				"VALUES ('EXT-1', 2024, 'Fiat', 'Argo', 'EXT-0001', 'Preto', 90, 0)");
+
+		FrotaService.AutomovelDuplicadoException erro = assertThrows(FrotaService.AutomovelDuplicadoException.class,
+				() -> frotaService.salvar(automovel("EXT-0001", "EXT-2")));
+		assertEquals("Placa ou matrícula já cadastrada.", erro.getMessage());
+	}
+
+	private Automovel automovel(String placa, String matricula) {
+		Automovel automovel = new Automovel();
+		automovel.setPlaca(placa);
+		automovel.setMatricula(matricula);
+		automovel.setMarca("Fiat");
+		automovel.setModelo("Argo");
+		automovel.setAno(2024);
+		automovel.setCor("Preto");
+		automovel.setValorAluguelDiario(90);
+		return automovel;
+	}
+}
@@ -0,0 +1,118 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Automovel;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Busca textual, filtros e facetas do índice em memória sobre uma frota fixa, sem Spring
+class FrotaSnapshotTests {
+
+	private final FrotaSnapshot frota = new FrotaSnapshot(1, List.of(
+			automovel(4L, "Chevrolet", "Onix Plus", "Prata", "DEF-5678", 2024, 90),
+			automovel(1L, "Fiat", "Mobi", "Branco", "ABC-1234", 2023, 70),
+			automovel(2L, "Fiat", "Pulse Impetus", "Vermelho", "FIA-0002", 2024, 150),
+			automovel(3L, "Citroën", "C3", "Prata", "CIT-0003", 2022, 100),
+			automovel(5L, "Honda", "Civic", "Preto", "HON-0005", 2023, 300)));
+
+	@Test
+	void textoCasaPrefixoDeCadaPalavraSemAcentoNemCaixa() {
+		assertEquals(List.of(3L), ids(buscar(filtro("citro"))));
+		assertEquals(List.of(3L, 4L), ids(buscar(filtro("PRATA"))));
+		// Todas as palavras precisam casar, em campos diferentes
+		assertEquals(List.of(4L), ids(buscar(filtro("prata on"))));
+		assertEquals(List.of(), ids(buscar(filtro("prata civic"))));
+		// Placa sem pontuação
+		assertEquals(List.of(1L), ids(buscar(filtro("abc1234"))));
+		assertEquals(List.of(1L), ids(buscar(filtro("abc-12"))));
+	}
+
+	@Test
+	void marcaAnoEPrecoCombinamComOTexto() {
+		FiltroFrota fiat = filtro(null);
+		fiat.setMarca("fiat");
+		assertEquals(List.of(1L, 2L), ids(buscar(fiat)));
+
+		FiltroFrota faixa = filtro(null);
+		faixa.setAnoMin(2023);
+		faixa.setPrecoMin(90.0);
+		faixa.setPrecoMax(150.0);
+		// Limites de preço inclusivos
+		assertEquals(List.of(2L, 4L), ids(buscar(faixa)));
+
+		FiltroFrota invertido = filtro(null);
+		invertido.setAnoMin(2024);
+		invertido.setAnoMax(2022);
+		assertEquals(0, frota.buscar(invertido, 10).getTotal());
+	}
+
+	@Test
+	void facetasContamTodosOsResultadosMesmoComLimite() {
+		ResultadoBuscaFrota resultado = frota.buscar(filtro(null), 2);
+
+		assertEquals(List.of(1L, 2L), ids(resultado.getAutomoveis()));
+		assertEquals(5, resultado.getTotal());
+		assertEquals(Map.of(2024, 2, 2023, 2, 2022, 1), resultado.getPorAno());
+		assertEquals(List.of(2024, 2023, 2022), List.copyOf(resultado.getPorAno().keySet()));
+		// Faixas semiabertas: 100 cai em 100-150 e 150 em 150-200; faixas vazias não aparecem
+		assertEquals(Map.of("0-100", 2, "100-150", 1, "150-200", 1, "300-", 1), resultado.getPorFaixaPreco());
+
+		ResultadoBuscaFrota prata = frota.buscar(filtro("prata"), 10);
+		assertEquals(Map.of(2024, 1, 2022, 1), prata.getPorAno());
+		assertEquals(Map.of("0-100", 1, "100-150", 1), prata.getPorFaixaPreco());
+	}
+
+	@Test
+	void sugestoesPeloUltimoPrefixoNaGrafiaOriginal() {
+		// "Prata" aparece em dois automóveis; "Plus", "Preto" e "Pulse" empatam em um e seguem a ordem alfabética
+		assertEquals(List.of("Prata", "Plus", "Preto"), frota.sugerir("p", 3));
+		assertEquals(List.of("Citroën"), frota.sugerir("onix citr", 5));
+		assertTrue(frota.sugerir("  ", 5).isEmpty());
+	}
+
+	@Test
+	void alteracaoGeraNovaFotografiaSemMexerNaAnterior() {
+		FrotaSnapshot alterada = frota.comAutomovel(automovel(3L, "Citroën", "C4 Cactus", "Azul", "CIT-0003", 2022, 120));
+
+		assertEquals(2, alterada.getVersao());
+		assertEquals(List.of(3L), ids(alterada.filtrar(filtro("cactus"))));
+		assertEquals(List.of(), ids(frota.filtrar(filtro("cactus"))));
+		assertEquals("C3", frota.buscar(3L).getModelo());
+		assertEquals(5, alterada.getAutomoveis().size());
+		assertSame(frota.getAutomoveis(), frota.filtrar(new FiltroFrota()));
+		assertNull(frota.buscar(99L));
+		assertEquals(List.of("Chevrolet", "Citroën", "Fiat", "Honda"), frota.getMarcas());
+	}
+
+	private List<Automovel> buscar(FiltroFrota filtro) {
+		return frota.buscar(filtro, 10).getAutomoveis();
+	}
+
+	private FiltroFrota filtro(String texto) {
+		FiltroFrota filtro = new FiltroFrota();
+		filtro.setTexto(texto);
+		return filtro;
+	}
+
+	private List<Long> ids(List<Automovel> automoveis) {
+		return automoveis.stream().map(Automovel::getId).toList();
+	}
+
+	private static Automovel automovel(Long id, String marca, String modelo, String cor, String placa, int ano, double diaria) {
+		Automovel automovel = new Automovel();
+		automovel.setId(id);
+		automovel.setMarca(marca);
+		automovel.setModelo(modelo);
+		automovel.setCor(cor);
+		automovel.setPlaca(placa);
+		automovel.setMatricula("MAT" + id);
+		automovel.setAno(ano);
+		automovel.setValorAluguelDiario(diaria);
+		return automovel;
+	}
+}
@@ -0,0 +1,152 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = RentalSystemApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:concorrenciatestdb")
+class PedidoAluguelConcorrenciaTests {
+
+	private static final int THREADS = 32;
+
+	@Autowired private PedidoAluguelService pedidoService;
+	@Autowired private PedidoAluguelRepository pedidoRepository;
+	@Autowired private DisponibilidadeService disponibilidadeService;
+	@Autowired private EstatisticaPedidosService estatisticaService;
+	@Autowired private FilaAvaliacaoService filaService;
+
+	@BeforeEach
+	void setUp() {
+		pedidoRepository.deleteAll();
+		disponibilidadeService.carregarReservas();
+		estatisticaService.reconstruir();
+	}
+
+	@Test
+	void reservasSimultaneasDoMesmoCarroTemUmUnicoVencedor() throws Exception {
+		int sucessos = disparar(THREADS, i -> 101L);
+
+		assertEquals(1, sucessos);
+		assertEquals(1, pedidoRepository.count());
+	}
+
+	@Test
+	void carrosDiferentesSaoReservadosEmParalelo() throws Exception {
+		int sucessos = disparar(5, i -> 101L + i);
+
+		assertEquals(5, sucessos);
+	}
+
+	@Test
+	void avaliacoesSimultaneasDoMesmoPedidoTemUmUnicoVencedor() throws Exception {
+		PedidoAluguel pedido = pedidoService.criarPedido(1L, 103L, "2031-03-01T10:00", "2031-03-05T10:00");
+
+		int sucessos = executarEmParalelo(THREADS, i -> () -> pedidoService.avaliarPedido(pedido.getId(), 2L, i % 2 == 0));
+
+		assertEquals(1, sucessos);
+	}
+
+	@Test
+	void agentesSimultaneosReservamLotesDisjuntos() throws Exception {
+		criarPendentes(20);
+		ConcurrentLinkedQueue<Long> reservados = new ConcurrentLinkedQueue<>();
+
+		executarEmParalelo(4, i -> () -> reservados.addAll(
+				filaService.reservarLote(100L + i).stream().map(PedidoAluguel::getId).toList()));
+
+		assertFalse(reservados.isEmpty());
+		assertEquals(reservados.size(), new HashSet<>(reservados).size());
+	}
+
+	@Test
+	void pedidoReservadoSoPodeSerAvaliadoPeloAgenteDaReserva() {
+		criarPendentes(1);
+		// A reserva guarda só o id do agente; 99 faz o papel de um segundo agente
+		Long pedidoId = filaService.reservarLote(99L).get(0).getId();
+
+		RuntimeException erro = assertThrows(RuntimeException.class, () -> pedidoService.avaliarPedido(pedidoId, 2L, true));
+		assertEquals("Pedido reservado por outro agente.", erro.getMessage());
+		filaService.liberar(99L);
+		assertEquals(PedidoAluguel.PedidoStatus.APROVADO, pedidoService.avaliarPedido(pedidoId, 2L, true).getStatus());
+	}
+
+	@Test
+	void reservaELiberacaoInvalidamLeiturasAnteriores() {
+		criarPendentes(1);
+		Long pedidoId = pedidoRepository.findAll().get(0).getId();
+
+		// Uma avaliação que leu o pedido antes da reserva (ou da liberação) não pode gravar por cima dela
+		PedidoAluguel antesDaReserva = pedidoRepository.findById(pedidoId).orElseThrow();
+		filaService.reservarLote(99L);
+		antesDaReserva.setStatus(PedidoAluguel.PedidoStatus.APROVADO);
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> pedidoRepository.save(antesDaReserva));
+
+		PedidoAluguel antesDaLiberacao = pedidoRepository.findById(pedidoId).orElseThrow();
+		filaService.liberar(99L);
+		antesDaLiberacao.setStatus(PedidoAluguel.PedidoStatus.APROVADO);
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> pedidoRepository.save(antesDaLiberacao));
+
+		assertEquals(PedidoAluguel.PedidoStatus.PENDENTE, pedidoRepository.findById(pedidoId).orElseThrow().getStatus());
+	}
+
+	private void criarPendentes(int quantidade) {
+		LocalDateTime inicio = LocalDateTime.of(2032, 1, 1, 10, 0);
+		for (int i = 0; i < quantidade; i++) {
+			pedidoService.criarPedido(1L, 101L + (i % 5), inicio.plusDays(i).format(PedidoAluguelService.FORMATO_DATA),
+					inicio.plusDays(i).plusHours(5).format(PedidoAluguelService.FORMATO_DATA));
+		}
+	}
+
+	private int disparar(int quantidade, IntFunction<Long> automovel) throws Exception {
+		return executarEmParalelo(quantidade,
+				i -> () -> pedidoService.criarPedido(1L, automovel.apply(i), "2031-01-10T10:00", "2031-01-15T10:00"));
+	}
+
+	// Libera todas as threads ao mesmo tempo e conta quantas operações foram concluídas sem erro
+	private int executarEmParalelo(int quantidade, IntFunction<Callable<?>> tarefa) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(quantidade);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<Boolean>> resultados = new ArrayList<>();
+		for (int i = 0; i < quantidade; i++) {
+			Callable<?> acao = tarefa.apply(i);
+			resultados.add(executor.submit(() -> {
+				largada.await();
+				try {
+					acao.call();
+					return true;
+				} catch (RuntimeException e) {
+					return false;
+				}
+			}));
+		}
+		largada.countDown();
+		int sucessos = 0;
+		for (Future<Boolean> resultado : resultados) {
+			if (resultado.get()) {
+				sucessos++;
+			}
+		}
+		executor.shutdown();
+		return sucessos;
+	}
+}
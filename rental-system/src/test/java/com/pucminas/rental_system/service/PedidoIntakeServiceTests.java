@@ -0,0 +1,119 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = RentalSystemApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:intaketestdb")
+class PedidoIntakeServiceTests {
+
+	@Autowired private PedidoIntakeService intakeService;
+	@Autowired private PedidoAluguelService pedidoService;
+	@Autowired private PedidoAluguelRepository pedidoRepository;
+	@Autowired private DisponibilidadeService disponibilidadeService;
+	@Autowired private EstatisticaPedidosService estatisticaService;
+
+	@BeforeEach
+	void setUp() {
+		pedidoRepository.deleteAll();
+		disponibilidadeService.carregarReservas();
+		estatisticaService.reconstruir();
+	}
+
+	@Test
+	void ticketNaFilaViraPedidoPendente() throws Exception {
+		TicketPedido ticket = intakeService.enviar(1L, 101L, "2032-01-10T10:00", "2032-01-12T10:00");
+
+		assertEquals(TicketPedido.Situacao.PENDENTE, aguardar(ticket).getSituacao());
+		assertNotNull(ticket.getPedidoId());
+		assertEquals(ticket, intakeService.buscarTicket(ticket.getId()));
+		assertEquals(1, pedidoRepository.count());
+	}
+
+	@Test
+	void entradaInvalidaERecusadaSemTicket() {
+		assertThrows(PedidoAluguelService.PedidoInvalidoException.class,
+				() -> intakeService.enviar(1L, 101L, "amanhã", "2032-02-12T10:00"));
+		assertThrows(PedidoAluguelService.PedidoInvalidoException.class,
+				() -> intakeService.enviar(1L, 101L, "2032-02-12T10:00", "2032-02-10T10:00"));
+		assertThrows(PedidoAluguelService.PedidoInvalidoException.class,
+				() -> intakeService.enviar(1L, 999_999L, "2032-02-10T10:00", "2032-02-12T10:00"));
+
+		pedidoService.criarPedido(1L, 102L, "2032-02-10T10:00", "2032-02-12T10:00");
+		assertThrows(PedidoAluguelService.PedidoInvalidoException.class,
+				() -> intakeService.enviar(1L, 102L, "2032-02-11T10:00", "2032-02-13T10:00"));
+		assertEquals(1, pedidoRepository.count());
+	}
+
+	@Test
+	void falhaNaGravacaoMarcaOTicket() throws Exception {
+		// Passa na validação síncrona, mas o cliente não existe: só o worker descobre
+		TicketPedido ticket = intakeService.enviar(999_999L, 103L, "2032-03-10T10:00", "2032-03-12T10:00");
+
+		assertEquals(TicketPedido.Situacao.FALHOU, aguardar(ticket).getSituacao());
+		assertEquals("Cliente não encontrado", ticket.getMensagem());
+		assertEquals(0, pedidoRepository.count());
+	}
+
+	@Test
+	void erroQueNaoEDoPedidoNaoVaiParaOTicket() throws Exception {
+		// Sem cliente a consulta nem chega ao banco: o erro é de uso da API, não do pedido
+		TicketPedido ticket = intakeService.enviar(null, 104L, "2032-04-10T10:00", "2032-04-12T10:00");
+
+		assertEquals(TicketPedido.Situacao.FALHOU, aguardar(ticket).getSituacao());
+		assertEquals("Não foi possível gravar o pedido. Tente novamente.", ticket.getMensagem());
+		assertEquals(0, pedidoRepository.count());
+	}
+
+	@Test
+	void loteDesfazSoOPedidoEmConflito() {
+		List<PedidoAluguelService.ResultadoCriacao> resultados = pedidoService.criarPedidos(List.of(
+				new PedidoAluguelService.NovoPedido(1L, 101L, "2032-05-10T10:00", "2032-05-12T10:00"),
+				new PedidoAluguelService.NovoPedido(1L, 101L, "2032-05-11T10:00", "2032-05-13T10:00"),
+				new PedidoAluguelService.NovoPedido(999_999L, 102L, "2032-05-10T10:00", "2032-05-12T10:00"),
+				new PedidoAluguelService.NovoPedido(1L, 102L, "2032-05-10T10:00", "2032-05-12T10:00")));
+
+		assertNotNull(resultados.get(0).pedidoId());
+		assertInstanceOf(PedidoAluguelService.PedidoInvalidoException.class, resultados.get(1).erro());
+		assertEquals("Cliente não encontrado", resultados.get(2).erro().getMessage());
+		assertNotNull(resultados.get(3).pedidoId());
+		assertEquals(2, pedidoRepository.count());
+		// Os savepoints desfeitos não deixam vaga presa na agenda
+		assertTrue(disponibilidadeService.estaDisponivel(101L, LocalDateTime.parse("2032-05-12T10:00"), LocalDateTime.parse("2032-05-13T10:00")));
+		assertFalse(disponibilidadeService.estaDisponivel(102L, LocalDateTime.parse("2032-05-11T10:00"), LocalDateTime.parse("2032-05-12T10:00")));
+	}
+
+	@Test
+	void loteQueNaoConfirmaERefeitoUmAUm() {
+		// O erro do primeiro pedido passa pela transação do repositório e impede o commit do lote
+		List<PedidoAluguelService.ResultadoCriacao> resultados = pedidoService.criarPedidos(List.of(
+				new PedidoAluguelService.NovoPedido(null, 103L, "2032-06-10T10:00", "2032-06-12T10:00"),
+				new PedidoAluguelService.NovoPedido(1L, 103L, "2032-06-10T10:00", "2032-06-12T10:00")));
+
+		assertNull(resultados.get(0).pedidoId());
+		assertNotNull(resultados.get(0).erro());
+		assertNotNull(resultados.get(1).pedidoId());
+		assertEquals(1, pedidoRepository.count());
+	}
+
+	private TicketPedido aguardar(TicketPedido ticket) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 10_000;
+		while (ticket.getSituacao() == TicketPedido.Situacao.NA_FILA && System.currentTimeMillis() < limite) {
+			Thread.sleep(20);
+		}
+		return ticket;
+	}
+}
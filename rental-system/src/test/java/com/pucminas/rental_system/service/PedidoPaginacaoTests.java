@@ -0,0 +1,134 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.PedidoAluguel;
+import com.pucminas.rental_system.repository.PedidoAluguelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = RentalSystemApplication.class, properties = {
+	"spring.datasource.url=jdbc:h2:mem:paginacaotestdb",
+	"rental.arquivo.habilitado=true",
+	"rental.arquivo.diretorio=target/arquivo-paginacao"
+})
+class PedidoPaginacaoTests {
+
+	private static final LocalDateTime MESMA_DATA = LocalDateTime.parse("2020-01-10T09:00");
+
+	@Autowired private PedidoAluguelService pedidoService;
+	@Autowired private ArquivamentoPedidosService arquivamentoService;
+	@Autowired private PedidoAluguelRepository pedidoRepository;
+	@Autowired private DisponibilidadeService disponibilidadeService;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		pedidoRepository.deleteAll();
+		disponibilidadeService.carregarReservas();
+	}
+
+	@Test
+	void cursorDesempataPeloIdQuandoADataSeRepete() {
+		List<Long> criados = criarComAMesmaData(5);
+		List<Long> esperado = new ArrayList<>(criados);
+		esperado.sort(Comparator.reverseOrder());
+
+		List<PaginaPedidos> paginas = paginar(2);
+
+		assertEquals(esperado, idsDe(paginas));
+		assertEquals(3, paginas.size());
+		// O cursor aponta para o último da página, com a data repetida e o id como desempate
+		PedidoCursor primeiro = paginas.get(0).getProximoCursor();
+		assertEquals(MESMA_DATA, primeiro.getDataPedido());
+		assertEquals(esperado.get(1), primeiro.getId());
+		assertNull(paginas.get(2).getProximoCursor());
+	}
+
+	@Test
+	void paginaExataNaoDeixaCursorParaPaginaVazia() {
+		criarComAMesmaData(4);
+
+		List<PaginaPedidos> paginas = paginar(2);
+
+		assertEquals(2, paginas.size());
+		assertEquals(4, idsDe(paginas).size());
+	}
+
+	@Test
+	void paginasAtravessamBancoEArquivoComAMesmaData() {
+		// Rejeitados e pendentes intercalados pelo id, todos com a mesma data: os rejeitados vão para o
+		// arquivo e a ordem (dataPedido, id) precisa continuar a mesma nas páginas mescladas
+		List<Long> criados = criarComAMesmaData(6);
+		for (int i = 0; i < criados.size(); i += 2) {
+			pedidoService.avaliarPedido(criados.get(i), 2L, false);
+		}
+		List<Long> antes = idsDe(paginar(100));
+
+		assertEquals(3, arquivamentoService.arquivar(LocalDateTime.parse("2021-01-01T00:00")));
+		assertEquals(3, pedidoRepository.count());
+
+		for (int tamanho = 1; tamanho <= 4; tamanho++) {
+			assertEquals(antes, idsDe(paginar(tamanho)), "páginas de " + tamanho);
+		}
+		PedidoCursor meio = PedidoCursor.parse(MESMA_DATA + "_" + criados.get(3));
+		assertEquals(List.of(criados.get(2), criados.get(1)),
+			ids(pedidoService.buscarPagina(null, null, null, meio, 2).getPedidos()));
+	}
+
+	@Test
+	void cursorVoltaDoTextoIgualEInvalidoERecusado() {
+		PedidoCursor cursor = PedidoCursor.parse("2020-01-10T09:00_42");
+
+		assertEquals(MESMA_DATA, cursor.getDataPedido());
+		assertEquals(42L, cursor.getId());
+		assertEquals(cursor.toString(), PedidoCursor.parse(cursor.toString()).toString());
+		assertNull(PedidoCursor.parse(" "));
+		assertThrows(RuntimeException.class, () -> PedidoCursor.parse("42"));
+		assertThrows(RuntimeException.class, () -> PedidoCursor.parse("ontem_42"));
+	}
+
+	private List<Long> criarComAMesmaData(int quantidade) {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < quantidade; i++) {
+			String retirada = "2031-0" + (i + 1) + "-10T10:00";
+			String devolucao = "2031-0" + (i + 1) + "-12T10:00";
+			ids.add(pedidoService.criarPedido(1L, 101L, retirada, devolucao).getId());
+		}
+		jdbcTemplate.update("UPDATE pedido_aluguel SET data_pedido = ?", MESMA_DATA);
+		return ids;
+	}
+
+	private List<PaginaPedidos> paginar(int tamanho) {
+		List<PaginaPedidos> paginas = new ArrayList<>();
+		PedidoCursor cursor = null;
+		do {
+			PaginaPedidos pagina = pedidoService.buscarPagina(null, null, null, cursor, tamanho);
+			paginas.add(pagina);
+			cursor = pagina.getProximoCursor();
+		} while (cursor != null);
+		return paginas;
+	}
+
+	private List<Long> idsDe(List<PaginaPedidos> paginas) {
+		List<Long> ids = new ArrayList<>();
+		for (PaginaPedidos pagina : paginas) {
+			ids.addAll(ids(pagina.getPedidos()));
+		}
+		return ids;
+	}
+
+	private List<Long> ids(List<PedidoAluguel> pedidos) {
+		return pedidos.stream().map(PedidoAluguel::getId).toList();
+	}
+}
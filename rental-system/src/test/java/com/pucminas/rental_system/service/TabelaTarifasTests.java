@@ -0,0 +1,135 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.model.Automovel;
+import com.pucminas.rental_system.model.RegraPreco;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Tabela montada sobre uma frota e regras fixas, sem Spring. O horizonte começa numa terça-feira (2030-01-01).
+class TabelaTarifasTests {
+
+	private static final LocalDate INICIO = LocalDate.of(2030, 1, 1);
+	private static final LocalDate SABADO = LocalDate.of(2030, 1, 5);
+	private static final int DIAS = 60;
+
+	private final List<RegraPreco> regras = List.of(
+			semanal(null, DayOfWeek.SATURDAY, "10"),
+			duracao(null, 7, "-5"),
+			duracao(null, 30, "-15"),
+			// O automóvel 2 tem fim de semana e desconto próprios, que substituem os gerais
+			semanal(2L, DayOfWeek.SATURDAY, "25"),
+			duracao(2L, 3, "-20"));
+
+	@Test
+	void diariaComAjusteArredondaParaOParMaisProximo() {
+		TabelaTarifas tabela = tabela(new FrotaSnapshot(1, List.of(automovel(1L, 10.15))));
+
+		// 1015 * 1,10 = 1116,5 centavos
+		assertEquals(1116, tabela.cotar(automovel(1L, 10.15), SABADO, 1).getTotalCentavos());
+		// Fora do horizonte o cálculo é dia a dia e chega no mesmo valor
+		assertEquals(1116, tabela.cotar(automovel(1L, 10.15), SABADO.plusWeeks(52), 1).getTotalCentavos());
+	}
+
+	@Test
+	void descontoPorDuracaoUsaOMaiorMinimoAtingido() {
+		TabelaTarifas tabela = tabela(new FrotaSnapshot(1, List.of(automovel(1L, 10.15))));
+
+		Cotacao seisDias = tabela.cotar(automovel(1L, 10.15), INICIO, 6);
+		assertEquals(5 * 1015 + 1116, seisDias.getSubtotalCentavos());
+		assertEquals(0, seisDias.getDescontoCentavos());
+
+		// 7206 * 5% = 360,3
+		Cotacao semana = tabela.cotar(automovel(1L, 10.15), INICIO, 7);
+		assertEquals(6 * 1015 + 1116, semana.getSubtotalCentavos());
+		assertEquals(360, semana.getDescontoCentavos());
+		assertEquals(6846, semana.getTotalCentavos());
+
+		// Quatro sábados em 30 dias; 30854 * 15% = 4628,1
+		Cotacao mes = tabela.cotar(automovel(1L, 10.15), INICIO, 30);
+		assertEquals(26 * 1015 + 4 * 1116, mes.getSubtotalCentavos());
+		assertEquals(4628, mes.getDescontoCentavos());
+	}
+
+	@Test
+	void regrasDoAutomovelSubstituemAsGerais() {
+		TabelaTarifas tabela = tabela(new FrotaSnapshot(1, List.of(automovel(1L, 100.0), automovel(2L, 100.0))));
+
+		assertEquals(11000, tabela.cotar(automovel(1L, 100.0), SABADO, 1).getTotalCentavos());
+		assertEquals(12500, tabela.cotar(automovel(2L, 100.0), SABADO, 1).getTotalCentavos());
+
+		// Só o desconto próprio de 3 dias vale para o automóvel 2, mesmo numa semana inteira
+		assertEquals(0, tabela.cotar(automovel(1L, 100.0), INICIO, 3).getDescontoCentavos());
+		assertEquals(6000, tabela.cotar(automovel(2L, 100.0), INICIO, 3).getDescontoCentavos());
+		assertEquals(14500, tabela.cotar(automovel(2L, 100.0), INICIO, 7).getDescontoCentavos());
+	}
+
+	@Test
+	void novaFrotaRecalculaSoOsAutomoveisAlterados() {
+		FrotaSnapshot frota = new FrotaSnapshot(1, List.of(automovel(1L, 10.15), automovel(2L, 100.0)));
+		TabelaTarifas anterior = tabela(frota);
+		FrotaSnapshot alterada = frota.comAutomovel(automovel(1L, 20.0)).comAutomovel(automovel(3L, 50.0));
+
+		TabelaTarifas derivada = anterior.comFrota(2, alterada);
+
+		assertEquals(alterada, derivada.getFrota());
+		assertEquals(2200, derivada.cotar(automovel(1L, 20.0), SABADO, 1).getTotalCentavos());
+		List<Cotacao> esperadas = tabela(alterada).cotarTodos(INICIO, 30);
+		List<Cotacao> obtidas = derivada.cotarTodos(INICIO, 30);
+		assertEquals(esperadas.size(), obtidas.size());
+		for (int i = 0; i < esperadas.size(); i++) {
+			assertEquals(esperadas.get(i).getAutomovelId(), obtidas.get(i).getAutomovelId());
+			assertEquals(esperadas.get(i).getSubtotalCentavos(), obtidas.get(i).getSubtotalCentavos());
+			assertEquals(esperadas.get(i).getDescontoCentavos(), obtidas.get(i).getDescontoCentavos());
+		}
+	}
+
+	@Test
+	void mesmaDiariaSemRegraPropriaCompartilhaOVetor() {
+		// 1 e 3 com a mesma diária e só regras gerais; 2 tem fim de semana próprio
+		FrotaSnapshot frota = new FrotaSnapshot(1, List.of(automovel(1L, 100.0), automovel(2L, 100.0), automovel(3L, 100.0),
+				automovel(4L, 80.0)));
+		TabelaTarifas tabela = tabela(frota);
+		assertEquals(3, tabela.getVetores());
+
+		// Alterado para uma diária que já existe: passa a usar o vetor dela
+		TabelaTarifas derivada = tabela.comFrota(2, frota.comAutomovel(automovel(4L, 100.0)));
+		assertEquals(2, derivada.getVetores());
+		assertEquals(11000, derivada.cotar(automovel(4L, 100.0), SABADO, 1).getTotalCentavos());
+	}
+
+	private TabelaTarifas tabela(FrotaSnapshot frota) {
+		return new TabelaTarifas(1, frota, regras, INICIO, DIAS);
+	}
+
+	private static Automovel automovel(Long id, double diaria) {
+		Automovel automovel = new Automovel();
+		automovel.setId(id);
+		automovel.setValorAluguelDiario(diaria);
+		return automovel;
+	}
+
+	private static RegraPreco semanal(Long automovelId, DayOfWeek dia, String percentual) {
+		RegraPreco regra = regra(automovelId, RegraPreco.TipoRegra.DIA_SEMANA, percentual);
+		regra.setDiaSemana(dia);
+		return regra;
+	}
+
+	private static RegraPreco duracao(Long automovelId, int diasMinimos, String percentual) {
+		RegraPreco regra = regra(automovelId, RegraPreco.TipoRegra.DURACAO, percentual);
+		regra.setDiasMinimos(diasMinimos);
+		return regra;
+	}
+
+	private static RegraPreco regra(Long automovelId, RegraPreco.TipoRegra tipo, String percentual) {
+		RegraPreco regra = new RegraPreco();
+		regra.setTipo(tipo);
+		regra.setAutomovelId(automovelId);
+		regra.setPercentual(new BigDecimal(percentual));
+		return regra;
+	}
+}
@@ -0,0 +1,80 @@
+package com.pucminas.rental_system.service;
+
+import com.pucminas.rental_system.RentalSystemApplication;
+import com.pucminas.rental_system.model.User;
+import com.pucminas.rental_system.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest(classes = RentalSystemApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:usuariocachetestdb")
+class UsuarioCacheTests {
+
+	@Autowired private UsuarioCache usuarioCache;
+	@Autowired private UserRepository userRepository;
+	@Autowired private TransactionTemplate transactionTemplate;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		usuarioCache.getCache().limpar();
+	}
+
+	@Test
+	void segundaBuscaVemDoCacheSemEntidade() {
+		long acertos = usuarioCache.getCache().getAcertos();
+
+		UsuarioCacheado primeira = usuarioCache.buscarPorEmail("cliente@email.com");
+		UsuarioCacheado segunda = usuarioCache.buscarPorEmail("cliente@email.com");
+
+		assertNotNull(primeira);
+		assertSame(primeira, segunda);
+		assertEquals(acertos + 1, usuarioCache.getCache().getAcertos());
+		assertEquals(1L, primeira.id());
+		assertEquals("ROLE_CLIENTE", primeira.role());
+		assertNull(usuarioCache.buscarPorEmail("ninguem@email.com"));
+	}
+
+	@Test
+	void alteracaoSaiDoCacheSoDepoisDoCommit() {
+		inserirAgente(701L, "senha@email.com");
+		UsuarioCacheado antes = usuarioCache.buscarPorEmail("senha@email.com");
+		assertNotNull(antes);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			User agente = userRepository.findByEmail("senha@email.com");
+			agente.setPassword("{noop}nova");
+			userRepository.flush();
+			// Já houve o UPDATE, mas outra transação ainda lê a senha antiga: a entrada continua válida
+			assertSame(antes, usuarioCache.getCache().obter("senha@email.com"));
+		});
+
+		assertNull(usuarioCache.getCache().obter("senha@email.com"));
+		assertEquals("{noop}nova", usuarioCache.buscarPorEmail("senha@email.com").senha());
+	}
+
+	@Test
+	void trocaDeEmailRemoveAEntradaAntiga() {
+		inserirAgente(702L, "antigo@email.com");
+		assertNotNull(usuarioCache.buscarPorEmail("antigo@email.com"));
+
+		transactionTemplate.executeWithoutResult(status ->
+			userRepository.findByEmail("antigo@email.com").setEmail("novo@email.com"));
+
+		assertNull(usuarioCache.buscarPorEmail("antigo@email.com"));
+		assertEquals(702L, usuarioCache.buscarPorEmail("novo@email.com").id());
+	}
+
+	private void inserirAgente(Long id, String email) {
+		jdbcTemplate.update("INSERT INTO users (id, email, password, role) VALUES (?, ?, '{noop}senha', 'ROLE_AGENTE')", id, email);
+		jdbcTemplate.update("INSERT INTO agente (id, nome_empresa) VALUES (?, 'Teste')", id);
+	}
+}